@@ -208,7 +208,8 @@ public class TripManagerResource {
         Booking tripBooking = service.get(bookingId);
         if (tripBooking != null) {
             // Fetch the final status of hotel and flight booking
-            service.mergeAssociateBookingDetails(tripBooking, getHotelTarget(), getFlightTarget());
+            service.mergeAssociateBookingDetails(tripBooking, status, getHotelTarget(), getFlightTarget());
+            service.complete(bookingId);
         }
         // Clean up of resources held by this LRA
         return ResponseEntity.ok().build();
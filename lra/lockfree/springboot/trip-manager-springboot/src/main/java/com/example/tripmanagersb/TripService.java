@@ -22,8 +22,12 @@ CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFT
 package com.example.tripmanagersb;
 
 import com.example.tripmanagersb.model.Booking;
+import com.example.tripmanagersb.store.BookingStore;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.RestTemplate;
@@ -32,19 +36,34 @@ import org.springframework.web.util.UriComponentsBuilder;
 
 import java.net.URI;
 import java.sql.Connection;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
-import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
 
 @Service
 public class TripService {
     private static final Logger LOG = LoggerFactory.getLogger(TripService.class);
 
-    private Map<String, Booking> bookings = new ConcurrentHashMap<>();
+    @Autowired
+    private BookingStore bookings;
+
+    @Autowired
+    @Qualifier("participantStatusRestTemplate")
+    private RestTemplate participantStatusRestTemplate;
+
+    @Autowired
+    @Qualifier("participantStatusExecutor")
+    private Executor participantStatusExecutor;
+
+    @Value("${trip.afterLra.fetchParticipantStatus:true}")
+    private boolean fetchParticipantStatus;
 
     public void saveProvisionalBooking(Booking booking, Connection connection) throws BookingException {
-        bookings.putIfAbsent(booking.getId(), booking);
+        bookings.putIfAbsent(booking);
 
         //check if any associate booking is a failed booking
         for (Booking associatedBooking : booking.getDetails()) {
@@ -58,22 +77,52 @@ public class TripService {
     }
 
     public Booking get(String bookingId) throws ResponseStatusException {
-        if (!bookings.containsKey(bookingId)) {
+        Booking booking = bookings.get(bookingId);
+        if (booking == null) {
             throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Invalid Booking Id: " + bookingId);
         }
-        return bookings.get(bookingId);
+        return booking;
     }
 
     public Collection<Booking> getAll() {
-        return bookings.values();
+        return bookings.getAll();
     }
 
-    public void mergeAssociateBookingDetails(Booking tripBooking, UriComponentsBuilder hotelTarget, UriComponentsBuilder flightTarget) {
-        for (Booking associatedBooking : tripBooking.getDetails()) {
-            if ("Hotel".equals(associatedBooking.getType())) {
-                mergeAssociateBookingDetails(hotelTarget, associatedBooking);
-            } else if ("Flight".equals(associatedBooking.getType())) {
-                mergeAssociateBookingDetails(flightTarget, associatedBooking);
+    /**
+     * Marks the trip booking as terminal once its LRA ended, allowing the booking store to evict it
+     */
+    public void complete(String bookingId) {
+        bookings.completed(bookingId);
+    }
+
+    /**
+     * Updates the associated bookings with their final status, and the trip booking status from them. With
+     * {@code trip.afterLra.fetchParticipantStatus} false the status of a closed or cancelled LRA is applied to the
+     * associated bookings without calling the participants; otherwise all the participants are called at once and
+     * each call is bounded by {@code trip.afterLra.statusTimeoutMillis}.
+     *
+     * @param lraStatus final status of the LRA, the body of the @AfterLRA callback
+     */
+    public void mergeAssociateBookingDetails(Booking tripBooking, String lraStatus, UriComponentsBuilder hotelTarget, UriComponentsBuilder flightTarget) {
+        Booking.BookingStatus finalStatus = fetchParticipantStatus ? null : finalStatus(lraStatus);
+        if (finalStatus != null) {
+            for (Booking associatedBooking : tripBooking.getDetails()) {
+                associatedBooking.setStatus(finalStatus);
+            }
+        } else {
+            List<CompletableFuture<Void>> merges = new ArrayList<>();
+            for (Booking associatedBooking : tripBooking.getDetails()) {
+                if ("Hotel".equals(associatedBooking.getType())) {
+                    merges.add(CompletableFuture.runAsync(() -> mergeAssociateBookingDetails(hotelTarget, associatedBooking), participantStatusExecutor));
+                } else if ("Flight".equals(associatedBooking.getType())) {
+                    merges.add(CompletableFuture.runAsync(() -> mergeAssociateBookingDetails(flightTarget, associatedBooking), participantStatusExecutor));
+                }
+            }
+            try {
+                CompletableFuture.allOf(merges.toArray(new CompletableFuture[0])).join();
+            } catch (CompletionException e) {
+                // Fail the callback so that the coordinator calls it again
+                throw e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : e;
             }
         }
         // If any associate booking fails, the entire trip fails
@@ -85,19 +134,32 @@ public class TripService {
         }
     }
 
-    private static void mergeAssociateBookingDetails(UriComponentsBuilder target, Booking booking) {
+    /**
+     * @return the status of the associated bookings of a closed or cancelled LRA, null for the other final statuses
+     */
+    private static Booking.BookingStatus finalStatus(String lraStatus) {
+        String status = lraStatus == null ? "" : lraStatus.replace("\"", "").trim();
+        if ("Closed".equalsIgnoreCase(status)) {
+            return Booking.BookingStatus.CONFIRMED;
+        }
+        if ("Cancelled".equalsIgnoreCase(status)) {
+            return Booking.BookingStatus.CANCELLED;
+        }
+        return null;
+    }
+
+    private void mergeAssociateBookingDetails(UriComponentsBuilder target, Booking booking) {
 
         URI uri = target
+                .cloneBuilder()
                 .path("/")
                 .path(booking.getId())
                 .build()
                 .toUri();
 
-        RestTemplate restTemplate = new RestTemplate();
-
-        Booking responseBooking = restTemplate.getForEntity(uri, Booking.class).getBody();
+        Booking responseBooking = participantStatusRestTemplate.getForEntity(uri, Booking.class).getBody();
 //        associated service must be listening on this path /bookingId
         assert responseBooking != null;
         booking.merge(responseBooking);
     }
-}
+}
\ No newline at end of file
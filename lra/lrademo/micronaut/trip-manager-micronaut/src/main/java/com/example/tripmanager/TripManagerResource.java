@@ -41,6 +41,7 @@ import io.micronaut.scheduling.annotation.ExecuteOn;
 import jakarta.inject.Inject;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import reactor.core.publisher.Mono;
 
 import java.net.URI;
 import java.nio.charset.StandardCharsets;
@@ -50,7 +51,6 @@ import static com.oracle.microtx.lra.annotation.LRA.*;
 
 @Controller("/trip-service/api")
 @RequestScope
-@ExecuteOn(TaskExecutors.BLOCKING)
 @Introspected
 public class TripManagerResource {
     private static final String ORACLE_TMM_TX_TOKEN = "Oracle-Tmm-Tx-Token";
@@ -71,41 +71,39 @@ public class TripManagerResource {
 
     @Post(uri = "/trip/", consumes = MediaType.APPLICATION_JSON)
     @LRA(value = LRA.Type.REQUIRES_NEW, end = false)
-    public HttpResponse<?> bookTrip(@QueryValue(value = "hotelName", defaultValue = "TheGrand") String hotelName,
-                                    @QueryValue(value = "flightNumber", defaultValue = "A123") String flightNumber,
-                                    @Header(LRA_HTTP_CONTEXT_HEADER) String lraId,
-                                    @Nullable @Header(ORACLE_TMM_TX_TOKEN) String oracleTmmTxToken){
+    public Mono<HttpResponse<?>> bookTrip(@QueryValue(value = "hotelName", defaultValue = "TheGrand") String hotelName,
+                                          @QueryValue(value = "flightNumber", defaultValue = "A123") String flightNumber,
+                                          @Header(LRA_HTTP_CONTEXT_HEADER) String lraId,
+                                          @Nullable @Header(ORACLE_TMM_TX_TOKEN) String oracleTmmTxToken){
 
         LOG.info("Started new LRA " + lraId);
 
-        Booking tripBooking = null;
         String bookingId = new String(Base64.getEncoder().encode(lraId.getBytes(StandardCharsets.UTF_8)));
-        try {
-            LOG.info("Calling LRA participants Hotel booking and Flight booking sequentially");
-            Booking flightBooking = null;
-            Booking hotelBooking = bookHotel(hotelName, bookingId);
-            if (hotelBooking != null && hotelBooking.getStatus() != Booking.BookingStatus.FAILED) {
-                flightBooking = bookFlight(flightNumber, bookingId);
-            }
-            tripBooking = new Booking(bookingId, "Trip", "Trip", hotelBooking, flightBooking);
-            service.saveProvisionalBooking(tripBooking);
-
-            return (oracleTmmTxToken != null) ? HttpResponse.ok().header(ORACLE_TMM_TX_TOKEN, oracleTmmTxToken).body(tripBooking) :
-                    HttpResponse.ok().body(tripBooking);
-        } catch (BookingException e) {
-            LOG.error("Booking failed", e);
-            return (oracleTmmTxToken != null) ? HttpResponse.serverError().header(ORACLE_TMM_TX_TOKEN, oracleTmmTxToken)
-                    .body(tripBooking) : HttpResponse.serverError().body(e.getMessage());
-        }
+        LOG.info("Calling LRA participants Hotel booking and Flight booking concurrently");
+        return Mono.zip(bookHotel(hotelName, bookingId), bookFlight(flightNumber, bookingId))
+                .<HttpResponse<?>>map(bookings -> {
+                    Booking tripBooking = new Booking(bookingId, "Trip", "Trip", bookings.getT1(), bookings.getT2());
+                    try {
+                        service.saveProvisionalBooking(tripBooking);
+                        return (oracleTmmTxToken != null) ? HttpResponse.ok().header(ORACLE_TMM_TX_TOKEN, oracleTmmTxToken).body(tripBooking) :
+                                HttpResponse.ok().body(tripBooking);
+                    } catch (BookingException e) {
+                        LOG.error("Booking failed", e);
+                        return (oracleTmmTxToken != null) ? HttpResponse.serverError().header(ORACLE_TMM_TX_TOKEN, oracleTmmTxToken)
+                                .body(tripBooking) : HttpResponse.serverError().body(e.getMessage());
+                    }
+                });
     }
 
     @Get(uri = "/trip/{bookingId}")
+    @ExecuteOn(TaskExecutors.BLOCKING)
     public HttpResponse<?> getBooking(@PathVariable("bookingId") String bookingId) {
         return HttpResponse.ok(service.get(bookingId));
     }
 
     @Put(uri = "/trip/{bookingId}", consumes = MediaType.TEXT_PLAIN)
     @LRA(value = LRA.Type.MANDATORY, end = true)
+    @ExecuteOn(TaskExecutors.BLOCKING)
     public HttpResponse<?> confirmTrip(@PathVariable String bookingId){
         LOG.info("Received Confirmation for trip booking with Id : " + bookingId);
         Booking tripBooking = service.get(bookingId);
@@ -129,20 +127,16 @@ public class TripManagerResource {
 
     @Put(uri = "/after", consumes = MediaType.TEXT_PLAIN, produces = MediaType.TEXT_PLAIN)
     @AfterLRA
-    public HttpResponse<?> afterLra(@Header(LRA_HTTP_ENDED_CONTEXT_HEADER) String lraId, @Body String status){
+    public Mono<HttpResponse<?>> afterLra(@Header(LRA_HTTP_ENDED_CONTEXT_HEADER) String lraId, @Body String status){
         String bookingId = new String(Base64.getEncoder().encode(lraId.getBytes(StandardCharsets.UTF_8)));
         LOG.info("After LRA Called : " + lraId);
         LOG.info("Final LRA Status : " + status);
-        Booking tripBooking = service.get(bookingId);
-        if (tripBooking != null) {
-            // Fetch the final status of hotel and flight booking
-            service.mergeAssociateBookingDetails(tripBooking, getHotelTarget(), getFlightTarget());
-        }
-        // Clean up of resources held by this LRA
-        return HttpResponse.ok();
+        // Fetch the final status of hotel and flight booking
+        return service.completeAfterLra(bookingId, getHotelTarget(), getFlightTarget())
+                .<HttpResponse<?>>thenReturn(HttpResponse.ok());
     }
 
-    private Booking bookHotel(String name, String id) {
+    private Mono<Booking> bookHotel(String name, String id) {
         LOG.info("Calling Hotel Service to book hotel with booking Id : " + id);
 
         URI hotelUri = UriBuilder.of(hotelServiceUri)
@@ -153,20 +147,12 @@ public class TripManagerResource {
                 .accept(MediaType.APPLICATION_JSON_TYPE)
                 .contentType(MediaType.APPLICATION_FORM_URLENCODED);
 
-        Booking hotelBooking = null;
-        try {
-            HttpResponse<Booking> response = httpClient.toBlocking().exchange(request, Booking.class);
-            hotelBooking = response.body();
-            LOG.info(String.format("Hotel booking %s with booking Id : %s", (hotelBooking.getStatus() == Booking.BookingStatus.FAILED ? "FAILED" : "SUCCESSFUL"), hotelBooking.getId()));
-        } catch (Exception ex) {
-            LOG.error("Hotel booking FAILED with error", ex);
-            throw ex;
-        }
-        assert hotelBooking != null;
-        return hotelBooking;
+        return Mono.from(httpClient.retrieve(request, Booking.class))
+                .doOnNext(hotelBooking -> LOG.info(String.format("Hotel booking %s with booking Id : %s", (hotelBooking.getStatus() == Booking.BookingStatus.FAILED ? "FAILED" : "SUCCESSFUL"), hotelBooking.getId())))
+                .doOnError(ex -> LOG.error("Hotel booking FAILED with error", ex));
     }
 
-    private Booking bookFlight(String flightNumber, String id) {
+    private Mono<Booking> bookFlight(String flightNumber, String id) {
         LOG.info("Calling Flight Service to book flight with booking Id : " + id);
 
         URI flightUri = UriBuilder.of(flightServiceUri)
@@ -177,17 +163,9 @@ public class TripManagerResource {
                     .accept(MediaType.APPLICATION_JSON_TYPE)
                     .contentType(MediaType.APPLICATION_FORM_URLENCODED);
 
-        Booking flightBooking = null;
-        try {
-            HttpResponse<Booking> response = httpClient.toBlocking().exchange(request, Booking.class);
-            flightBooking = response.body();
-            LOG.info(String.format("Flight booking %s with booking Id : %s", (flightBooking.getStatus() == Booking.BookingStatus.FAILED ? "FAILED" : "SUCCESSFUL"), flightBooking.getId()));
-        } catch (Exception ex) {
-            LOG.error("Flight booking FAILED with error", ex);
-            throw ex;
-        }
-        assert flightBooking != null;
-        return flightBooking;
+        return Mono.from(httpClient.retrieve(request, Booking.class))
+                .doOnNext(flightBooking -> LOG.info(String.format("Flight booking %s with booking Id : %s", (flightBooking.getStatus() == Booking.BookingStatus.FAILED ? "FAILED" : "SUCCESSFUL"), flightBooking.getId())))
+                .doOnError(ex -> LOG.error("Flight booking FAILED with error", ex));
     }
 
     private UriBuilder getHotelTarget(){
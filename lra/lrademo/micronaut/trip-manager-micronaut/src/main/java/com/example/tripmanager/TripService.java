@@ -22,23 +22,29 @@ CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFT
 package com.example.tripmanager;
 
 import com.example.tripmanager.model.Booking;
+import com.example.tripmanager.store.BookingStore;
 import io.micronaut.http.HttpRequest;
-import io.micronaut.http.HttpResponse;
 import io.micronaut.http.HttpStatus;
 import io.micronaut.http.MediaType;
 import io.micronaut.http.client.HttpClient;
 import io.micronaut.http.exceptions.HttpStatusException;
 import io.micronaut.http.uri.UriBuilder;
+import io.micronaut.scheduling.TaskExecutors;
+import jakarta.annotation.PostConstruct;
 import jakarta.inject.Inject;
+import jakarta.inject.Named;
 import jakarta.inject.Singleton;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
 
 import java.net.URI;
 import java.util.Arrays;
 import java.util.Collection;
-import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
 
 @Singleton
 public class TripService {
@@ -46,13 +52,29 @@ public class TripService {
     @Inject
     HttpClient httpClient;
 
-    private Map<String, Booking> bookings = new ConcurrentHashMap<>();
+    @Inject
+    BookingStore bookings;
+
+    @Inject
+    @Named(TaskExecutors.BLOCKING)
+    ExecutorService blockingExecutor;
+
+    /**
+     * The booking store may read or write spilled bookings on disk, which must not happen on the event loop
+     */
+    private Scheduler blockingScheduler;
+
     private int TOTAL_PARTICIPANTS = 2;
 
     private static final Logger LOG = LoggerFactory.getLogger(TripService.class);
 
+    @PostConstruct
+    void init() {
+        blockingScheduler = Schedulers.fromExecutorService(blockingExecutor);
+    }
+
     public void saveProvisionalBooking(Booking booking) throws BookingException {
-        bookings.putIfAbsent(booking.getId(), booking);
+        bookings.putIfAbsent(booking);
 
         if (booking.getDetails().length != TOTAL_PARTICIPANTS) {
             LOG.info(String.format("Cancelling booking id %s (%s) status: %s", booking.getId(), booking.getName(), booking.getStatus()));
@@ -72,34 +94,58 @@ public class TripService {
     }
 
     public Booking get(String bookingId) throws HttpStatusException {
-        if (!bookings.containsKey(bookingId)) {
+        Booking booking = bookings.get(bookingId);
+        if (booking == null) {
             throw new HttpStatusException(HttpStatus.NOT_FOUND, "Invalid Booking Id: " + bookingId);
         }
-        return bookings.get(bookingId);
+        return booking;
     }
 
     public Collection<Booking> getAll() {
-        return bookings.values();
+        return bookings.getAll();
     }
 
-    public void mergeAssociateBookingDetails(Booking tripBooking, UriBuilder hotelTarget, UriBuilder flightTarget) {
-        for (Booking associatedBooking : tripBooking.getDetails()) {
-            if ("Hotel".equals(associatedBooking.getType())) {
-                mergeAssociateBookingDetails(hotelTarget, associatedBooking);
-            } else if ("Flight".equals(associatedBooking.getType())) {
-                mergeAssociateBookingDetails(flightTarget, associatedBooking);
-            }
-        }
-        // If any associate booking fails, the entire trip fails
-        boolean anyAssociatedBookingFailed = Arrays.stream(tripBooking.getDetails()).anyMatch(booking -> booking.getStatus().equals(Booking.BookingStatus.FAILED) || booking.getStatus().equals(Booking.BookingStatus.CANCELLED));
-        if (anyAssociatedBookingFailed) {
-            tripBooking.setStatus(Booking.BookingStatus.CANCELLED);
-        } else {
-            tripBooking.setStatus(Booking.BookingStatus.CONFIRMED);
-        }
+    /**
+     * Marks the trip booking as terminal once its LRA ended, allowing the booking store to evict it
+     */
+    public void complete(String bookingId) {
+        bookings.completed(bookingId);
+    }
+
+    /**
+     * Merges the final status of the hotel and flight bookings, fetched from both participants at once, into the trip
+     * booking and marks it as terminal
+     */
+    public Mono<Void> completeAfterLra(String bookingId, UriBuilder hotelTarget, UriBuilder flightTarget) {
+        return Mono.fromCallable(() -> get(bookingId))
+                .subscribeOn(blockingScheduler)
+                .flatMap(tripBooking -> mergeAssociateBookingDetails(tripBooking, hotelTarget, flightTarget))
+                .then(Mono.fromRunnable(() -> complete(bookingId)).subscribeOn(blockingScheduler))
+                .then();
+    }
+
+    public Mono<Void> mergeAssociateBookingDetails(Booking tripBooking, UriBuilder hotelTarget, UriBuilder flightTarget) {
+        return Flux.fromArray(tripBooking.getDetails())
+                .flatMap(associatedBooking -> {
+                    if ("Hotel".equals(associatedBooking.getType())) {
+                        return mergeAssociateBookingDetails(hotelTarget, associatedBooking);
+                    } else if ("Flight".equals(associatedBooking.getType())) {
+                        return mergeAssociateBookingDetails(flightTarget, associatedBooking);
+                    }
+                    return Mono.empty();
+                })
+                .then(Mono.fromRunnable(() -> {
+                    // If any associate booking fails, the entire trip fails
+                    boolean anyAssociatedBookingFailed = Arrays.stream(tripBooking.getDetails()).anyMatch(booking -> booking.getStatus().equals(Booking.BookingStatus.FAILED) || booking.getStatus().equals(Booking.BookingStatus.CANCELLED));
+                    if (anyAssociatedBookingFailed) {
+                        tripBooking.setStatus(Booking.BookingStatus.CANCELLED);
+                    } else {
+                        tripBooking.setStatus(Booking.BookingStatus.CONFIRMED);
+                    }
+                }));
     }
 
-    private void mergeAssociateBookingDetails(UriBuilder target, Booking booking) {
+    private Mono<Booking> mergeAssociateBookingDetails(UriBuilder target, Booking booking) {
 
         URI uri = target
                 .path("/")
@@ -109,9 +155,7 @@ public class TripService {
         HttpRequest<?> request = HttpRequest.GET(uri)
                 .accept(MediaType.APPLICATION_JSON_TYPE)
                 .contentType(MediaType.APPLICATION_JSON_TYPE);
-        HttpResponse<Booking> response = httpClient.toBlocking().exchange(request, Booking.class);
-        Booking responseBooking = response.body();
-        assert responseBooking != null;
-        booking.merge(responseBooking);
+        return Mono.from(httpClient.retrieve(request, Booking.class))
+                .doOnNext(booking::merge);
     }
 }
@@ -0,0 +1,262 @@
+/*
+Copyright (c) 2023, Oracle and/or its affiliates. **
+
+The Universal Permissive License (UPL), Version 1.0 **
+
+Subject to the condition set forth below, permission is hereby granted to any person obtaining a copy of this software, associated documentation and/or data
+(collectively the "Software"), free of charge and under any and all copyright rights in the Software, and any and all patent rights owned or freely licensable by each
+licensor hereunder covering either the unmodified Software as contributed to or provided by such licensor, or (ii) the Larger Works (as defined below), to deal in both **
+(a) the Software, and (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if one is included with the Software (each a "Larger Work" to which the
+Software is contributed by such licensors), **
+without restriction, including without limitation the rights to copy, create derivative works of, display, perform, and distribute the Software and make, use, sell,
+offer for sale, import, export, have made, and have sold the Software and the Larger Work(s), and to sublicense the foregoing rights on either these or other terms. **
+
+This license is subject to the following condition: The above copyright notice and either this complete permission notice or at a minimum a reference to the UPL must be
+included in all copies or substantial portions of the Software. **
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A
+PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF
+CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+*/
+ 
+package com.example.tripmanager.store;
+
+import com.example.tripmanager.model.Booking;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micronaut.context.annotation.Value;
+import io.micronaut.json.JsonMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.inject.Inject;
+import jakarta.inject.Singleton;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Booking store that keeps the provisional bookings until their LRA ends, or for at most
+ * {@code booking.store.provisional-ttl-seconds} when the @AfterLRA callback never completes them, and at most
+ * {@code booking.store.max-terminal-bookings} terminal bookings, for at most
+ * {@code booking.store.terminal-ttl-seconds}. Terminal bookings are evicted oldest first. When
+ * {@code booking.store.spillover-dir} is set, evicted bookings are written there as JSON and {@link #get(String)} still
+ * finds them, for audit lookups.
+ */
+@Singleton
+public class BoundedBookingStore implements BookingStore {
+
+    private static final Logger LOG = LoggerFactory.getLogger(BoundedBookingStore.class);
+
+    private final Map<String, TimedBooking> provisional = new ConcurrentHashMap<>();
+    // Terminal bookings in the order they completed, guarded by itself
+    private final LinkedHashMap<String, TimedBooking> terminal = new LinkedHashMap<>();
+    private final AtomicLong spilloverBytes = new AtomicLong();
+
+    @Inject
+    JsonMapper jsonMapper;
+
+    @Inject
+    MeterRegistry meterRegistry;
+
+    @Value("${booking.store.max-terminal-bookings:10000}")
+    int maxTerminalBookings;
+
+    @Value("${booking.store.terminal-ttl-seconds:3600}")
+    long terminalTtlSeconds;
+
+    @Value("${booking.store.provisional-ttl-seconds:3600}")
+    long provisionalTtlSeconds;
+
+    @Value("${booking.store.spillover-dir:}")
+    String spilloverDir;
+
+    private Path spillover;
+    private ScheduledExecutorService sweeper;
+    private Counter evictedBySize;
+    private Counter evictedByAge;
+    private Counter abandoned;
+    private Counter spilled;
+
+    @PostConstruct
+    void start() throws IOException {
+        if (!spilloverDir.isEmpty()) {
+            spillover = Files.createDirectories(Paths.get(spilloverDir));
+        }
+        Gauge.builder("bookings.provisional", provisional::size).register(meterRegistry);
+        Gauge.builder("bookings.terminal", this::terminalSize).register(meterRegistry);
+        Gauge.builder("bookings.spillover.bytes", spilloverBytes::get).register(meterRegistry);
+        evictedBySize = Counter.builder("bookings.evicted").tag("reason", "size").register(meterRegistry);
+        evictedByAge = Counter.builder("bookings.evicted").tag("reason", "age").register(meterRegistry);
+        abandoned = Counter.builder("bookings.abandoned").register(meterRegistry);
+        spilled = Counter.builder("bookings.spilled").register(meterRegistry);
+        long sweepSeconds = Math.max(1, Math.min(terminalTtlSeconds, 60));
+        sweeper = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "booking-store-sweeper");
+            thread.setDaemon(true);
+            return thread;
+        });
+        sweeper.scheduleWithFixedDelay(this::sweep, sweepSeconds, sweepSeconds, TimeUnit.SECONDS);
+    }
+
+    @PreDestroy
+    void stop() {
+        sweeper.shutdownNow();
+    }
+
+    @Override
+    public Booking putIfAbsent(Booking booking) {
+        TimedBooking saved = provisional.putIfAbsent(booking.getId(), new TimedBooking(booking, System.currentTimeMillis()));
+        return saved == null ? null : saved.booking;
+    }
+
+    @Override
+    public Booking get(String bookingId) {
+        TimedBooking provisionalBooking = provisional.get(bookingId);
+        if (provisionalBooking != null) {
+            return provisionalBooking.booking;
+        }
+        synchronized (terminal) {
+            TimedBooking timedBooking = terminal.get(bookingId);
+            if (timedBooking != null) {
+                return timedBooking.booking;
+            }
+        }
+        return readSpilled(bookingId);
+    }
+
+    @Override
+    public Collection<Booking> getAll() {
+        List<Booking> bookings = new ArrayList<>();
+        provisional.values().forEach(provisionalBooking -> bookings.add(provisionalBooking.booking));
+        synchronized (terminal) {
+            terminal.values().forEach(timedBooking -> bookings.add(timedBooking.booking));
+        }
+        return bookings;
+    }
+
+    @Override
+    public void completed(String bookingId) {
+        TimedBooking provisionalBooking = provisional.remove(bookingId);
+        if (provisionalBooking == null) {
+            return;
+        }
+        synchronized (terminal) {
+            terminal.put(bookingId, new TimedBooking(provisionalBooking.booking, System.currentTimeMillis()));
+        }
+        evict();
+    }
+
+    private void sweep() {
+        abandon();
+        evict();
+    }
+
+    /**
+     * Moves the provisional bookings older than the provisional TTL to the terminal bookings, in whatever status
+     * they have. Their LRA has timed out or the coordinator stopped retrying a failing @AfterLRA by then.
+     */
+    private void abandon() {
+        long now = System.currentTimeMillis();
+        long abandonedBefore = now - TimeUnit.SECONDS.toMillis(provisionalTtlSeconds);
+        provisional.forEach((bookingId, provisionalBooking) -> {
+            if (provisionalBooking.since < abandonedBefore && provisional.remove(bookingId, provisionalBooking)) {
+                LOG.warn("Booking {} was not completed by @AfterLRA within {}s, moved to the terminal bookings", bookingId, provisionalTtlSeconds);
+                abandoned.increment();
+                synchronized (terminal) {
+                    terminal.put(bookingId, new TimedBooking(provisionalBooking.booking, now));
+                }
+            }
+        });
+    }
+
+    private int terminalSize() {
+        synchronized (terminal) {
+            return terminal.size();
+        }
+    }
+
+    /**
+     * Evicts the oldest terminal bookings beyond the maximum size or age, and spills them
+     */
+    private void evict() {
+        long expiredBefore = System.currentTimeMillis() - TimeUnit.SECONDS.toMillis(terminalTtlSeconds);
+        List<Booking> evicted = new ArrayList<>();
+        synchronized (terminal) {
+            Iterator<TimedBooking> oldest = terminal.values().iterator();
+            while (oldest.hasNext()) {
+                TimedBooking timedBooking = oldest.next();
+                if (terminal.size() > maxTerminalBookings) {
+                    evictedBySize.increment();
+                } else if (timedBooking.since < expiredBefore) {
+                    evictedByAge.increment();
+                } else {
+                    break;
+                }
+                oldest.remove();
+                evicted.add(timedBooking.booking);
+            }
+        }
+        if (spillover != null) {
+            evicted.forEach(this::spill);
+        }
+    }
+
+    private void spill(Booking booking) {
+        try {
+            byte[] json = jsonMapper.writeValueAsBytes(booking);
+            Files.write(spilloverFile(booking.getId()), json);
+            spilloverBytes.addAndGet(json.length);
+            spilled.increment();
+        } catch (IOException e) {
+            LOG.warn("Failed to spill booking " + booking.getId(), e);
+        }
+    }
+
+    private Booking readSpilled(String bookingId) {
+        if (spillover == null) {
+            return null;
+        }
+        try {
+            return jsonMapper.readValue(Files.readAllBytes(spilloverFile(bookingId)), Booking.class);
+        } catch (NoSuchFileException e) {
+            return null;
+        } catch (IOException e) {
+            LOG.warn("Failed to read spilled booking " + bookingId, e);
+            return null;
+        }
+    }
+
+    private Path spilloverFile(String bookingId) {
+        // Booking ids are Base64 encoded LRA ids, which may contain '/'
+        return spillover.resolve(Base64.getUrlEncoder().withoutPadding().encodeToString(bookingId.getBytes(StandardCharsets.UTF_8)) + ".json");
+    }
+
+    private static class TimedBooking {
+        final Booking booking;
+        final long since;
+
+        TimedBooking(Booking booking, long since) {
+            this.booking = booking;
+            this.since = since;
+        }
+    }
+}
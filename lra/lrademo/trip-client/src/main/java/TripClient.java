@@ -23,6 +23,7 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import model.Booking;
 import model.BookingResponse;
 
+import javax.ws.rs.client.Client;
 import javax.ws.rs.client.ClientBuilder;
 import javax.ws.rs.client.Entity;
 import javax.ws.rs.client.Invocation.Builder;
@@ -36,6 +37,7 @@ import java.util.Arrays;
 import java.util.Base64;
 import java.util.List;
 import java.util.Scanner;
+import java.util.concurrent.TimeUnit;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -43,6 +45,11 @@ public class TripClient {
     static ObjectMapper objectMapper = new ObjectMapper();
     private static String TRIP_SERVICE_BASE_URL;
     private static final String ORACLE_TMM_TX_TOKEN = "Oracle-Tmm-Tx-Token";
+    // One client for all calls, so that the connection to the trip service is kept alive and reused
+    private static final Client TRIP_SERVICE_CLIENT = ClientBuilder.newBuilder()
+            .connectTimeout(Long.getLong("trip.service.http.connectTimeoutMillis", 5000), TimeUnit.MILLISECONDS)
+            .readTimeout(Long.getLong("trip.service.http.readTimeoutMillis", 30000), TimeUnit.MILLISECONDS)
+            .build();
 
     private static final Logger logger = Logger.getLogger(TripClient.class.getName());
 
@@ -168,7 +175,7 @@ public class TripClient {
     }
 
     private WebTarget getTripTarget() {
-        return ClientBuilder.newClient().target(TRIP_SERVICE_BASE_URL);
+        return TRIP_SERVICE_CLIENT.target(TRIP_SERVICE_BASE_URL);
     }
 
     private BookingResponse bookTrip(String hotelName, String flightNumber, String altFlightNumber, String accessToken, String refreshToken)
@@ -238,11 +245,7 @@ public class TripClient {
             requestBuilder.header(ORACLE_TMM_TX_TOKEN, oracleTransactionToken);
         }
         Response response = requestBuilder.delete();
-        if (response.getStatus() != Response.Status.OK.getStatusCode()) {
-            response.close();
-            return null;
-        }
-
+        response.close();
         return null;
     }
 
@@ -0,0 +1,190 @@
+/*
+Copyright (c) 2023, Oracle and/or its affiliates. **
+
+The Universal Permissive License (UPL), Version 1.0 **
+
+Subject to the condition set forth below, permission is hereby granted to any person obtaining a copy of this software, associated documentation and/or data
+(collectively the "Software"), free of charge and under any and all copyright rights in the Software, and any and all patent rights owned or freely licensable by each
+licensor hereunder covering either the unmodified Software as contributed to or provided by such licensor, or (ii) the Larger Works (as defined below), to deal in both **
+(a) the Software, and (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if one is included with the Software (each a "Larger Work" to which the
+Software is contributed by such licensors), **
+without restriction, including without limitation the rights to copy, create derivative works of, display, perform, and distribute the Software and make, use, sell,
+offer for sale, import, export, have made, and have sold the Software and the Larger Work(s), and to sublicense the foregoing rights on either these or other terms. **
+
+This license is subject to the following condition: The above copyright notice and either this complete permission notice or at a minimum a reference to the UPL must be
+included in all copies or substantial portions of the Software. **
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A
+PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF
+CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+*/
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import model.Booking;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Logger;
+
+/**
+ * Load test of trip-manager endpoints: books trips, and confirms them, with a fixed number of trips in flight and
+ * reports the throughput and the booking latency percentiles. Usage:
+ * <pre>
+ * java -Dtrip.load.requests=10000 -Dtrip.load.concurrency=1000 -cp target/trip-client.jar TripLoadTest [trip-service-url...]
+ * </pre>
+ * The endpoints are loaded one after the other and their results are printed as the rows of a Markdown table, which
+ * is also appended to the file given by trip.load.results when set. The trip service URL defaults to TRIP_SERVICE_URL,
+ * and ACCESS_TOKEN is sent as bearer token when set.
+ */
+public class TripLoadTest {
+    private static final String ORACLE_TMM_TX_TOKEN = "Oracle-Tmm-Tx-Token";
+    private static final String LRA_HTTP_CONTEXT_HEADER = "Long-Running-Action";
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+
+    private static final Logger logger = Logger.getLogger(TripLoadTest.class.getName());
+
+    private final HttpClient client = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofMillis(Long.getLong("trip.service.http.connectTimeoutMillis", 5000)))
+            .build();
+    private final Duration requestTimeout = Duration.ofMillis(Long.getLong("trip.service.http.readTimeoutMillis", 30000));
+    private final String tripServiceUrl;
+    private final String authorization;
+    private final boolean confirm = Boolean.parseBoolean(System.getProperty("trip.load.confirm", "true"));
+
+    private final AtomicInteger succeeded = new AtomicInteger();
+    private final AtomicInteger failed = new AtomicInteger();
+
+    TripLoadTest(String tripServiceUrl, String authorization) {
+        this.tripServiceUrl = tripServiceUrl;
+        this.authorization = authorization;
+    }
+
+    public static void main(String[] args) throws Exception {
+        String[] tripServiceUrls = args;
+        if (tripServiceUrls.length == 0) {
+            String tripServiceUrl = System.getenv("TRIP_SERVICE_URL");
+            tripServiceUrls = new String[]{tripServiceUrl == null || tripServiceUrl.isEmpty()
+                    ? "http://localhost:8081/trip-service/api/trip" : tripServiceUrl};
+        }
+        String accessToken = System.getenv("ACCESS_TOKEN");
+        int requests = Integer.getInteger("trip.load.requests", 10000);
+        int concurrency = Integer.getInteger("trip.load.concurrency", 1000);
+
+        List<String> results = new ArrayList<>();
+        results.add("");
+        results.add(String.format("Run at %s, %d trips, %d in flight, confirm %s", Instant.now(), requests, concurrency,
+                System.getProperty("trip.load.confirm", "true")));
+        results.add("");
+        results.add("| Endpoint | Succeeded | Failed | Trips/s | p50 ms | p90 ms | p99 ms | Max ms |");
+        results.add("|----------|-----------|--------|---------|--------|--------|--------|--------|");
+        for (String tripServiceUrl : tripServiceUrls) {
+            TripLoadTest loadTest = new TripLoadTest(tripServiceUrl, accessToken == null ? null : "Bearer " + accessToken);
+            results.add(loadTest.run(requests, concurrency));
+        }
+        results.forEach(System.out::println);
+        String resultsFile = System.getProperty("trip.load.results");
+        if (resultsFile != null) {
+            writeResults(resultsFile, results);
+        }
+    }
+
+    private static void writeResults(String resultsFile, List<String> results) throws IOException {
+        Files.write(Paths.get(resultsFile), results, StandardCharsets.UTF_8, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        logger.info("Results appended to " + resultsFile);
+    }
+
+    /**
+     * @return the results of the run, as a row of a Markdown table
+     */
+    String run(int requests, int concurrency) throws InterruptedException {
+        logger.info(String.format("Booking %d trips on %s with %d in flight", requests, tripServiceUrl, concurrency));
+        long[] latencies = new long[requests];
+        Semaphore inFlight = new Semaphore(concurrency);
+        CompletableFuture<?>[] trips = new CompletableFuture<?>[requests];
+        long start = System.nanoTime();
+        for (int i = 0; i < requests; i++) {
+            inFlight.acquire();
+            int trip = i;
+            long tripStart = System.nanoTime();
+            trips[i] = bookTrip()
+                    .whenComplete((result, e) -> {
+                        latencies[trip] = System.nanoTime() - tripStart;
+                        inFlight.release();
+                        if (e == null && result) {
+                            succeeded.incrementAndGet();
+                        } else {
+                            failed.incrementAndGet();
+                        }
+                    });
+        }
+        CompletableFuture.allOf(trips).exceptionally(e -> null).join();
+        long elapsedNanos = System.nanoTime() - start;
+
+        Arrays.sort(latencies);
+        System.out.printf("Trips: %d succeeded, %d failed in %.1f s, %.1f trips/s%n", succeeded.get(), failed.get(),
+                elapsedNanos / 1e9, requests / (elapsedNanos / 1e9));
+        System.out.printf("Latency ms: p50 %.1f, p90 %.1f, p99 %.1f, max %.1f%n", percentile(latencies, 0.50),
+                percentile(latencies, 0.90), percentile(latencies, 0.99), latencies[requests - 1] / 1e6);
+        return String.format("| %s | %d | %d | %.1f | %.1f | %.1f | %.1f | %.1f |", tripServiceUrl, succeeded.get(), failed.get(),
+                requests / (elapsedNanos / 1e9), percentile(latencies, 0.50), percentile(latencies, 0.90),
+                percentile(latencies, 0.99), latencies[requests - 1] / 1e6);
+    }
+
+    /**
+     * @return completes with true when the trip was booked, and confirmed if trip.load.confirm is true
+     */
+    private CompletableFuture<Boolean> bookTrip() {
+        HttpRequest booking = request(URI.create(tripServiceUrl))
+                .POST(HttpRequest.BodyPublishers.noBody())
+                .build();
+        return client.sendAsync(booking, HttpResponse.BodyHandlers.ofString())
+                .thenCompose(response -> {
+                    if (response.statusCode() != 200 || !confirm) {
+                        return CompletableFuture.completedFuture(response.statusCode() == 200);
+                    }
+                    String bookingId;
+                    try {
+                        bookingId = objectMapper.readValue(response.body(), Booking.class).getId();
+                    } catch (Exception e) {
+                        return CompletableFuture.completedFuture(false);
+                    }
+                    // The booking id is the Base64 encoded LRA id
+                    String lraId = new String(Base64.getDecoder().decode(bookingId.getBytes(StandardCharsets.UTF_8)));
+                    HttpRequest.Builder confirmation = request(URI.create(tripServiceUrl + "/" + bookingId))
+                            .header(LRA_HTTP_CONTEXT_HEADER, lraId)
+                            .PUT(HttpRequest.BodyPublishers.noBody());
+                    response.headers().firstValue(ORACLE_TMM_TX_TOKEN).ifPresent(token -> confirmation.header(ORACLE_TMM_TX_TOKEN, token));
+                    return client.sendAsync(confirmation.build(), HttpResponse.BodyHandlers.discarding())
+                            .thenApply(confirmed -> confirmed.statusCode() == 200);
+                });
+    }
+
+    private HttpRequest.Builder request(URI uri) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(uri).timeout(requestTimeout);
+        if (authorization != null) {
+            builder.header("Authorization", authorization);
+        }
+        return builder;
+    }
+
+    private static double percentile(long[] sortedNanos, double percentile) {
+        int index = (int) Math.ceil(percentile * sortedNanos.length) - 1;
+        return sortedNanos[Math.max(index, 0)] / 1e6;
+    }
+}
@@ -0,0 +1,108 @@
+/*
+Copyright (c) 2023, Oracle and/or its affiliates. **
+
+The Universal Permissive License (UPL), Version 1.0 **
+
+Subject to the condition set forth below, permission is hereby granted to any person obtaining a copy of this software, associated documentation and/or data
+(collectively the "Software"), free of charge and under any and all copyright rights in the Software, and any and all patent rights owned or freely licensable by each
+licensor hereunder covering either the unmodified Software as contributed to or provided by such licensor, or (ii) the Larger Works (as defined below), to deal in both **
+(a) the Software, and (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if one is included with the Software (each a "Larger Work" to which the
+Software is contributed by such licensors), **
+without restriction, including without limitation the rights to copy, create derivative works of, display, perform, and distribute the Software and make, use, sell,
+offer for sale, import, export, have made, and have sold the Software and the Larger Work(s), and to sublicense the foregoing rights on either these or other terms. **
+
+This license is subject to the following condition: The above copyright notice and either this complete permission notice or at a minimum a reference to the UPL must be
+included in all copies or substantial portions of the Software. **
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A
+PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF
+CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+*/
+ 
+package com.example.tripmanagersb;
+
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.client.reactive.JdkClientHttpConnector;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+import reactor.util.context.Context;
+
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+import static com.oracle.microtx.springboot.lra.annotation.LRA.LRA_HTTP_CONTEXT_HEADER;
+
+/**
+ * WebClient that propagates the LRA context to the participants, as the MicroTxLRA RestTemplate does.
+ * The MicroTx context is held by the request thread, which a reactive call does not run on, so the LRA id and the
+ * headers matching {@code spring.microtx.lra.headers-propagation-prefix} are carried in the Reactor context instead,
+ * see {@link #withLraContext(HttpHeaders)}.
+ */
+@Configuration
+public class LraWebClientConfiguration {
+
+    private static final String LRA_HEADERS = LraWebClientConfiguration.class.getName() + ".headers";
+
+    @Value("${spring.microtx.lra.headers-propagation-prefix:}")
+    private String headersPropagationPrefix;
+
+    @Value("${trip.afterLra.statusTimeoutMillis:2000}")
+    private long statusTimeoutMillis;
+
+    private List<String> propagatedPrefixes;
+
+    @PostConstruct
+    void init() {
+        propagatedPrefixes = Arrays.stream(headersPropagationPrefix.replace("{", "").replace("}", "").split(","))
+                .map(prefix -> prefix.trim().toLowerCase(Locale.ROOT))
+                .filter(prefix -> !prefix.isEmpty())
+                .toList();
+    }
+
+    @Bean(name = "microTxLraWebClient")
+    public WebClient microTxLraWebClient() {
+        HttpClient httpClient = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofMillis(statusTimeoutMillis))
+                .build();
+        return WebClient.builder()
+                .clientConnector(new JdkClientHttpConnector(httpClient))
+                .filter(propagateLraContext())
+                .build();
+    }
+
+    /**
+     * @param requestHeaders headers of the incoming request, holding the LRA id set by MicroTx
+     * @return the Reactor context to write to a call chain, so that its WebClient calls carry the LRA context
+     */
+    public Context withLraContext(HttpHeaders requestHeaders) {
+        HttpHeaders propagated = new HttpHeaders();
+        requestHeaders.forEach((name, values) -> {
+            String lowerCaseName = name.toLowerCase(Locale.ROOT);
+            if (name.equalsIgnoreCase(LRA_HTTP_CONTEXT_HEADER) || propagatedPrefixes.stream().anyMatch(lowerCaseName::startsWith)) {
+                propagated.addAll(name, values);
+            }
+        });
+        return Context.of(LRA_HEADERS, HttpHeaders.readOnlyHttpHeaders(propagated));
+    }
+
+    private ExchangeFilterFunction propagateLraContext() {
+        return (request, next) -> Mono.deferContextual(context -> {
+            if (!context.hasKey(LRA_HEADERS)) {
+                return next.exchange(request);
+            }
+            HttpHeaders lraHeaders = context.get(LRA_HEADERS);
+            return next.exchange(ClientRequest.from(request)
+                    .headers(headers -> lraHeaders.forEach(headers::putIfAbsent))
+                    .build());
+        });
+    }
+}
@@ -42,6 +42,7 @@ import java.nio.charset.StandardCharsets;
 import java.util.Base64;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
 
 import static com.oracle.microtx.springboot.lra.annotation.LRA.LRA_HTTP_CONTEXT_HEADER;
 import static com.oracle.microtx.springboot.lra.annotation.LRA.LRA_HTTP_ENDED_CONTEXT_HEADER;
@@ -88,6 +89,11 @@ public class TripManagerResourceAsync {
             service.saveProvisionalBooking(tripBooking);
 
             return ResponseEntity.ok().header(ORACLE_TMM_TX_TOKEN, oracleTmmTxToken).body(tripBooking);
+        } catch (RejectedExecutionException e) {
+            // Too many bookings in flight, fail fast so that the LRA is cancelled and the client can retry later
+            LOG.warn("Trip booking rejected : " + e.getMessage());
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header(ORACLE_TMM_TX_TOKEN, oracleTmmTxToken)
+                    .body(new BookingResponse("Too many trip bookings in progress, retry later"));
         } catch (BookingException e) {
             return ResponseEntity.internalServerError().header(ORACLE_TMM_TX_TOKEN, oracleTmmTxToken)
                     .body(tripBooking);
@@ -134,7 +140,8 @@ public class TripManagerResourceAsync {
         Booking tripBooking = service.get(bookingId);
         if (tripBooking != null) {
             // Fetch the final status of hotel and flight booking
-            service.mergeAssociateBookingDetails(tripBooking, getHotelTarget(), getFlightTarget());
+            service.mergeAssociateBookingDetails(tripBooking, status, getHotelTarget(), getFlightTarget());
+            service.complete(bookingId);
         }
         // Clean up of resources held by this LRA
         return ResponseEntity.ok().build();
@@ -0,0 +1,136 @@
+/*
+Copyright (c) 2023, Oracle and/or its affiliates. **
+
+The Universal Permissive License (UPL), Version 1.0 **
+
+Subject to the condition set forth below, permission is hereby granted to any person obtaining a copy of this software, associated documentation and/or data
+(collectively the "Software"), free of charge and under any and all copyright rights in the Software, and any and all patent rights owned or freely licensable by each
+licensor hereunder covering either the unmodified Software as contributed to or provided by such licensor, or (ii) the Larger Works (as defined below), to deal in both **
+(a) the Software, and (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if one is included with the Software (each a "Larger Work" to which the
+Software is contributed by such licensors), **
+without restriction, including without limitation the rights to copy, create derivative works of, display, perform, and distribute the Software and make, use, sell,
+offer for sale, import, export, have made, and have sold the Software and the Larger Work(s), and to sublicense the foregoing rights on either these or other terms. **
+
+This license is subject to the following condition: The above copyright notice and either this complete permission notice or at a minimum a reference to the UPL must be
+included in all copies or substantial portions of the Software. **
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A
+PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF
+CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+*/
+
+package com.example.tripmanagersb;
+
+import com.example.tripmanagersb.model.Booking;
+import com.example.tripmanagersb.model.BookingResponse;
+import com.example.tripmanagersb.service.ReactiveBookingService;
+import com.oracle.microtx.springboot.lra.annotation.AfterLRA;
+import com.oracle.microtx.springboot.lra.annotation.LRA;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import static com.oracle.microtx.springboot.lra.annotation.LRA.LRA_HTTP_CONTEXT_HEADER;
+import static com.oracle.microtx.springboot.lra.annotation.LRA.LRA_HTTP_ENDED_CONTEXT_HEADER;
+
+/**
+ * Trip booking that calls the LRA participants Hotel and Flight at once through a WebClient and returns Monos, so no
+ * thread is held while the participants respond. The request thread is released by Spring MVC async request
+ * processing until the Mono completes.
+ */
+@RestController
+@RequestMapping("/trip-service/api/reactive")
+public class TripManagerResourceReactive {
+
+    private static final String ORACLE_TMM_TX_TOKEN = "Oracle-Tmm-Tx-Token";
+
+    @Autowired
+    private TripService service;
+
+    @Autowired
+    private ReactiveBookingService bookingService;
+
+    @Autowired
+    private LraWebClientConfiguration lraWebClientConfiguration;
+
+    private static final Logger LOG = LoggerFactory.getLogger(TripManagerResourceReactive.class);
+
+    @RequestMapping(value = "/trip", method = RequestMethod.POST)
+    @LRA(value = LRA.Type.REQUIRES_NEW, end = false)
+    public Mono<ResponseEntity<?>> bookTrip(@RequestParam(value = "hotelName", required = false, defaultValue = "TheGrand") String hotelName,
+                                            @RequestParam(value = "flightNumber", required = false, defaultValue = "A123") String flightNumber,
+                                            @RequestHeader(LRA_HTTP_CONTEXT_HEADER) String lraId,
+                                            @RequestHeader(value = ORACLE_TMM_TX_TOKEN, required = false) String oracleTmmTxToken,
+                                            @RequestHeader HttpHeaders headers) {
+        String bookingId = new String(Base64.getEncoder().encode(lraId.getBytes(StandardCharsets.UTF_8)));
+        LOG.info("Started new LRA " + lraId);
+        LOG.info("Calling LRA participants Hotel booking and Flight booking reactively");
+        return Mono.zip(bookingService.bookHotel(hotelName, bookingId), bookingService.bookFlight(flightNumber, bookingId))
+                .<ResponseEntity<?>>map(bookings -> {
+                    Booking tripBooking = new Booking(bookingId, "Trip", "Trip", bookings.getT1(), bookings.getT2());
+                    try {
+                        service.saveProvisionalBooking(tripBooking);
+                    } catch (BookingException e) {
+                        return ResponseEntity.internalServerError().header(ORACLE_TMM_TX_TOKEN, oracleTmmTxToken)
+                                .body(tripBooking);
+                    }
+                    return ResponseEntity.ok().header(ORACLE_TMM_TX_TOKEN, oracleTmmTxToken).body(tripBooking);
+                })
+                .onErrorResume(e -> Mono.just(ResponseEntity.internalServerError().header(ORACLE_TMM_TX_TOKEN, oracleTmmTxToken)
+                        .body(e.getMessage())))
+                .contextWrite(lraWebClientConfiguration.withLraContext(headers));
+    }
+
+    @RequestMapping(value = "/trip/{bookingId}", method = RequestMethod.GET)
+    public Mono<ResponseEntity<?>> getBooking(@PathVariable("bookingId") String bookingId) {
+        return Mono.fromSupplier(() -> ResponseEntity.ok(service.get(bookingId)));
+    }
+
+    @RequestMapping(value = "/trip/{bookingId}", method = RequestMethod.PUT)
+    @LRA(value = LRA.Type.MANDATORY, end = true)
+    public Mono<ResponseEntity<?>> confirmTrip(@PathVariable String bookingId) {
+        LOG.info("Received Confirmation for trip booking with Id : " + bookingId);
+        Booking tripBooking = service.get(bookingId);
+        if (tripBooking.getStatus() == Booking.BookingStatus.CANCEL_REQUESTED) {
+            return Mono.error(new WebClientResponseException(HttpStatus.BAD_REQUEST.value(), "Cannot confirm a trip booking that needs to be cancelled", null, null, null));
+        }
+        return Mono.just(ResponseEntity.ok(new BookingResponse("Confirm booking requested")));
+    }
+
+    @RequestMapping(value = "/trip/{bookingId}", method = RequestMethod.DELETE)
+    @LRA(value = LRA.Type.MANDATORY, end = true, cancelOn = HttpStatus.OK)
+    public Mono<ResponseEntity<?>> cancelTrip(@PathVariable String bookingId) {
+        LOG.info("Received Cancellation for trip booking with Id : " + bookingId);
+        return Mono.just(ResponseEntity.ok(new BookingResponse("Cancel booking requested")));
+    }
+
+    @RequestMapping(value = "/trip", method = RequestMethod.GET)
+    public Mono<ResponseEntity<?>> getAll() {
+        return Mono.fromSupplier(() -> ResponseEntity.ok(service.getAll()));
+    }
+
+    @RequestMapping(value = "/after", method = RequestMethod.PUT)
+    @AfterLRA
+    public Mono<ResponseEntity<?>> afterLra(@RequestHeader(LRA_HTTP_ENDED_CONTEXT_HEADER) String lraId, @RequestBody String status) {
+        String bookingId = new String(Base64.getEncoder().encode(lraId.getBytes(StandardCharsets.UTF_8)));
+        LOG.info("After LRA Called : " + lraId);
+        LOG.info("Final LRA Status : " + status);
+        // No trip booking was saved when the booking failed before it, there is nothing to merge then
+        return Mono.fromCallable(() -> service.get(bookingId))
+                .onErrorResume(ResponseStatusException.class, e -> Mono.empty())
+                // Fetch the final status of hotel and flight booking, the coordinator calls again if that fails
+                .flatMap(tripBooking -> service.mergeAssociateBookingDetails(tripBooking, status, bookingService::getStatus)
+                        .then(Mono.fromRunnable(() -> service.complete(bookingId))))
+                .then(Mono.just(ResponseEntity.ok().build()));
+    }
+}
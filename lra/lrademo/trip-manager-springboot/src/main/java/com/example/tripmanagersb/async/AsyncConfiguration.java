@@ -18,14 +18,18 @@ THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLI
 PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF
 CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
 */
+ 
 package com.example.tripmanagersb.async;
 
 import com.oracle.microtx.springboot.lra.context.MicroTxTaskDecorator;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 
 import java.util.concurrent.Executor;
@@ -36,17 +40,42 @@ public class AsyncConfiguration {
     @Value("${trip.booking.executor.poolsize:8}")
     private Integer tripBookingExecutorPoolSize;
 
+    /**
+     * platform runs the bookings on a pool of poolsize threads, virtual on a virtual thread each (Java 21)
+     */
+    @Value("${trip.booking.executor.mode:platform}")
+    private String tripBookingExecutorMode;
+
+    /**
+     * Maximum number of booking tasks queued or running, beyond which trip bookings are rejected with 503
+     */
+    @Value("${trip.booking.executor.maxInFlight:256}")
+    private Integer tripBookingExecutorMaxInFlight;
+
     private static final Logger LOG = LoggerFactory.getLogger(AsyncConfiguration.class);
 
     @Bean(name = "taskExecutorForTripBooking")
-    public Executor asyncExecutor() {
-        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
-        executor.setCorePoolSize(tripBookingExecutorPoolSize);
-        executor.setThreadNamePrefix("TripBooking-");
-        executor.setTaskDecorator(new MicroTxTaskDecorator());
-        executor.setWaitForTasksToCompleteOnShutdown(true);
-        executor.setRejectedExecutionHandler((r, executor1) -> LOG.warn("Task rejected, thread pool is full and queue is also full"));
-        executor.initialize();
-        return executor;
+    public Executor asyncExecutor(MeterRegistry meterRegistry) {
+        AdmissionControlledExecutor admissionControlledExecutor;
+        if ("virtual".equals(tripBookingExecutorMode)) {
+            SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("TripBooking-");
+            executor.setVirtualThreads(true);
+            executor.setTaskDecorator(new MicroTxTaskDecorator());
+            admissionControlledExecutor = new AdmissionControlledExecutor(executor, tripBookingExecutorMaxInFlight);
+            // Every admitted task gets its own thread, none waits in a queue
+            Gauge.builder("trip.booking.executor.queued", () -> 0).register(meterRegistry);
+        } else {
+            ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+            executor.setCorePoolSize(tripBookingExecutorPoolSize);
+            executor.setThreadNamePrefix("TripBooking-");
+            executor.setTaskDecorator(new MicroTxTaskDecorator());
+            executor.setWaitForTasksToCompleteOnShutdown(true);
+            executor.initialize();
+            admissionControlledExecutor = new AdmissionControlledExecutor(executor, tripBookingExecutorMaxInFlight);
+            Gauge.builder("trip.booking.executor.queued", () -> executor.getThreadPoolExecutor().getQueue().size()).register(meterRegistry);
+        }
+        Gauge.builder("trip.booking.executor.inFlight", admissionControlledExecutor::getInFlight).register(meterRegistry);
+        LOG.info("Trip booking executor mode: {}, at most {} tasks in flight", tripBookingExecutorMode, tripBookingExecutorMaxInFlight);
+        return admissionControlledExecutor;
     }
-}
\ No newline at end of file
+}
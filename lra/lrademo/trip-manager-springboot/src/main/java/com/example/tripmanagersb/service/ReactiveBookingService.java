@@ -0,0 +1,109 @@
+/*
+Copyright (c) 2023, Oracle and/or its affiliates. **
+
+The Universal Permissive License (UPL), Version 1.0 **
+
+Subject to the condition set forth below, permission is hereby granted to any person obtaining a copy of this software, associated documentation and/or data
+(collectively the "Software"), free of charge and under any and all copyright rights in the Software, and any and all patent rights owned or freely licensable by each
+licensor hereunder covering either the unmodified Software as contributed to or provided by such licensor, or (ii) the Larger Works (as defined below), to deal in both **
+(a) the Software, and (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if one is included with the Software (each a "Larger Work" to which the
+Software is contributed by such licensors), **
+without restriction, including without limitation the rights to copy, create derivative works of, display, perform, and distribute the Software and make, use, sell,
+offer for sale, import, export, have made, and have sold the Software and the Larger Work(s), and to sublicense the foregoing rights on either these or other terms. **
+
+This license is subject to the following condition: The above copyright notice and either this complete permission notice or at a minimum a reference to the UPL must be
+included in all copies or substantial portions of the Software. **
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A
+PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF
+CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+*/
+package com.example.tripmanagersb.service;
+
+import com.example.tripmanagersb.model.Booking;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.util.UriComponentsBuilder;
+import reactor.core.publisher.Mono;
+
+import java.net.URI;
+import java.time.Duration;
+
+/**
+ * Books the Hotel and Flight participants without blocking a thread while their responses are awaited. The returned
+ * Monos must be subscribed with the context of {@code LraWebClientConfiguration.withLraContext} for the participants to
+ * join the LRA.
+ */
+@Component
+public class ReactiveBookingService {
+
+    @Autowired
+    @Qualifier("microTxLraWebClient")
+    private WebClient webClient;
+
+    @Value("${hotel.service.url}")
+    private String hotelServiceUri;
+
+    @Value("${flight.service.url}")
+    private String flightServiceUri;
+
+    @Value("${trip.afterLra.statusTimeoutMillis:2000}")
+    private long statusTimeoutMillis;
+
+    private static final Logger LOG = LoggerFactory.getLogger(ReactiveBookingService.class);
+
+    public Mono<Booking> bookHotel(String name, String id) {
+        URI hotelUri = getHotelTarget()
+                .queryParam("hotelName", name)
+                .build()
+                .toUri();
+        return book(hotelUri, "Hotel", id);
+    }
+
+    public Mono<Booking> bookFlight(String flightNumber, String id) {
+        URI flightUri = getFlightTarget()
+                .queryParam("flightNumber", flightNumber)
+                .build()
+                .toUri();
+        return book(flightUri, "Flight", id);
+    }
+
+    /**
+     * @return the booking as known by its participant, fetched within {@code trip.afterLra.statusTimeoutMillis}
+     */
+    public Mono<Booking> getStatus(Booking booking) {
+        UriComponentsBuilder target = "Hotel".equals(booking.getType()) ? getHotelTarget() : getFlightTarget();
+        URI uri = target
+                .path("/")
+                .path(booking.getId())
+                .build()
+                .toUri();
+        return webClient.get()
+                .uri(uri)
+                .retrieve()
+                .bodyToMono(Booking.class)
+                .timeout(Duration.ofMillis(statusTimeoutMillis));
+    }
+
+    private Mono<Booking> book(URI uri, String type, String id) {
+        LOG.debug("Calling " + type + " Service to book with booking Id : " + id);
+        return webClient.post()
+                .uri(uri)
+                .retrieve()
+                .bodyToMono(Booking.class)
+                .doOnNext(booking -> LOG.info(String.format("%s booking %s with booking Id : %s", type, (booking.getStatus() == Booking.BookingStatus.FAILED ? "FAILED" : "SUCCESSFUL"), booking.getId())));
+    }
+
+    private UriComponentsBuilder getHotelTarget() {
+        return UriComponentsBuilder.fromUri(URI.create(hotelServiceUri));
+    }
+
+    private UriComponentsBuilder getFlightTarget() {
+        return UriComponentsBuilder.fromUri(URI.create(flightServiceUri));
+    }
+}
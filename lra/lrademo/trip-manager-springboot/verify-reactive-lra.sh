@@ -0,0 +1,97 @@
+# Copyright (c) 2023, Oracle and/or its affiliates. **
+
+# The Universal Permissive License (UPL), Version 1.0 **
+
+# Subject to the condition set forth below, permission is hereby granted to any person obtaining a copy of this software, associated documentation and/or data
+# (collectively the "Software"), free of charge and under any and all copyright rights in the Software, and any and all patent rights owned or freely licensable by each
+# licensor hereunder covering either the unmodified Software as contributed to or provided by such licensor, or (ii) the Larger Works (as defined below), to deal in both
+# ** (a) the Software, and (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if one is included with the Software (each a "Larger Work" to which
+# the Software is contributed by such licensors), **
+# without restriction, including without limitation the rights to copy, create derivative works of, display, perform, and distribute the Software and make, use, sell,
+# offer for sale, import, export, have made, and have sold the Software and the Larger Work(s), and to sublicense the foregoing rights on either these or other terms. **
+
+# This license is subject to the following condition: The above copyright notice and either this complete permission notice or at a minimum a reference to the UPL must be
+# included in all copies or substantial portions of the Software. **
+
+# THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A
+# PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF
+#!/bin/bash
+# Verifies the LRA outcomes of the reactive endpoint of the trip manager. Start the MicroTx coordinator,
+# hotel-springboot, flight-springboot and trip-manager-springboot, then run
+#
+#   ./verify-reactive-lra.sh [trip_url] [hotel_url] [flight_url]
+#
+# with the defaults http://localhost:8081/trip-service/api/reactive/trip, http://localhost:8082/hotelService/api and
+# http://localhost:8083/flightService/api. Requires curl and jq. The maximum number of bookings of the hotel and the
+# flight services is changed by the run and left at 100000.
+#
+# 1. The hotel fails its bookings, with a maximum of 0 bookings: booking a trip returns 500, which cancels the LRA,
+#    and the flight booking is compensated. @AfterLRA receives the Cancelled status and fetches the final status of
+#    the bookings: the flight booking of the trip turns CANCELLED, which it only does once /after merged it.
+# 2. A trip booked and confirmed with the limits raised closes its LRA, and /after turns the flight booking CONFIRMED.
+TRIP_URL=${1:-http://localhost:8081/trip-service/api/reactive/trip}
+HOTEL_URL=${2:-http://localhost:8082/hotelService/api}
+FLIGHT_URL=${3:-http://localhost:8083/flightService/api}
+AFTER_LRA_WAIT_SECONDS=30
+
+max_bookings() {
+    curl -s -f -o /dev/null -X PUT "$1/maxbookings?count=$2" || { echo "Failed to set the maximum bookings of $1"; exit 1; }
+}
+
+# Waits for the flight booking of the trip to reach the status, as merged by /after
+expect_flight_status() {
+    local status
+    for ((i = 0; i < AFTER_LRA_WAIT_SECONDS; i++)); do
+        status=$(curl -s "$TRIP_URL/$1" | jq -r '.details[]? | select(.type == "Flight") | .status')
+        if [ "$status" == "$2" ]; then
+            echo "PASS: $3, flight booking of the trip is $status"
+            return
+        fi
+        sleep 1
+    done
+    echo "FAIL: $3, flight booking of the trip is $status, expected $2"
+    FAILED=1
+}
+
+FAILED=0
+BODY=$(mktemp)
+HEADERS=$(mktemp)
+trap 'rm -f "$BODY" "$HEADERS"' EXIT
+
+max_bookings "$HOTEL_URL" 0
+max_bookings "$FLIGHT_URL" 100000
+STATUS=$(curl -s -o "$BODY" -w "%{http_code}" -X POST "$TRIP_URL")
+BOOKING_ID=$(jq -r '.id // empty' "$BODY" 2>/dev/null)
+if [ "$STATUS" != "500" ] || [ -z "$BOOKING_ID" ]; then
+    echo "FAIL: booking with a failing hotel returned $STATUS, expected 500 with the trip booking"
+    FAILED=1
+else
+    echo "PASS: booking with a failing hotel returned 500"
+    expect_flight_status "$BOOKING_ID" "CANCELLED" "cancelled LRA"
+fi
+
+max_bookings "$HOTEL_URL" 100000
+STATUS=$(curl -s -o "$BODY" -D "$HEADERS" -w "%{http_code}" -X POST "$TRIP_URL")
+BOOKING_ID=$(jq -r '.id // empty' "$BODY" 2>/dev/null)
+if [ "$STATUS" != "200" ] || [ -z "$BOOKING_ID" ]; then
+    echo "FAIL: booking returned $STATUS, expected 200 with the trip booking"
+    FAILED=1
+else
+    # The booking id is the Base64 encoded LRA id
+    LRA_ID=$(echo "$BOOKING_ID" | base64 -d)
+    TX_TOKEN=$(sed -n 's/^Oracle-Tmm-Tx-Token: *\(.*\)\r$/\1/ip' "$HEADERS")
+    STATUS=$(curl -s -o /dev/null -w "%{http_code}" -X PUT -H "Long-Running-Action: $LRA_ID" \
+        ${TX_TOKEN:+-H "Oracle-Tmm-Tx-Token: $TX_TOKEN"} "$TRIP_URL/$BOOKING_ID")
+    if [ "$STATUS" != "200" ]; then
+        echo "FAIL: confirmation returned $STATUS, expected 200"
+        FAILED=1
+    else
+        expect_flight_status "$BOOKING_ID" "CONFIRMED" "closed LRA"
+    fi
+fi
+
+if [ $FAILED -ne 0 ]; then
+    echo "Failed to verify the LRA outcomes"
+    exit 1
+fi
+echo "Verified the LRA outcomes"
@@ -0,0 +1,270 @@
+/*
+Copyright (c) 2023, Oracle and/or its affiliates. **
+
+The Universal Permissive License (UPL), Version 1.0 **
+
+Subject to the condition set forth below, permission is hereby granted to any person obtaining a copy of this software, associated documentation and/or data
+(collectively the "Software"), free of charge and under any and all copyright rights in the Software, and any and all patent rights owned or freely licensable by each
+licensor hereunder covering either the unmodified Software as contributed to or provided by such licensor, or (ii) the Larger Works (as defined below), to deal in both **
+(a) the Software, and (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if one is included with the Software (each a "Larger Work" to which the
+Software is contributed by such licensors), **
+without restriction, including without limitation the rights to copy, create derivative works of, display, perform, and distribute the Software and make, use, sell,
+offer for sale, import, export, have made, and have sold the Software and the Larger Work(s), and to sublicense the foregoing rights on either these or other terms. **
+
+This license is subject to the following condition: The above copyright notice and either this complete permission notice or at a minimum a reference to the UPL must be
+included in all copies or substantial portions of the Software. **
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A
+PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF
+CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+*/
+package com.oracle.trm.lra.demo.store;
+
+import com.oracle.trm.lra.demo.model.Booking;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.eclipse.microprofile.metrics.Counter;
+import org.eclipse.microprofile.metrics.Gauge;
+import org.eclipse.microprofile.metrics.MetricRegistry;
+import org.eclipse.microprofile.metrics.Tag;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.enterprise.context.ApplicationScoped;
+import javax.inject.Inject;
+import javax.json.bind.Jsonb;
+import javax.json.bind.JsonbBuilder;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Booking store that keeps the provisional bookings until their LRA ends, or for at most
+ * {@code booking.store.provisionalTtlSeconds} when the @AfterLRA callback never completes them, and at most
+ * {@code booking.store.maxTerminalBookings} terminal bookings, for at most {@code booking.store.terminalTtlSeconds}.
+ * Terminal bookings are evicted oldest first. When {@code booking.store.spilloverDir} is set, evicted bookings are
+ * written there as JSON and {@link #get(String)} still finds them, for audit lookups.
+ */
+@ApplicationScoped
+public class BoundedBookingStore implements BookingStore {
+
+    private static final Logger log = Logger.getLogger(BoundedBookingStore.class.getSimpleName());
+
+    private final Map<String, TimedBooking> provisional = new ConcurrentHashMap<>();
+    // Terminal bookings in the order they completed, guarded by itself
+    private final LinkedHashMap<String, TimedBooking> terminal = new LinkedHashMap<>();
+    private final AtomicLong spilloverBytes = new AtomicLong();
+    private final Jsonb jsonb = JsonbBuilder.create();
+
+    @Inject
+    MetricRegistry metricRegistry;
+
+    @Inject
+    @ConfigProperty(name = "booking.store.maxTerminalBookings", defaultValue = "10000")
+    int maxTerminalBookings;
+
+    @Inject
+    @ConfigProperty(name = "booking.store.terminalTtlSeconds", defaultValue = "3600")
+    long terminalTtlSeconds;
+
+    @Inject
+    @ConfigProperty(name = "booking.store.provisionalTtlSeconds", defaultValue = "3600")
+    long provisionalTtlSeconds;
+
+    @Inject
+    @ConfigProperty(name = "booking.store.spilloverDir")
+    Optional<String> spilloverDir;
+
+    private Path spillover;
+    private ScheduledExecutorService sweeper;
+    private Counter evictedBySize;
+    private Counter evictedByAge;
+    private Counter abandoned;
+    private Counter spilled;
+
+    @PostConstruct
+    void start() {
+        if (spilloverDir.isPresent()) {
+            try {
+                spillover = Files.createDirectories(Paths.get(spilloverDir.get()));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        metricRegistry.register("bookings.provisional", (Gauge<Integer>) provisional::size);
+        metricRegistry.register("bookings.terminal", (Gauge<Integer>) this::terminalSize);
+        metricRegistry.register("bookings.spillover.bytes", (Gauge<Long>) spilloverBytes::get);
+        evictedBySize = metricRegistry.counter("bookings.evicted", new Tag("reason", "size"));
+        evictedByAge = metricRegistry.counter("bookings.evicted", new Tag("reason", "age"));
+        abandoned = metricRegistry.counter("bookings.abandoned");
+        spilled = metricRegistry.counter("bookings.spilled");
+        long sweepSeconds = Math.max(1, Math.min(terminalTtlSeconds, 60));
+        sweeper = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "booking-store-sweeper");
+            thread.setDaemon(true);
+            return thread;
+        });
+        sweeper.scheduleWithFixedDelay(this::sweep, sweepSeconds, sweepSeconds, TimeUnit.SECONDS);
+    }
+
+    @PreDestroy
+    void stop() {
+        sweeper.shutdownNow();
+    }
+
+    @Override
+    public Booking putIfAbsent(Booking booking) {
+        TimedBooking saved = provisional.putIfAbsent(booking.getId(), new TimedBooking(booking, System.currentTimeMillis()));
+        return saved == null ? null : saved.booking;
+    }
+
+    @Override
+    public Booking get(String bookingId) {
+        TimedBooking provisionalBooking = provisional.get(bookingId);
+        if (provisionalBooking != null) {
+            return provisionalBooking.booking;
+        }
+        synchronized (terminal) {
+            TimedBooking timedBooking = terminal.get(bookingId);
+            if (timedBooking != null) {
+                return timedBooking.booking;
+            }
+        }
+        return readSpilled(bookingId);
+    }
+
+    @Override
+    public Collection<Booking> getAll() {
+        List<Booking> bookings = new ArrayList<>();
+        provisional.values().forEach(provisionalBooking -> bookings.add(provisionalBooking.booking));
+        synchronized (terminal) {
+            terminal.values().forEach(timedBooking -> bookings.add(timedBooking.booking));
+        }
+        return bookings;
+    }
+
+    @Override
+    public void completed(String bookingId) {
+        TimedBooking provisionalBooking = provisional.remove(bookingId);
+        if (provisionalBooking == null) {
+            return;
+        }
+        synchronized (terminal) {
+            terminal.put(bookingId, new TimedBooking(provisionalBooking.booking, System.currentTimeMillis()));
+        }
+        evict();
+    }
+
+    private void sweep() {
+        abandon();
+        evict();
+    }
+
+    /**
+     * Moves the provisional bookings older than the provisional TTL to the terminal bookings, in whatever status
+     * they have. Their LRA has timed out or the coordinator stopped retrying a failing @AfterLRA by then.
+     */
+    private void abandon() {
+        long now = System.currentTimeMillis();
+        long abandonedBefore = now - TimeUnit.SECONDS.toMillis(provisionalTtlSeconds);
+        provisional.forEach((bookingId, provisionalBooking) -> {
+            if (provisionalBooking.since < abandonedBefore && provisional.remove(bookingId, provisionalBooking)) {
+                log.warning("Booking " + bookingId + " was not completed by @AfterLRA within " + provisionalTtlSeconds + "s, moved to the terminal bookings");
+                abandoned.inc();
+                synchronized (terminal) {
+                    terminal.put(bookingId, new TimedBooking(provisionalBooking.booking, now));
+                }
+            }
+        });
+    }
+
+    private int terminalSize() {
+        synchronized (terminal) {
+            return terminal.size();
+        }
+    }
+
+    /**
+     * Evicts the oldest terminal bookings beyond the maximum size or age, and spills them
+     */
+    private void evict() {
+        long expiredBefore = System.currentTimeMillis() - TimeUnit.SECONDS.toMillis(terminalTtlSeconds);
+        List<Booking> evicted = new ArrayList<>();
+        synchronized (terminal) {
+            Iterator<TimedBooking> oldest = terminal.values().iterator();
+            while (oldest.hasNext()) {
+                TimedBooking timedBooking = oldest.next();
+                if (terminal.size() > maxTerminalBookings) {
+                    evictedBySize.inc();
+                } else if (timedBooking.since < expiredBefore) {
+                    evictedByAge.inc();
+                } else {
+                    break;
+                }
+                oldest.remove();
+                evicted.add(timedBooking.booking);
+            }
+        }
+        if (spillover != null) {
+            evicted.forEach(this::spill);
+        }
+    }
+
+    private void spill(Booking booking) {
+        try {
+            byte[] json = jsonb.toJson(booking).getBytes(StandardCharsets.UTF_8);
+            Files.write(spilloverFile(booking.getId()), json);
+            spilloverBytes.addAndGet(json.length);
+            spilled.inc();
+        } catch (IOException e) {
+            log.log(Level.WARNING, "Failed to spill booking " + booking.getId(), e);
+        }
+    }
+
+    private Booking readSpilled(String bookingId) {
+        if (spillover == null) {
+            return null;
+        }
+        try {
+            return jsonb.fromJson(new String(Files.readAllBytes(spilloverFile(bookingId)), StandardCharsets.UTF_8), Booking.class);
+        } catch (NoSuchFileException e) {
+            return null;
+        } catch (IOException e) {
+            log.log(Level.WARNING, "Failed to read spilled booking " + bookingId, e);
+            return null;
+        }
+    }
+
+    private Path spilloverFile(String bookingId) {
+        // Booking ids are Base64 encoded LRA ids, which may contain '/'
+        return spillover.resolve(Base64.getUrlEncoder().withoutPadding().encodeToString(bookingId.getBytes(StandardCharsets.UTF_8)) + ".json");
+    }
+
+    private static class TimedBooking {
+        final Booking booking;
+        final long since;
+
+        TimedBooking(Booking booking, long since) {
+            this.booking = booking;
+            this.since = since;
+        }
+    }
+}
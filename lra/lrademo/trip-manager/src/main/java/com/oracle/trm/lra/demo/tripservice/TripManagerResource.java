@@ -179,6 +179,7 @@ public class TripManagerResource {
         if (tripBooking != null) {
             // Fetch the final status of hotel and flight booking
             service.mergeAssociateBookingDetails(tripBooking, getHotelTarget(), getFlightTarget());
+            service.complete(bookingId);
         }
         // Clean up of resources held by this LRA
         return Response.ok().build();
@@ -21,15 +21,15 @@ CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFT
 package com.oracle.trm.lra.demo.tripservice;
 
 import com.oracle.trm.lra.demo.model.Booking;
+import com.oracle.trm.lra.demo.store.BookingStore;
 
 import javax.enterprise.context.ApplicationScoped;
+import javax.inject.Inject;
 import javax.ws.rs.NotFoundException;
 import javax.ws.rs.client.WebTarget;
 import javax.ws.rs.core.Response;
 import java.util.Arrays;
 import java.util.Collection;
-import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
 import java.util.logging.Logger;
 
 import static javax.ws.rs.core.Response.Status.INTERNAL_SERVER_ERROR;
@@ -38,16 +38,18 @@ import static javax.ws.rs.core.Response.Status.INTERNAL_SERVER_ERROR;
 public class TripService {
 
     private static final Logger log = Logger.getLogger(TripService.class.getSimpleName());
-    private Map<String, Booking> bookings = new ConcurrentHashMap<>();
+
+    @Inject
+    BookingStore bookings;
 
     /**
-     * Save the trip booking in memory (HashMap)
+     * Save the trip booking in the booking store
      *
      * @param booking - Trip booking
      * @throws BookingException Exception is throw if one of the associate bookings failed
      */
     public void saveProvisionalBooking(Booking booking) throws BookingException {
-        bookings.putIfAbsent(booking.getId(), booking);
+        bookings.putIfAbsent(booking);
 
         //check if any associate booking is a failed booking
         for (Booking associatedBooking : booking.getDetails()) {
@@ -68,10 +70,11 @@ public class TripService {
      * @throws NotFoundException
      */
     public Booking get(String bookingId) throws NotFoundException {
-        if (!bookings.containsKey(bookingId)) {
+        Booking booking = bookings.get(bookingId);
+        if (booking == null) {
             throw new NotFoundException(Response.status(404).entity("Invalid Booking Id: " + bookingId).build());
         }
-        return bookings.get(bookingId);
+        return booking;
     }
 
     /**
@@ -80,7 +83,16 @@ public class TripService {
      * @return all trip booking details
      */
     public Collection<Booking> getAll() {
-        return bookings.values();
+        return bookings.getAll();
+    }
+
+    /**
+     * Marks the trip booking as terminal once its LRA ended, allowing the booking store to evict it
+     *
+     * @param bookingId booking identity
+     */
+    public void complete(String bookingId) {
+        bookings.completed(bookingId);
     }
 
     /**
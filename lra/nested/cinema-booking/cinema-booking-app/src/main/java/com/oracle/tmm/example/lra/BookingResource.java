@@ -29,7 +29,6 @@ import javax.annotation.PostConstruct;
 import javax.enterprise.context.ApplicationScoped;
 import javax.inject.Inject;
 import javax.ws.rs.*;
-import javax.ws.rs.client.ClientBuilder;
 import javax.ws.rs.client.Entity;
 import javax.ws.rs.client.WebTarget;
 import javax.ws.rs.core.MediaType;
@@ -62,6 +61,9 @@ public class BookingResource {
     @ConfigProperty(name = "mp.lra.coordinator.url")
     private String coordinatorRes;
 
+    @Inject
+    private PooledClientFactory clientFactory;
+
     @PostConstruct
     private void initController() {
         try {
@@ -114,13 +116,18 @@ public class BookingResource {
         WebTarget webTarget = getSeatBookingSvcTarget().path("/");
         Response response = webTarget.request().post(Entity.json(request));
 
-        if (response.getStatus() == OK.getStatusCode()) {
-            BookingResponse bookingResponse = response.readEntity(BookingResponse.class);
-            LOG.info("Successfully reserved the seat");
-            return bookingResponse;
-        } else {
-            LOG.info("Failed to reserve the seat");
-            throw new Exception("Seat reservation failed.");
+        try {
+            if (response.getStatus() == OK.getStatusCode()) {
+                BookingResponse bookingResponse = response.readEntity(BookingResponse.class);
+                LOG.info("Successfully reserved the seat");
+                return bookingResponse;
+            } else {
+                LOG.info("Failed to reserve the seat");
+                throw new Exception("Seat reservation failed.");
+            }
+        } finally {
+            // Return the connection to the pool
+            response.close();
         }
     }
 
@@ -130,20 +137,25 @@ public class BookingResource {
         PaymentRequest paymentRequest = new PaymentRequest(request.getAccountNumber(), bookingAmount);
         Response response = webTarget.request().post(Entity.json(paymentRequest));
 
-        if (response.getStatus() == OK.getStatusCode()) {
-            LOG.info("Payment successful");
-            return response;
-        } else {
-            LOG.info("Payment failed");
-            throw new Exception("Payment failed.");
+        try {
+            if (response.getStatus() == OK.getStatusCode()) {
+                LOG.info("Payment successful");
+                return response;
+            } else {
+                LOG.info("Payment failed");
+                throw new Exception("Payment failed.");
+            }
+        } finally {
+            // Return the connection to the pool
+            response.close();
         }
     }
 
     private WebTarget getSeatBookingSvcTarget() {
-        return ClientBuilder.newClient().target(seatBookingResUri);
+        return clientFactory.client().target(seatBookingResUri);
     }
 
     private WebTarget getPaymentSvcTarget() {
-        return ClientBuilder.newClient().target(paymentResUri);
+        return clientFactory.client().target(paymentResUri);
     }
 }
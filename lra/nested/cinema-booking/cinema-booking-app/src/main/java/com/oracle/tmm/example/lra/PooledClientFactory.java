@@ -0,0 +1,135 @@
+/*
+Copyright (c) 2023, Oracle and/or its affiliates. **
+
+The Universal Permissive License (UPL), Version 1.0 **
+
+Subject to the condition set forth below, permission is hereby granted to any person obtaining a copy of this software, associated documentation and/or data
+(collectively the "Software"), free of charge and under any and all copyright rights in the Software, and any and all patent rights owned or freely licensable by each
+licensor hereunder covering either the unmodified Software as contributed to or provided by such licensor, or (ii) the Larger Works (as defined below), to deal in both **
+(a) the Software, and (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if one is included with the Software (each a "Larger Work" to which the
+Software is contributed by such licensors), **
+without restriction, including without limitation the rights to copy, create derivative works of, display, perform, and distribute the Software and make, use, sell,
+offer for sale, import, export, have made, and have sold the Software and the Larger Work(s), and to sublicense the foregoing rights on either these or other terms. **
+
+This license is subject to the following condition: The above copyright notice and either this complete permission notice or at a minimum a reference to the UPL must be
+included in all copies or substantial portions of the Software. **
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A
+PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF
+CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+*/
+package com.oracle.tmm.example.lra;
+
+import org.apache.http.config.Registry;
+import org.apache.http.config.RegistryBuilder;
+import org.apache.http.conn.socket.ConnectionSocketFactory;
+import org.apache.http.conn.socket.PlainConnectionSocketFactory;
+import org.apache.http.conn.ssl.SSLConnectionSocketFactory;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.pool.PoolStats;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.eclipse.microprofile.metrics.Gauge;
+import org.eclipse.microprofile.metrics.MetricRegistry;
+import org.glassfish.jersey.apache.connector.ApacheClientProperties;
+import org.glassfish.jersey.apache.connector.ApacheConnectorProvider;
+import org.glassfish.jersey.apache.connector.ApacheHttpClientBuilderConfigurator;
+import org.glassfish.jersey.client.ClientConfig;
+import org.glassfish.jersey.client.ClientProperties;
+import org.glassfish.jersey.client.RequestEntityProcessing;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.enterprise.context.ApplicationScoped;
+import javax.inject.Inject;
+import javax.ws.rs.client.Client;
+import javax.ws.rs.client.ClientBuilder;
+import java.util.concurrent.TimeUnit;
+import java.util.function.ToIntFunction;
+import java.util.logging.Logger;
+
+/**
+ * Creates the JAX-RS client shared by all outgoing calls of the service. Connections are kept alive and reused
+ * from a pool bounded per route (host and port), so that a call to another service does not pay for a new TCP
+ * connection and TLS handshake. The client is built with the JAX-RS ClientBuilder, so the LRA client filters
+ * registered through auto-discovery still propagate the LRA context headers.
+ */
+@ApplicationScoped
+public class PooledClientFactory {
+
+    private static final Logger LOG = Logger.getLogger(PooledClientFactory.class.getName());
+
+    @Inject
+    @ConfigProperty(name = "httpClient.pool.maxTotal", defaultValue = "200")
+    int maxTotal;
+
+    @Inject
+    @ConfigProperty(name = "httpClient.pool.maxPerRoute", defaultValue = "50")
+    int maxPerRoute;
+
+    @Inject
+    @ConfigProperty(name = "httpClient.pool.idleTimeoutSeconds", defaultValue = "60")
+    long idleTimeoutSeconds;
+
+    @Inject
+    @ConfigProperty(name = "httpClient.connectTimeoutMillis", defaultValue = "5000")
+    int connectTimeoutMillis;
+
+    @Inject
+    @ConfigProperty(name = "httpClient.readTimeoutMillis", defaultValue = "30000")
+    int readTimeoutMillis;
+
+    @Inject
+    MetricRegistry metricRegistry;
+
+    private PoolingHttpClientConnectionManager connectionManager;
+    private Client client;
+
+    @PostConstruct
+    void init() {
+        connectionManager = new PoolingHttpClientConnectionManager(socketFactories());
+        connectionManager.setMaxTotal(maxTotal);
+        connectionManager.setDefaultMaxPerRoute(maxPerRoute);
+
+        ClientConfig clientConfig = new ClientConfig()
+                .connectorProvider(new ApacheConnectorProvider())
+                .property(ApacheClientProperties.CONNECTION_MANAGER, connectionManager)
+                .property(ClientProperties.CONNECT_TIMEOUT, connectTimeoutMillis)
+                .property(ClientProperties.READ_TIMEOUT, readTimeoutMillis)
+                .property(ClientProperties.REQUEST_ENTITY_PROCESSING, RequestEntityProcessing.BUFFERED)
+                .register((ApacheHttpClientBuilderConfigurator) httpClientBuilder ->
+                        httpClientBuilder.evictIdleConnections(idleTimeoutSeconds, TimeUnit.SECONDS));
+        client = ClientBuilder.newBuilder().withConfig(clientConfig).build();
+
+        // Connections in use, idle connections kept alive for reuse, requests waiting for a connection and the pool size
+        registerGauge("httpClient.pool.leased", PoolStats::getLeased);
+        registerGauge("httpClient.pool.available", PoolStats::getAvailable);
+        registerGauge("httpClient.pool.pending", PoolStats::getPending);
+        registerGauge("httpClient.pool.max", PoolStats::getMax);
+        LOG.info("Pooled HTTP client created: maxTotal=" + maxTotal + ", maxPerRoute=" + maxPerRoute);
+    }
+
+    /**
+     * @return The shared client. It is thread safe and must not be closed by the caller; responses must be
+     * read or closed to return their connection to the pool.
+     */
+    public Client client() {
+        return client;
+    }
+
+    private Registry<ConnectionSocketFactory> socketFactories() {
+        return RegistryBuilder.<ConnectionSocketFactory>create()
+                .register("http", PlainConnectionSocketFactory.getSocketFactory())
+                .register("https", SSLConnectionSocketFactory.getSocketFactory())
+                .build();
+    }
+
+    private void registerGauge(String name, ToIntFunction<PoolStats> statistic) {
+        metricRegistry.register(name, (Gauge<Integer>) () -> statistic.applyAsInt(connectionManager.getTotalStats()));
+    }
+
+    @PreDestroy
+    void close() {
+        client.close();
+        connectionManager.close();
+    }
+}
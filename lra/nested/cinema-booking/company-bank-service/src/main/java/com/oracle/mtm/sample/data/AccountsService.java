@@ -28,7 +28,6 @@ import java.util.logging.Level;
 
 import javax.enterprise.context.ApplicationScoped;
 import javax.inject.Inject;
-import javax.sql.XAConnection;
 
 import com.oracle.mtm.sample.Configuration;
 import com.oracle.mtm.sample.entity.Account;
@@ -53,11 +52,9 @@ public class AccountsService implements IAccountsService {
     public Account accountDetails(String accountId) throws SQLException {
         Account account = null;
         PreparedStatement statement = null;
-        XAConnection xaConnection = null;
         Connection connection = null;
         try {
-            xaConnection = config.getDatasource().getXAConnection();
-            connection = xaConnection.getConnection();
+            connection = config.getReadDataSource().getConnection();
             if (connection == null) {
                 return null;
             }
@@ -78,9 +75,6 @@ public class AccountsService implements IAccountsService {
             if(connection != null){
                 connection.close();
             }
-            if(xaConnection != null){
-                xaConnection.close();
-            }
         }
         return account;
     }
@@ -21,6 +21,7 @@ CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFT
 package com.oracle.mtm.sample;
 
 import oracle.tmm.common.TrmConfig;
+import oracle.ucp.jdbc.PoolDataSource;
 import oracle.ucp.jdbc.PoolDataSourceFactory;
 import oracle.ucp.jdbc.PoolXADataSource;
 import org.eclipse.microprofile.config.inject.ConfigProperty;
@@ -31,6 +32,7 @@ import javax.enterprise.event.Observes;
 import javax.inject.Inject;
 import java.lang.invoke.MethodHandles;
 import java.sql.SQLException;
+import java.util.Optional;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -38,6 +40,7 @@ import java.util.logging.Logger;
 public class Configuration {
 
     private PoolXADataSource dataSource;
+    private PoolDataSource readDataSource;
     private Logger logger;
 
     @Inject
@@ -50,10 +53,23 @@ public class Configuration {
     @ConfigProperty(name = "serviceDataSource.password")
     String password;
 
+    /**
+     * Optional URL used for account queries, such as an Active Data Guard standby. Reads from a standby may lag
+     * the primary; when not set, queries run against the primary and see the latest committed balances.
+     */
+    @Inject
+    @ConfigProperty(name = "serviceDataSource.readUrl")
+    Optional<String> readUrl;
+
+    @Inject
+    @ConfigProperty(name = "serviceDataSource.readStatementCacheSize", defaultValue = "20")
+    int readStatementCacheSize;
+
 
     private void init(@Observes @Initialized(ApplicationScoped.class) Object event) {
         initialiseTrmLogger();
         initialiseDataSource();
+        initialiseReadDataSource();
     }
 
     /**
@@ -74,10 +90,32 @@ public class Configuration {
         }
     }
 
+    /**
+     * Initialises the non xa datasource used for account queries, with statement caching, so that they
+     * do not take connections from the XA pool
+     */
+    private void initialiseReadDataSource() {
+        try {
+            this.readDataSource = PoolDataSourceFactory.getPoolDataSource();
+            this.readDataSource.setURL(readUrl.orElse(url));
+            this.readDataSource.setUser(user);
+            this.readDataSource.setPassword(password);
+            this.readDataSource.setConnectionFactoryClassName("oracle.jdbc.pool.OracleDataSource");
+            this.readDataSource.setMaxPoolSize(15);
+            this.readDataSource.setMaxStatements(readStatementCacheSize);
+        } catch (SQLException e) {
+            this.getLogger().log(Level.SEVERE, "Failed to initialise read database");
+        }
+    }
+
     public PoolXADataSource getDatasource() {
         return dataSource;
     }
 
+    public PoolDataSource getReadDataSource() {
+        return readDataSource;
+    }
+
     /**
      * Initialise the logger instance and logging level for TRM library
      *
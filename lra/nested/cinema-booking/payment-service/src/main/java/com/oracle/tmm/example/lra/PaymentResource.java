@@ -39,8 +39,6 @@ import javax.ws.rs.HeaderParam;
 import javax.ws.rs.POST;
 import javax.ws.rs.Path;
 import javax.ws.rs.Produces;
-import javax.ws.rs.client.Client;
-import javax.ws.rs.client.ClientBuilder;
 import javax.ws.rs.client.Entity;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
@@ -57,8 +55,8 @@ public class PaymentResource {
     private static final Logger LOG = Logger.getLogger(PaymentResource.class.getName());
     private static final JsonBuilderFactory JSON = Json.createBuilderFactory(Collections.emptyMap());
 
-    private static Client withdrawClient = ClientBuilder.newClient();
-    private static Client depositClient = ClientBuilder.newClient();
+    @Inject
+    private PooledClientFactory clientFactory;
 
     @Inject
     @ConfigProperty(name = "customerbank.service.url")
@@ -133,14 +131,14 @@ public class PaymentResource {
 
     private Response withdraw(String serviceEndpoint, double amount, String accountId) throws URISyntaxException {
         String withDrawEndpoint = UriBuilder.fromUri(new URI(serviceEndpoint)).path("accounts").path(accountId).path("withdraw").queryParam("amount", amount).toString();
-        Response response = withdrawClient.target(withDrawEndpoint).request().post(Entity.text(""));
+        Response response = clientFactory.client().target(withDrawEndpoint).request().post(Entity.text(""));
         config.getLogger().log(Level.INFO, "Withdraw Response: \n" + response.toString());
         return response;
     }
 
     private Response deposit(String serviceEndpoint, double amount, String accountId) throws URISyntaxException {
         String depositEndpoint = UriBuilder.fromUri(new URI(serviceEndpoint)).path("accounts").path(accountId).path("deposit").queryParam("amount", amount).toString();
-        Response response = depositClient.target(depositEndpoint).request().post(Entity.text(""));
+        Response response = clientFactory.client().target(depositEndpoint).request().post(Entity.text(""));
         config.getLogger().log(Level.INFO, "Deposit Response: \n" + response.toString());
         return response;
     }
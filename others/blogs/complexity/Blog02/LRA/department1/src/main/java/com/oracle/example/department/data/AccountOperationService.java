@@ -32,6 +32,8 @@ import org.springframework.stereotype.Component;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.context.annotation.RequestScope;
 
+import java.util.Objects;
+
 /**
  * Service that connects to the accounts database and provides methods to interact with the account
  */
@@ -43,6 +45,11 @@ public class AccountOperationService implements IAccountOperationService {
 
     private static final Logger LOG = LoggerFactory.getLogger(AccountOperationService.class);
 
+    private static final String WITHDRAW_QUERY =
+            "UPDATE Account a SET a.amount = a.amount - :amount WHERE a.accountId = :accountId AND a.amount >= :amount";
+    private static final String DEPOSIT_QUERY =
+            "UPDATE Account a SET a.amount = a.amount + :amount WHERE a.accountId = :accountId";
+
     @Autowired
     EntityManager entityManager;
 
@@ -54,25 +61,24 @@ public class AccountOperationService implements IAccountOperationService {
 
     @Override
     public void withdraw(String accountId, double amount) throws NotFoundException, UnprocessableEntityException {
-        Account account = accountQueryService.getAccountDetails(accountId);
-        if (account.getAmount() < amount) {
+        int updated = updateBalance(WITHDRAW_QUERY, accountId, amount);
+        if (updated == 0) {
+            // The guarded update matched nothing, read the row only to report the reason
+            if (Objects.isNull(accountQueryService.getAccountDetails(accountId))) {
+                throw new NotFoundException("No account found for the provided account Identity");
+            }
             throw new UnprocessableEntityException("Insufficient balance in the account");
         }
-        LOG.info("Current Balance: " + account.getAmount());
-        account.setAmount(account.getAmount() - amount);
-        account = entityManager.merge(account);
-        entityManager.flush();
-        LOG.info("New Balance: " + account.getAmount());
+        LOG.info("Withdrew " + amount + " from account " + accountId);
     }
 
     @Override
     public void deposit(String accountId, double amount) throws NotFoundException {
-        Account account = accountQueryService.getAccountDetails(accountId);
-        LOG.info("Current Balance: " + account.getAmount());
-        account.setAmount(account.getAmount() + amount);
-        account = entityManager.merge(account);
-        entityManager.flush();
-        LOG.info("New Balance: " + account.getAmount());
+        int updated = updateBalance(DEPOSIT_QUERY, accountId, amount);
+        if (updated == 0) {
+            throw new NotFoundException("No account found for the provided account Identity");
+        }
+        LOG.info("Deposited " + amount + " to account " + accountId);
     }
 
     @Override
@@ -82,4 +88,19 @@ public class AccountOperationService implements IAccountOperationService {
         entityManager.flush();
     }
 
+    /**
+     * Applies the balance change with a single bulk update so the balance check and the write are one atomic
+     * statement. Pending changes are flushed first and the persistence context is cleared afterwards, as the bulk
+     * update does not refresh managed entities.
+     */
+    private int updateBalance(String jpql, String accountId, double amount) {
+        entityManager.flush();
+        int updated = entityManager.createQuery(jpql)
+                .setParameter("accountId", accountId)
+                .setParameter("amount", amount)
+                .executeUpdate();
+        entityManager.clear();
+        return updated;
+    }
+
 }
\ No newline at end of file
@@ -39,7 +39,6 @@ import jakarta.enterprise.context.RequestScoped;
 import jakarta.inject.Inject;
 import jakarta.ws.rs.*;
 import jakarta.ws.rs.client.Client;
-import jakarta.ws.rs.client.ClientBuilder;
 import jakarta.ws.rs.client.Entity;
 import jakarta.ws.rs.core.MediaType;
 import jakarta.ws.rs.core.Response;
@@ -63,6 +62,9 @@ public class BookingResource {
     @Inject
     TccClientService tccClientService;
 
+    @Inject
+    PooledClientFactory clientFactory;
+
     private static final Logger log = Logger.getLogger(BookingResource.class.getSimpleName());
 
     @GET
@@ -264,7 +266,7 @@ public class BookingResource {
      */
     private Vector<Booking> createBookings(String hotelName, String flightNumber) {
         Vector<Booking> ParticipantBookings = new Vector<Booking>();
-        Client svcClient = ClientBuilder.newClient();
+        Client svcClient = clientFactory.client();
         /**
          * Hotel booking
          * Participant (Hotel) returns the participant URI's in response header (Header Name: link) as well.
@@ -0,0 +1,150 @@
+/*
+Copyright (c) 2023, Oracle and/or its affiliates. **
+
+The Universal Permissive License (UPL), Version 1.0 **
+
+Subject to the condition set forth below, permission is hereby granted to any person obtaining a copy of this software, associated documentation and/or data
+(collectively the "Software"), free of charge and under any and all copyright rights in the Software, and any and all patent rights owned or freely licensable by each
+licensor hereunder covering either the unmodified Software as contributed to or provided by such licensor, or (ii) the Larger Works (as defined below), to deal in both **
+(a) the Software, and (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if one is included with the Software (each a "Larger Work" to which the
+Software is contributed by such licensors), **
+without restriction, including without limitation the rights to copy, create derivative works of, display, perform, and distribute the Software and make, use, sell,
+offer for sale, import, export, have made, and have sold the Software and the Larger Work(s), and to sublicense the foregoing rights on either these or other terms. **
+
+This license is subject to the following condition: The above copyright notice and either this complete permission notice or at a minimum a reference to the UPL must be
+included in all copies or substantial portions of the Software. **
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A
+PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF
+CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+*/
+
+package com.oracle.mtm.sample.benchmark;
+
+import com.oracle.mtm.sample.entity.AccountActivity;
+import com.oracle.mtm.sample.entity.AccountEvent;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.infra.ThreadParams;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Batch of a session of account-events-consumer: dequeue {@code batchSize} messages, parse them with
+ * {@link AccountEvent#parse}, aggregate their events into {@link AccountActivity} per account and acknowledge the
+ * batch. Each benchmark thread is a session of the consumer and dequeues the events of its own range of the 64
+ * account shards from a local stand-in for the topic, so {@code -t} is {@code eventsConsumer.sessions}. Each event
+ * costs {@code eventCpuTokens} of CPU to process, and the merge and commit of a batch are modelled as a
+ * {@code commitMicros} database round trip. The {@code events} counter is the consumer throughput in events, and the
+ * batch latency is the lag an acknowledgement adds to the events of its batch.
+ */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 10)
+@Threads(1)
+@Fork(1)
+public class AccountEventsConsumerBenchmark {
+
+    private static final int TOPIC_SIZE = 1 << 16;
+
+    private static final int ACCOUNT_SHARDS = 64;
+
+    @Param({"1", "100", "500"})
+    public int batchSize;
+
+    @Param({"2000"})
+    public long eventCpuTokens;
+
+    @Param({"500"})
+    public long commitMicros;
+
+    private final String[] topic = new String[TOPIC_SIZE];
+    private int next;
+
+    /**
+     * Fills the topic of the session with the events of the accounts in its shards, as the selector of the consumer
+     * would dequeue them
+     */
+    @Setup
+    public void setUp(ThreadParams threadParams) {
+        int sessions = Math.min(threadParams.getThreadCount(), ACCOUNT_SHARDS);
+        int session = threadParams.getThreadIndex() % sessions;
+        int firstShard = session * ACCOUNT_SHARDS / sessions;
+        int lastShard = (session + 1) * ACCOUNT_SHARDS / sessions - 1;
+        List<String> accountIds = new ArrayList<>();
+        for (int i = 0; i < AccountsDatabase.ACCOUNTS; i++) {
+            String accountId = AccountsDatabase.accountId(i);
+            int shard = Math.floorMod(accountId.hashCode(), ACCOUNT_SHARDS);
+            if (shard >= firstShard && shard <= lastShard) {
+                accountIds.add(accountId);
+            }
+        }
+        for (int i = 0; i < TOPIC_SIZE; i++) {
+            String accountId = accountIds.get(i % accountIds.size());
+            topic[i] = i % 2 == 0 ? "Withdrawn: $1.0 from account: " + accountId : "Deposited: $1.0 in account: " + accountId;
+        }
+    }
+
+    @Benchmark
+    public Collection<AccountActivity> consumeBatch(EventCounters counters) {
+        List<AccountEvent> events = new ArrayList<>(batchSize);
+        long now = System.currentTimeMillis();
+        for (int i = 0; i < batchSize; i++) {
+            AccountEvent event = AccountEvent.parse(topic[next++ & (TOPIC_SIZE - 1)], now);
+            if (event != null) {
+                events.add(event);
+            }
+        }
+        Collection<AccountActivity> activities = aggregate(events);
+        LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(commitMicros));
+        counters.events += events.size();
+        return activities;
+    }
+
+    /**
+     * The aggregation of AccountEventsConsumer, with the processing cost of each event
+     */
+    private Collection<AccountActivity> aggregate(List<AccountEvent> events) {
+        Map<String, AccountActivity> activities = new LinkedHashMap<>();
+        for (AccountEvent event : events) {
+            Blackhole.consumeCPU(eventCpuTokens);
+            activities.computeIfAbsent(event.getAccountId(), AccountActivity::new).add(event);
+        }
+        return activities.values();
+    }
+
+    /**
+     * Events consumed, reported next to the batches
+     */
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    @State(Scope.Thread)
+    public static class EventCounters {
+        public long events;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            events = 0;
+        }
+    }
+}
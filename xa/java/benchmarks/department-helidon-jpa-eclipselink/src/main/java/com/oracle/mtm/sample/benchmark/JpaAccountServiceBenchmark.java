@@ -0,0 +1,119 @@
+/*
+Copyright (c) 2023, Oracle and/or its affiliates. **
+
+The Universal Permissive License (UPL), Version 1.0 **
+
+Subject to the condition set forth below, permission is hereby granted to any person obtaining a copy of this software, associated documentation and/or data
+(collectively the "Software"), free of charge and under any and all copyright rights in the Software, and any and all patent rights owned or freely licensable by each
+licensor hereunder covering either the unmodified Software as contributed to or provided by such licensor, or (ii) the Larger Works (as defined below), to deal in both **
+(a) the Software, and (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if one is included with the Software (each a "Larger Work" to which the
+Software is contributed by such licensors), **
+without restriction, including without limitation the rights to copy, create derivative works of, display, perform, and distribute the Software and make, use, sell,
+offer for sale, import, export, have made, and have sold the Software and the Larger Work(s), and to sublicense the foregoing rights on either these or other terms. **
+
+This license is subject to the following condition: The above copyright notice and either this complete permission notice or at a minimum a reference to the UPL must be
+included in all copies or substantial portions of the Software. **
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A
+PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF
+CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+*/
+package com.oracle.mtm.sample.benchmark;
+
+import com.oracle.mtm.sample.data.AccountsService;
+import com.oracle.mtm.sample.resource.AccountsResource;
+import jakarta.inject.Provider;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.Persistence;
+import jakarta.ws.rs.core.Response;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Participant side of a transfer in department-helidon-jpa-eclipselink (EclipseLink): the withdraw and deposit
+ * endpoints of its AccountsResource on its AccountsService, with a new entity manager per request. The module's own
+ * {@code mydeptds} persistence unit is used against H2. The branch is demarcated with a resource-local transaction,
+ * which is what the enlisted connection behind the {@code @TrmEntityManager} sees.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 10)
+@Fork(value = 1, jvmArgsAppend = "-Dlog4j2.configurationFile=log4j2-benchmark.xml")
+public class JpaAccountServiceBenchmark {
+
+    private static final double AMOUNT = 1.00;
+
+    private EntityManagerFactory entityManagerFactory;
+
+    @Setup
+    public void setUp() throws Exception {
+        AccountsDatabase.create("department-helidon-jpa-eclipselink");
+        entityManagerFactory = Persistence.createEntityManagerFactory("mydeptds", Map.of(
+                "jakarta.persistence.jdbc.url", AccountsDatabase.url("department-helidon-jpa-eclipselink"),
+                "jakarta.persistence.jdbc.driver", "org.h2.Driver",
+                "eclipselink.target-database", "org.eclipse.persistence.platform.database.H2Platform",
+                "eclipselink.weaving", "false",
+                "eclipselink.logging.level", "WARNING"));
+    }
+
+    @TearDown
+    public void tearDown() {
+        entityManagerFactory.close();
+    }
+
+    @Benchmark
+    public boolean withdraw(AccountsDatabase.ThreadAccount account) {
+        return inTransaction(resource -> resource.withdraw(account.accountId, AMOUNT));
+    }
+
+    @Benchmark
+    public boolean deposit(AccountsDatabase.ThreadAccount account) {
+        return inTransaction(resource -> resource.deposit(account.accountId, AMOUNT));
+    }
+
+    /**
+     * Calls the endpoint with the request scoped AccountsService of a new request and commits its branch if the
+     * endpoint succeeded
+     */
+    private boolean inTransaction(Function<AccountsResource, Response> endpoint) {
+        EntityManager entityManager = entityManagerFactory.createEntityManager();
+        // Closed by AccountsService after a read, as the container managed one
+        EntityManager localEntityManager = entityManagerFactory.createEntityManager();
+        try {
+            AccountsService accountsService = new AccountsService();
+            Wiring.inject(accountsService, "entityManager", (Provider<EntityManager>) () -> entityManager);
+            Wiring.inject(accountsService, "localEntityManager", localEntityManager);
+            AccountsResource resource = Wiring.inject(new AccountsResource(), "accountService", accountsService);
+            entityManager.getTransaction().begin();
+            boolean succeeded = endpoint.apply(resource).getStatus() == 200;
+            if (succeeded) {
+                entityManager.getTransaction().commit();
+            }
+            return succeeded;
+        } finally {
+            if (entityManager.getTransaction().isActive()) {
+                entityManager.getTransaction().rollback();
+            }
+            entityManager.close();
+            if (localEntityManager.isOpen()) {
+                localEntityManager.close();
+            }
+        }
+    }
+}
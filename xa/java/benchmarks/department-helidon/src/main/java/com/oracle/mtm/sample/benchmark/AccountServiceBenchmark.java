@@ -0,0 +1,85 @@
+/*
+Copyright (c) 2023, Oracle and/or its affiliates. **
+
+The Universal Permissive License (UPL), Version 1.0 **
+
+Subject to the condition set forth below, permission is hereby granted to any person obtaining a copy of this software, associated documentation and/or data
+(collectively the "Software"), free of charge and under any and all copyright rights in the Software, and any and all patent rights owned or freely licensable by each
+licensor hereunder covering either the unmodified Software as contributed to or provided by such licensor, or (ii) the Larger Works (as defined below), to deal in both **
+(a) the Software, and (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if one is included with the Software (each a "Larger Work" to which the
+Software is contributed by such licensors), **
+without restriction, including without limitation the rights to copy, create derivative works of, display, perform, and distribute the Software and make, use, sell,
+offer for sale, import, export, have made, and have sold the Software and the Larger Work(s), and to sublicense the foregoing rights on either these or other terms. **
+
+This license is subject to the following condition: The above copyright notice and either this complete permission notice or at a minimum a reference to the UPL must be
+included in all copies or substantial portions of the Software. **
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A
+PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF
+CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+*/
+
+package com.oracle.mtm.sample.benchmark;
+
+import com.oracle.mtm.sample.data.AccountsService;
+import com.oracle.mtm.sample.resource.AccountsResource;
+import org.h2.jdbcx.JdbcDataSource;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.sql.Connection;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Participant side of a transfer in department-helidon: the withdraw and deposit endpoints of its AccountsResource,
+ * on its AccountsService, each in its own XA branch that the coordinator commits. The connection enlisted in the
+ * branch is injected into AccountsService as the MicroTx library injects the {@code @TrmSQLConnection}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 10)
+@Fork(value = 1, jvmArgsAppend = "-Dlog4j2.configurationFile=log4j2-benchmark.xml")
+public class AccountServiceBenchmark {
+
+    private static final double AMOUNT = 1.00;
+
+    private JdbcDataSource dataSource;
+    private LocalCoordinator coordinator;
+
+    @Setup
+    public void setUp() throws Exception {
+        dataSource = AccountsDatabase.create("department");
+        coordinator = new LocalCoordinator();
+    }
+
+    @Benchmark
+    public boolean withdraw(AccountsDatabase.ThreadAccount account) throws Exception {
+        return coordinator.inBranch(dataSource,
+                connection -> resource(connection).withdraw(account.accountId, AMOUNT).getStatus() == 200);
+    }
+
+    @Benchmark
+    public boolean deposit(AccountsDatabase.ThreadAccount account) throws Exception {
+        return coordinator.inBranch(dataSource,
+                connection -> resource(connection).deposit(account.accountId, AMOUNT).getStatus() == 200);
+    }
+
+    /**
+     * @param connection The connection enlisted in the branch of the request
+     * @return The resource with the request scoped AccountsService of the request
+     */
+    private AccountsResource resource(Connection connection) {
+        AccountsService accountsService = Wiring.inject(new AccountsService(), "connection", connection);
+        return Wiring.inject(new AccountsResource(), "accountService", accountsService);
+    }
+}
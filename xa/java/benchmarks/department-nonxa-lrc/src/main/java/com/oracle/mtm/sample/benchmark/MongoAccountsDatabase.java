@@ -18,29 +18,49 @@ THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLI
 PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF
 CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
 */
- 
-package com.oracle.mtm.sample.nonXA;
+package com.oracle.mtm.sample.benchmark;
 
 import com.mongodb.client.MongoCollection;
-import com.oracle.mtm.sample.entity.CommitRecord;
-import org.bson.Document;
+import com.mongodb.client.model.IndexOptions;
+import com.mongodb.client.model.Indexes;
+import com.oracle.mtm.sample.Configuration;
+import com.oracle.mtm.sample.entity.Account;
 
-import java.util.LinkedList;
+import java.util.ArrayList;
+import java.util.List;
 
-public class AsyncLLRCommitRecordDeletion implements Runnable{
-    private MongoCollection<CommitRecord> collection;
-    private LinkedList<String> gtridList;
+/**
+ * The accounts database of department-nonxa-lrc. Unlike the H2 databases of the other benchmarks it needs a MongoDB
+ * replica set, given by the {@code mongodb.url} system property.
+ */
+final class MongoAccountsDatabase {
 
-    private static final Object countLock = new Object();
-    AsyncLLRCommitRecordDeletion(MongoCollection<CommitRecord> collection, LinkedList<String> gtridList){
-        this.collection = collection;
-        this.gtridList = gtridList;
+    static final String URL = System.getProperty("mongodb.url", "mongodb://localhost:27017/?replicaSet=rs0");
+
+    static final String DATABASE = "benchmarks";
+
+    private MongoAccountsDatabase() {
     }
-    public void run(){
-            synchronized (countLock) {// taking a lock on countLock object. This is being done to avoid deadlock
-                Document filter = new Document("gtrid", new Document("$in", gtridList));
-                collection.deleteMany(filter);
-            }
 
+    /**
+     * Creates the Configuration bean of the module connected to the replica set, with the accounts collection
+     * seeded with {@link AccountsDatabase#ACCOUNTS} accounts
+     * @return The Configuration of the module
+     */
+    static Configuration create() {
+        Configuration config = Wiring.configDefaults(new Configuration());
+        Wiring.inject(config, "url", URL);
+        Wiring.inject(config, "databaseName", DATABASE);
+        Wiring.invoke(config, "initialise");
+        MongoCollection<Account> accounts = config.getAccountsCollection();
+        accounts.drop();
+        accounts.createIndex(Indexes.ascending("accountId"), new IndexOptions().unique(true));
+        List<Account> seed = new ArrayList<>(AccountsDatabase.ACCOUNTS);
+        for (int i = 0; i < AccountsDatabase.ACCOUNTS; i++) {
+            seed.add(new Account(null, AccountsDatabase.accountId(i), AccountsDatabase.accountId(i),
+                    AccountsDatabase.OPENING_BALANCE));
+        }
+        accounts.insertMany(seed);
+        return config;
     }
-}
\ No newline at end of file
+}
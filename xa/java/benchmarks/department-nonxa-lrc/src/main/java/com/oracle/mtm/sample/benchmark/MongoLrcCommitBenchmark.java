@@ -0,0 +1,104 @@
+/*
+Copyright (c) 2023, Oracle and/or its affiliates. **
+
+The Universal Permissive License (UPL), Version 1.0 **
+
+Subject to the condition set forth below, permission is hereby granted to any person obtaining a copy of this software, associated documentation and/or data
+(collectively the "Software"), free of charge and under any and all copyright rights in the Software, and any and all patent rights owned or freely licensable by each
+licensor hereunder covering either the unmodified Software as contributed to or provided by such licensor, or (ii) the Larger Works (as defined below), to deal in both **
+(a) the Software, and (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if one is included with the Software (each a "Larger Work" to which the
+Software is contributed by such licensors), **
+without restriction, including without limitation the rights to copy, create derivative works of, display, perform, and distribute the Software and make, use, sell,
+offer for sale, import, export, have made, and have sold the Software and the Larger Work(s), and to sublicense the foregoing rights on either these or other terms. **
+
+This license is subject to the following condition: The above copyright notice and either this complete permission notice or at a minimum a reference to the UPL must be
+included in all copies or substantial portions of the Software. **
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A
+PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF
+CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+*/
+
+package com.oracle.mtm.sample.benchmark;
+
+import com.mongodb.client.ClientSession;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.Updates;
+import com.oracle.mtm.sample.Configuration;
+import com.oracle.mtm.sample.nonxa.GroupCommitter;
+import io.helidon.metrics.api.RegistryFactory;
+import org.eclipse.microprofile.metrics.MetricRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Commit of the LRC branch of department-nonxa-lrc by its GroupCommitter: a deposit in a Mongo session transaction
+ * followed by its commit, with many branches committing at once. {@code windowMillis=-1} runs with
+ * {@code lrc.groupCommit.enabled=false}, each branch committing with the write concern of the client, given by the
+ * {@code mongodb.url} system property; other values enable group commit with that window. Like
+ * {@link MongoAccountServiceBenchmark} it needs a MongoDB replica set.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 10)
+@Threads(64)
+@Fork(value = 1, jvmArgsAppend = "-Dlog4j2.configurationFile=log4j2-benchmark.xml")
+public class MongoLrcCommitBenchmark {
+
+    private static final double AMOUNT = 1.00;
+
+    @Param({"-1", "0", "1", "2", "5"})
+    public long windowMillis;
+
+    @Param({"64"})
+    public int maxBatchSize;
+
+    private Configuration config;
+    private GroupCommitter groupCommitter;
+
+    @Setup
+    public void setUp() {
+        config = MongoAccountsDatabase.create();
+        config.getDatabase().getCollection("lrcCommitMarkers").drop();
+        groupCommitter = Wiring.configDefaults(new GroupCommitter());
+        Wiring.inject(groupCommitter, "config", config);
+        Wiring.inject(groupCommitter, "metricRegistry",
+                RegistryFactory.getInstance().getRegistry(MetricRegistry.Type.APPLICATION));
+        Wiring.inject(groupCommitter, "enabled", windowMillis >= 0);
+        Wiring.inject(groupCommitter, "windowMillis", Math.max(windowMillis, 0));
+        Wiring.inject(groupCommitter, "maxBatchSize", maxBatchSize);
+        Wiring.invoke(groupCommitter, "init");
+    }
+
+    @TearDown
+    public void tearDown() {
+        Wiring.invoke(groupCommitter, "stop");
+        config.getClient().close();
+    }
+
+    @Benchmark
+    public void commit(AccountsDatabase.ThreadAccount account) throws Exception {
+        try (ClientSession session = config.getClient().startSession()) {
+            session.startTransaction(groupCommitter.transactionOptions());
+            config.getAccountsCollection().updateOne(session, Filters.eq("accountId", account.accountId),
+                    Updates.inc("amount", AMOUNT));
+            groupCommitter.commit(session, UUID.randomUUID().toString());
+        }
+    }
+}
@@ -0,0 +1,104 @@
+/*
+Copyright (c) 2023, Oracle and/or its affiliates. **
+
+The Universal Permissive License (UPL), Version 1.0 **
+
+Subject to the condition set forth below, permission is hereby granted to any person obtaining a copy of this software, associated documentation and/or data
+(collectively the "Software"), free of charge and under any and all copyright rights in the Software, and any and all patent rights owned or freely licensable by each
+licensor hereunder covering either the unmodified Software as contributed to or provided by such licensor, or (ii) the Larger Works (as defined below), to deal in both **
+(a) the Software, and (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if one is included with the Software (each a "Larger Work" to which the
+Software is contributed by such licensors), **
+without restriction, including without limitation the rights to copy, create derivative works of, display, perform, and distribute the Software and make, use, sell,
+offer for sale, import, export, have made, and have sold the Software and the Larger Work(s), and to sublicense the foregoing rights on either these or other terms. **
+
+This license is subject to the following condition: The above copyright notice and either this complete permission notice or at a minimum a reference to the UPL must be
+included in all copies or substantial portions of the Software. **
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A
+PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF
+CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+*/
+
+package com.oracle.mtm.sample.benchmark;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Embedded H2 database with the accounts table of department.sql. Each benchmark thread works on its
+ * own account, so the numbers measure the transfer path rather than row lock waits on a single account.
+ */
+public final class AccountsDatabase {
+
+    /**
+     * Number of seeded accounts; more than the number of benchmark threads and of transfers in flight
+     */
+    public static final int ACCOUNTS = 2048;
+
+    /**
+     * Opening balance, high enough that a benchmark run never drains or overflows an account
+     */
+    public static final double OPENING_BALANCE = 50_000_000.00;
+
+    private static final AtomicInteger NEXT_ACCOUNT = new AtomicInteger();
+
+    private AccountsDatabase() {
+    }
+
+    /**
+     * Create a new in-memory database with a seeded accounts table
+     * @param name Database name, one per department
+     * @return XA capable data source of the database
+     */
+    public static JdbcDataSource create(String name) throws SQLException {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL(url(name));
+        try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+            statement.execute("DROP TABLE IF EXISTS accounts");
+            statement.execute("CREATE TABLE accounts (account_id VARCHAR(10) NOT NULL, name VARCHAR(60) NOT NULL, "
+                    + "amount DECIMAL(10,2) NOT NULL, PRIMARY KEY (account_id))");
+            try (PreparedStatement insert = connection.prepareStatement("INSERT INTO accounts VALUES (?, ?, ?)")) {
+                for (int i = 0; i < ACCOUNTS; i++) {
+                    insert.setString(1, accountId(i));
+                    insert.setString(2, accountId(i));
+                    insert.setDouble(3, OPENING_BALANCE);
+                    insert.addBatch();
+                }
+                insert.executeBatch();
+            }
+        }
+        return dataSource;
+    }
+
+    public static String url(String name) {
+        return "jdbc:h2:mem:" + name + ";DB_CLOSE_DELAY=-1;LOCK_TIMEOUT=10000";
+    }
+
+    /**
+     * @return The identity of a seeded account, within the 10 characters of account_id
+     */
+    public static String accountId(int index) {
+        return "acc" + index;
+    }
+
+    /**
+     * The account a benchmark thread transfers from and to
+     */
+    @State(Scope.Thread)
+    public static class ThreadAccount {
+        public String accountId;
+
+        @Setup
+        public void setUp() {
+            accountId = accountId(NEXT_ACCOUNT.getAndIncrement() % ACCOUNTS);
+        }
+    }
+}
@@ -0,0 +1,119 @@
+/*
+Copyright (c) 2023, Oracle and/or its affiliates. **
+
+The Universal Permissive License (UPL), Version 1.0 **
+
+Subject to the condition set forth below, permission is hereby granted to any person obtaining a copy of this software, associated documentation and/or data
+(collectively the "Software"), free of charge and under any and all copyright rights in the Software, and any and all patent rights owned or freely licensable by each
+licensor hereunder covering either the unmodified Software as contributed to or provided by such licensor, or (ii) the Larger Works (as defined below), to deal in both **
+(a) the Software, and (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if one is included with the Software (each a "Larger Work" to which the
+Software is contributed by such licensors), **
+without restriction, including without limitation the rights to copy, create derivative works of, display, perform, and distribute the Software and make, use, sell,
+offer for sale, import, export, have made, and have sold the Software and the Larger Work(s), and to sublicense the foregoing rights on either these or other terms. **
+
+This license is subject to the following condition: The above copyright notice and either this complete permission notice or at a minimum a reference to the UPL must be
+included in all copies or substantial portions of the Software. **
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A
+PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF
+CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+*/
+
+package com.oracle.mtm.sample.benchmark;
+
+import javax.sql.XAConnection;
+import javax.sql.XADataSource;
+import javax.transaction.xa.XAException;
+import javax.transaction.xa.XAResource;
+import javax.transaction.xa.Xid;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * A transaction branch on a JDBC resource manager. The XA connection is held from start until the
+ * branch completes, modelling what the MicroTx library does for the connection it injects into the participant.
+ */
+public final class JdbcBranch implements LocalCoordinator.Branch {
+
+    private final XAConnection xaConnection;
+    private final XAResource xaResource;
+    private final Connection connection;
+    private final Xid xid;
+    private boolean completed;
+
+    private JdbcBranch(XAConnection xaConnection, Xid xid) throws SQLException {
+        this.xaConnection = xaConnection;
+        this.xaResource = xaConnection.getXAResource();
+        this.connection = xaConnection.getConnection();
+        this.xid = xid;
+    }
+
+    /**
+     * Open a connection on the data source and start the branch on it
+     * @param dataSource The XA data source of the resource manager
+     * @param xid The branch identifier
+     * @return The started branch
+     */
+    public static JdbcBranch start(XADataSource dataSource, Xid xid) throws SQLException, XAException {
+        XAConnection xaConnection = dataSource.getXAConnection();
+        try {
+            JdbcBranch branch = new JdbcBranch(xaConnection, xid);
+            branch.xaResource.start(xid, XAResource.TMNOFLAGS);
+            return branch;
+        } catch (SQLException | XAException e) {
+            xaConnection.close();
+            throw e;
+        }
+    }
+
+    public Connection connection() {
+        return connection;
+    }
+
+    /**
+     * Disassociate the connection from the branch once the participant's work is done
+     * @param success false to mark the branch rollback-only
+     */
+    public void end(boolean success) throws XAException {
+        xaResource.end(xid, success ? XAResource.TMSUCCESS : XAResource.TMFAIL);
+    }
+
+    @Override
+    public int prepare() throws XAException {
+        int vote = xaResource.prepare(xid);
+        if (vote == XAResource.XA_RDONLY) {
+            complete();
+        }
+        return vote;
+    }
+
+    @Override
+    public void commit(boolean onePhase) throws XAException {
+        try {
+            xaResource.commit(xid, onePhase);
+        } finally {
+            complete();
+        }
+    }
+
+    @Override
+    public void rollback() throws XAException {
+        if (completed) {
+            return;
+        }
+        try {
+            xaResource.rollback(xid);
+        } finally {
+            complete();
+        }
+    }
+
+    private void complete() {
+        completed = true;
+        try {
+            xaConnection.close();
+        } catch (SQLException ignored) {
+            // The branch outcome is already decided
+        }
+    }
+}
@@ -0,0 +1,216 @@
+/*
+Copyright (c) 2023, Oracle and/or its affiliates. **
+
+The Universal Permissive License (UPL), Version 1.0 **
+
+Subject to the condition set forth below, permission is hereby granted to any person obtaining a copy of this software, associated documentation and/or data
+(collectively the "Software"), free of charge and under any and all copyright rights in the Software, and any and all patent rights owned or freely licensable by each
+licensor hereunder covering either the unmodified Software as contributed to or provided by such licensor, or (ii) the Larger Works (as defined below), to deal in both **
+(a) the Software, and (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if one is included with the Software (each a "Larger Work" to which the
+Software is contributed by such licensors), **
+without restriction, including without limitation the rights to copy, create derivative works of, display, perform, and distribute the Software and make, use, sell,
+offer for sale, import, export, have made, and have sold the Software and the Larger Work(s), and to sublicense the foregoing rights on either these or other terms. **
+
+This license is subject to the following condition: The above copyright notice and either this complete permission notice or at a minimum a reference to the UPL must be
+included in all copies or substantial portions of the Software. **
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A
+PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF
+CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+*/
+
+package com.oracle.mtm.sample.benchmark;
+
+import javax.sql.XADataSource;
+import javax.transaction.xa.XAException;
+import javax.transaction.xa.XAResource;
+import javax.transaction.xa.Xid;
+import java.nio.ByteBuffer;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-process stand-in for the MicroTx coordinator. It hands out global transaction ids and drives the
+ * enlisted branches through the same two-phase (or one-phase, for a single branch) completion that the
+ * coordinator performs, without the coordinator's own network hops. Neither the coordinator nor the MicroTx library
+ * is run, so their own costs are not part of the numbers.
+ */
+public final class LocalCoordinator {
+
+    private static final int FORMAT_ID = 0x4D545842;
+
+    private final byte[] coordinatorId = uuidBytes(UUID.randomUUID());
+    private final AtomicLong sequence = new AtomicLong();
+
+    /**
+     * Begin a new global transaction
+     * @return The transaction, with no branches enlisted
+     */
+    public Transaction begin() {
+        byte[] gtrid = Arrays.copyOf(coordinatorId, coordinatorId.length + Long.BYTES);
+        ByteBuffer.wrap(gtrid, coordinatorId.length, Long.BYTES).putLong(sequence.incrementAndGet());
+        return new Transaction(gtrid);
+    }
+
+    /**
+     * Run the work in a single JDBC branch of a new global transaction and complete it
+     * @param dataSource The XA data source of the resource manager
+     * @param work The SQL to execute on the enlisted connection
+     * @return The result of the work
+     */
+    public <T> T inBranch(XADataSource dataSource, SqlWork<T> work) throws SQLException, XAException {
+        Transaction transaction = begin();
+        JdbcBranch branch = JdbcBranch.start(dataSource, transaction.branchXid(1));
+        transaction.enlist(branch);
+        T result;
+        try {
+            result = work.execute(branch.connection());
+            branch.end(true);
+        } catch (SQLException | RuntimeException e) {
+            branch.end(false);
+            transaction.rollback();
+            throw e;
+        }
+        transaction.commit();
+        return result;
+    }
+
+    /**
+     * Build the branch identifier of a participant from the hex encoded global transaction id
+     * @param gtrid Global transaction id as propagated to the participants
+     * @param branch Branch qualifier of the participant
+     * @return The branch Xid
+     */
+    public static Xid xid(String gtrid, int branch) {
+        return new BranchXid(HexFormat.of().parseHex(gtrid), branch);
+    }
+
+    private static byte[] uuidBytes(UUID uuid) {
+        return ByteBuffer.allocate(16).putLong(uuid.getMostSignificantBits()).putLong(uuid.getLeastSignificantBits()).array();
+    }
+
+    /**
+     * SQL executed on a connection enlisted in a transaction branch
+     */
+    @FunctionalInterface
+    public interface SqlWork<T> {
+        T execute(Connection connection) throws SQLException;
+    }
+
+    /**
+     * A transaction branch as seen by the coordinator
+     */
+    public interface Branch {
+        int prepare() throws XAException;
+
+        void commit(boolean onePhase) throws XAException;
+
+        void rollback() throws XAException;
+    }
+
+    /**
+     * A global transaction and the branches enlisted in it
+     */
+    public static final class Transaction {
+        private final byte[] gtrid;
+        private final List<Branch> branches = new ArrayList<>(2);
+
+        private Transaction(byte[] gtrid) {
+            this.gtrid = gtrid;
+        }
+
+        /**
+         * @return The global transaction id, hex encoded for propagation to participants
+         */
+        public String gtrid() {
+            return HexFormat.of().formatHex(gtrid);
+        }
+
+        public Xid branchXid(int branch) {
+            return new BranchXid(gtrid, branch);
+        }
+
+        public void enlist(Branch branch) {
+            branches.add(branch);
+        }
+
+        /**
+         * Commit all the enlisted branches. A single branch is committed in one phase, as the coordinator does.
+         */
+        public void commit() throws XAException {
+            if (branches.size() == 1) {
+                branches.get(0).commit(true);
+                return;
+            }
+            List<Branch> prepared = new ArrayList<>(branches.size());
+            for (Branch branch : branches) {
+                try {
+                    if (branch.prepare() == XAResource.XA_OK) {
+                        prepared.add(branch);
+                    }
+                } catch (XAException e) {
+                    rollback();
+                    throw e;
+                }
+            }
+            for (Branch branch : prepared) {
+                branch.commit(false);
+            }
+        }
+
+        /**
+         * Roll back all the enlisted branches. Branches that have already completed ignore the request.
+         */
+        public void rollback() throws XAException {
+            for (Branch branch : branches) {
+                branch.rollback();
+            }
+        }
+    }
+
+    private static final class BranchXid implements Xid {
+        private final byte[] gtrid;
+        private final byte[] bqual;
+
+        private BranchXid(byte[] gtrid, int branch) {
+            this.gtrid = gtrid;
+            this.bqual = ByteBuffer.allocate(Integer.BYTES).putInt(branch).array();
+        }
+
+        @Override
+        public int getFormatId() {
+            return FORMAT_ID;
+        }
+
+        @Override
+        public byte[] getGlobalTransactionId() {
+            return gtrid;
+        }
+
+        @Override
+        public byte[] getBranchQualifier() {
+            return bqual;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Xid)) return false;
+            Xid xid = (Xid) o;
+            return FORMAT_ID == xid.getFormatId()
+                    && Arrays.equals(gtrid, xid.getGlobalTransactionId())
+                    && Arrays.equals(bqual, xid.getBranchQualifier());
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * Arrays.hashCode(gtrid) + Arrays.hashCode(bqual);
+        }
+    }
+}
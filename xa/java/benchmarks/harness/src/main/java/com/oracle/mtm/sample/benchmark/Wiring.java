@@ -0,0 +1,157 @@
+/*
+Copyright (c) 2023, Oracle and/or its affiliates. **
+
+The Universal Permissive License (UPL), Version 1.0 **
+
+Subject to the condition set forth below, permission is hereby granted to any person obtaining a copy of this software, associated documentation and/or data
+(collectively the "Software"), free of charge and under any and all copyright rights in the Software, and any and all patent rights owned or freely licensable by each
+licensor hereunder covering either the unmodified Software as contributed to or provided by such licensor, or (ii) the Larger Works (as defined below), to deal in both **
+(a) the Software, and (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if one is included with the Software (each a "Larger Work" to which the
+Software is contributed by such licensors), **
+without restriction, including without limitation the rights to copy, create derivative works of, display, perform, and distribute the Software and make, use, sell,
+offer for sale, import, export, have made, and have sold the Software and the Larger Work(s), and to sublicense the foregoing rights on either these or other terms. **
+
+This license is subject to the following condition: The above copyright notice and either this complete permission notice or at a minimum a reference to the UPL must be
+included in all copies or substantial portions of the Software. **
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A
+PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF
+CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+*/
+
+package com.oracle.mtm.sample.benchmark;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+
+/**
+ * Wires the beans of a sample module as its container would, so that the benchmarks run the classes of the module
+ * without starting the application, the MicroTx library or a coordinator. Dependencies are injected into the fields
+ * by name and configuration properties get the default value declared on the field.
+ */
+public final class Wiring {
+
+    private static final String CONFIG_PROPERTY = "org.eclipse.microprofile.config.inject.ConfigProperty";
+    private static final String SPRING_VALUE = "org.springframework.beans.factory.annotation.Value";
+
+    private Wiring() {
+    }
+
+    /**
+     * Inject a dependency or a configuration value into a field of the bean
+     * @param bean The bean
+     * @param fieldName Name of the field, declared by the class of the bean or one of its superclasses
+     * @param value Value to inject
+     * @return The bean
+     */
+    public static <T> T inject(T bean, String fieldName, Object value) {
+        Field field = field(bean.getClass(), fieldName);
+        try {
+            field.set(bean, value);
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException("Unable to inject " + fieldName, e);
+        }
+        return bean;
+    }
+
+    /**
+     * Set every field annotated with a MicroProfile {@code @ConfigProperty} or a Spring {@code @Value} to the default
+     * value of the property, as the application does when the property is not configured
+     * @param bean The bean
+     * @return The bean
+     */
+    public static <T> T configDefaults(T bean) {
+        for (Class<?> type = bean.getClass(); type != Object.class; type = type.getSuperclass()) {
+            for (Field field : type.getDeclaredFields()) {
+                String defaultValue = defaultValue(field);
+                if (defaultValue != null) {
+                    inject(bean, field.getName(), convert(defaultValue, field.getType()));
+                }
+            }
+        }
+        return bean;
+    }
+
+    /**
+     * Invoke a lifecycle method of the bean, such as its {@code @PostConstruct} method
+     * @param bean The bean
+     * @param methodName Name of a method without parameters
+     */
+    public static void invoke(Object bean, String methodName) {
+        for (Class<?> type = bean.getClass(); type != Object.class; type = type.getSuperclass()) {
+            try {
+                Method method = type.getDeclaredMethod(methodName);
+                method.setAccessible(true);
+                method.invoke(bean);
+                return;
+            } catch (NoSuchMethodException e) {
+                // Declared by a superclass
+            } catch (InvocationTargetException e) {
+                throw new IllegalStateException(methodName + " failed", e.getCause());
+            } catch (IllegalAccessException e) {
+                throw new IllegalStateException("Unable to invoke " + methodName, e);
+            }
+        }
+        throw new IllegalArgumentException("No method " + methodName + " in " + bean.getClass().getName());
+    }
+
+    private static Field field(Class<?> beanType, String fieldName) {
+        for (Class<?> type = beanType; type != Object.class; type = type.getSuperclass()) {
+            try {
+                Field field = type.getDeclaredField(fieldName);
+                field.setAccessible(true);
+                return field;
+            } catch (NoSuchFieldException e) {
+                // Declared by a superclass
+            }
+        }
+        throw new IllegalArgumentException("No field " + fieldName + " in " + beanType.getName());
+    }
+
+    /**
+     * @return The default value of the configuration property injected into the field, null if there is none
+     */
+    private static String defaultValue(Field field) {
+        for (Annotation annotation : field.getAnnotations()) {
+            String annotationType = annotation.annotationType().getName();
+            if (CONFIG_PROPERTY.equals(annotationType)) {
+                String defaultValue = attribute(annotation, "defaultValue");
+                // The annotation marks a property without a default with a reserved value
+                return defaultValue.startsWith("org.eclipse.microprofile.config") ? null : defaultValue;
+            }
+            if (SPRING_VALUE.equals(annotationType)) {
+                String expression = attribute(annotation, "value");
+                int separator = expression.indexOf(':');
+                return expression.startsWith("${") && separator > 0
+                        ? expression.substring(separator + 1, expression.length() - 1) : null;
+            }
+        }
+        return null;
+    }
+
+    private static String attribute(Annotation annotation, String name) {
+        try {
+            return (String) annotation.annotationType().getMethod(name).invoke(annotation);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Unable to read " + name + " of " + annotation, e);
+        }
+    }
+
+    private static Object convert(String value, Class<?> type) {
+        if (type == int.class || type == Integer.class) {
+            return Integer.valueOf(value);
+        }
+        if (type == long.class || type == Long.class) {
+            return Long.valueOf(value);
+        }
+        if (type == boolean.class || type == Boolean.class) {
+            return Boolean.valueOf(value);
+        }
+        if (type == double.class || type == Double.class) {
+            return Double.valueOf(value);
+        }
+        return value;
+    }
+}
@@ -0,0 +1,143 @@
+/*
+Copyright (c) 2023, Oracle and/or its affiliates. **
+
+The Universal Permissive License (UPL), Version 1.0 **
+
+Subject to the condition set forth below, permission is hereby granted to any person obtaining a copy of this software, associated documentation and/or data
+(collectively the "Software"), free of charge and under any and all copyright rights in the Software, and any and all patent rights owned or freely licensable by each
+licensor hereunder covering either the unmodified Software as contributed to or provided by such licensor, or (ii) the Larger Works (as defined below), to deal in both **
+(a) the Software, and (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if one is included with the Software (each a "Larger Work" to which the
+Software is contributed by such licensors), **
+without restriction, including without limitation the rights to copy, create derivative works of, display, perform, and distribute the Software and make, use, sell,
+offer for sale, import, export, have made, and have sold the Software and the Larger Work(s), and to sublicense the foregoing rights on either these or other terms. **
+
+This license is subject to the following condition: The above copyright notice and either this complete permission notice or at a minimum a reference to the UPL must be
+included in all copies or substantial portions of the Software. **
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A
+PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF
+CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+*/
+package com.oracle.mtm.sample.benchmark;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Transfers of a deployed Helidon teller, given by the {@code teller.url} system property, with 1024 transfers in
+ * flight at once. The teller, the departments and the MicroTx coordinator run as deployed, so the benchmark measures
+ * the server worker pool of the teller and the departments, or their virtual threads when they are started with
+ * {@code server.executor-service.virtual-threads=true}, with the MicroTx library. Each transfer moves an amount from
+ * an account of department one to the account of the same identity in department two, one account per transfer in
+ * flight, as seeded by the readme. The {@code committed} and {@code failed} counters split the transfers by the
+ * status of the teller response.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 10)
+@Measurement(iterations = 5, time = 10)
+@Fork(1)
+@Threads(1)
+public class ConcurrentTransferBenchmark {
+
+    private static final String TELLER_URL = System.getProperty("teller.url", "http://localhost:8080");
+
+    /**
+     * Number of transfers in flight at once
+     */
+    private static final int IN_FLIGHT = 1024;
+
+    private final HttpRequest[] transfers = new HttpRequest[IN_FLIGHT];
+    private ExecutorService clientExecutor;
+    private HttpClient client;
+
+    @Setup
+    public void setUp() {
+        clientExecutor = Executors.newVirtualThreadPerTaskExecutor();
+        client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .executor(clientExecutor)
+                .build();
+        URI uri = URI.create(TELLER_URL + "/transfers");
+        for (int i = 0; i < IN_FLIGHT; i++) {
+            String accountId = AccountsDatabase.accountId(i);
+            String transfer = "{\"from\":\"" + accountId + "\",\"to\":\"" + accountId + "\",\"amount\":1.00}";
+            transfers[i] = HttpRequest.newBuilder(uri)
+                    .header("Content-Type", "application/json")
+                    .timeout(Duration.ofSeconds(60))
+                    .POST(HttpRequest.BodyPublishers.ofString(transfer))
+                    .build();
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        clientExecutor.shutdownNow();
+    }
+
+    /**
+     * Sends the 1024 transfers at once and waits for all of them
+     */
+    @Benchmark
+    public int transfers(TransferCounters counters) {
+        List<CompletableFuture<HttpResponse<Void>>> responses = new ArrayList<>(IN_FLIGHT);
+        for (HttpRequest transfer : transfers) {
+            responses.add(client.sendAsync(transfer, HttpResponse.BodyHandlers.discarding()));
+        }
+        int committed = 0;
+        for (CompletableFuture<HttpResponse<Void>> response : responses) {
+            try {
+                if (response.join().statusCode() == 200) {
+                    committed++;
+                }
+            } catch (RuntimeException e) {
+                // Timed out or refused, counted as failed
+            }
+        }
+        counters.committed += committed;
+        counters.failed += IN_FLIGHT - committed;
+        return committed;
+    }
+
+    /**
+     * Transfers committed and failed, reported next to the rounds of 1024 transfers
+     */
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    @State(Scope.Thread)
+    public static class TransferCounters {
+        public long committed;
+        public long failed;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            committed = 0;
+            failed = 0;
+        }
+    }
+}
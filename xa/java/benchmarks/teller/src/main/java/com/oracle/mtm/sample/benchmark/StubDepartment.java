@@ -0,0 +1,187 @@
+/*
+Copyright (c) 2023, Oracle and/or its affiliates. **
+
+The Universal Permissive License (UPL), Version 1.0 **
+
+Subject to the condition set forth below, permission is hereby granted to any person obtaining a copy of this software, associated documentation and/or data
+(collectively the "Software"), free of charge and under any and all copyright rights in the Software, and any and all patent rights owned or freely licensable by each
+licensor hereunder covering either the unmodified Software as contributed to or provided by such licensor, or (ii) the Larger Works (as defined below), to deal in both **
+(a) the Software, and (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if one is included with the Software (each a "Larger Work" to which the
+Software is contributed by such licensors), **
+without restriction, including without limitation the rights to copy, create derivative works of, display, perform, and distribute the Software and make, use, sell,
+offer for sale, import, export, have made, and have sold the Software and the Larger Work(s), and to sublicense the foregoing rights on either these or other terms. **
+
+This license is subject to the following condition: The above copyright notice and either this complete permission notice or at a minimum a reference to the UPL must be
+included in all copies or substantial portions of the Software. **
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A
+PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF
+CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+*/
+
+package com.oracle.mtm.sample.benchmark;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import javax.sql.XADataSource;
+import javax.transaction.xa.XAException;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A stand-in for a department participant served over HTTP, for the teller benchmarks; the departments themselves
+ * are measured by their own benchmarks. It exposes the withdraw and deposit endpoints of AccountsResource, runs their
+ * update in a branch of the propagated global transaction and leaves the branch to be completed by the
+ * {@link LocalCoordinator}.
+ */
+final class StubDepartment implements AutoCloseable {
+
+    /**
+     * Header carrying the global transaction id, standing in for the MicroTx propagation headers
+     */
+    static final String GTRID_HEADER = "X-Benchmark-Gtrid";
+
+    /**
+     * Connection backlog, large enough for every transfer in flight to connect at once
+     */
+    private static final int BACKLOG = 2048;
+
+    private final XADataSource dataSource;
+    private final int branchQualifier;
+    private final long latencyMillis;
+    private final Map<String, JdbcBranch> branches = new ConcurrentHashMap<>();
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+    private final HttpServer server;
+
+    /**
+     * @param name Name of the department database
+     * @param branchQualifier Branch qualifier of this participant in every transaction
+     * @param latencyMillis Delay added to each request to model the network distance to the teller
+     */
+    StubDepartment(String name, int branchQualifier, long latencyMillis) throws SQLException, IOException {
+        this.dataSource = AccountsDatabase.create(name);
+        this.branchQualifier = branchQualifier;
+        this.latencyMillis = latencyMillis;
+        this.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), BACKLOG);
+        this.server.createContext("/accounts", this::handle);
+        this.server.setExecutor(executor);
+        this.server.start();
+    }
+
+    URI endpoint() {
+        return URI.create("http://" + server.getAddress().getHostString() + ":" + server.getAddress().getPort());
+    }
+
+    /**
+     * @param gtrid Global transaction id the participant was called with
+     * @return The branch of this participant, for the coordinator to complete
+     */
+    LocalCoordinator.Branch branch(String gtrid) {
+        return new LocalCoordinator.Branch() {
+            @Override
+            public int prepare() throws XAException {
+                return pending(gtrid).prepare();
+            }
+
+            @Override
+            public void commit(boolean onePhase) throws XAException {
+                JdbcBranch branch = branches.remove(gtrid);
+                if (branch != null) {
+                    branch.commit(onePhase);
+                }
+            }
+
+            @Override
+            public void rollback() throws XAException {
+                JdbcBranch branch = branches.remove(gtrid);
+                if (branch != null) {
+                    branch.rollback();
+                }
+            }
+        };
+    }
+
+    private JdbcBranch pending(String gtrid) throws XAException {
+        JdbcBranch branch = branches.get(gtrid);
+        if (branch == null) {
+            throw new XAException(XAException.XAER_NOTA);
+        }
+        return branch;
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try {
+            String[] path = exchange.getRequestURI().getPath().split("/");
+            String query = exchange.getRequestURI().getQuery();
+            String gtrid = exchange.getRequestHeaders().getFirst(GTRID_HEADER);
+            if (path.length != 4 || query == null || !query.startsWith("amount=") || gtrid == null) {
+                respond(exchange, 400, "Invalid request");
+                return;
+            }
+            String accountId = path[2];
+            double amount = Double.parseDouble(query.substring("amount=".length()));
+            if (latencyMillis > 0) {
+                TimeUnit.MILLISECONDS.sleep(latencyMillis);
+            }
+            JdbcBranch branch = JdbcBranch.start(dataSource, LocalCoordinator.xid(gtrid, branchQualifier));
+            boolean done;
+            try {
+                done = update(branch.connection(), accountId, "withdraw".equals(path[3]) ? -amount : amount);
+                branch.end(true);
+            } catch (SQLException | RuntimeException e) {
+                branch.end(false);
+                branch.rollback();
+                throw e;
+            }
+            branches.put(gtrid, branch);
+            respond(exchange, done ? 200 : 422, done ? "Amount updated" : "Insufficient balance in the account");
+        } catch (SQLException | XAException | RuntimeException e) {
+            respond(exchange, 500, String.valueOf(e.getMessage()));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            respond(exchange, 500, "Interrupted");
+        } finally {
+            exchange.close();
+        }
+    }
+
+    /**
+     * The guarded update of the department modules, a withdrawal only debits a balance that covers it
+     */
+    private static boolean update(Connection connection, String accountId, double delta) throws SQLException {
+        String query = "UPDATE accounts SET amount=amount+? where account_id=? and amount+?>=0";
+        try (PreparedStatement statement = connection.prepareStatement(query)) {
+            statement.setDouble(1, delta);
+            statement.setString(2, accountId);
+            statement.setDouble(3, delta);
+            return statement.executeUpdate() > 0;
+        }
+    }
+
+    private static void respond(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,151 @@
+/*
+Copyright (c) 2023, Oracle and/or its affiliates. **
+
+The Universal Permissive License (UPL), Version 1.0 **
+
+Subject to the condition set forth below, permission is hereby granted to any person obtaining a copy of this software, associated documentation and/or data
+(collectively the "Software"), free of charge and under any and all copyright rights in the Software, and any and all patent rights owned or freely licensable by each
+licensor hereunder covering either the unmodified Software as contributed to or provided by such licensor, or (ii) the Larger Works (as defined below), to deal in both **
+(a) the Software, and (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if one is included with the Software (each a "Larger Work" to which the
+Software is contributed by such licensors), **
+without restriction, including without limitation the rights to copy, create derivative works of, display, perform, and distribute the Software and make, use, sell,
+offer for sale, import, export, have made, and have sold the Software and the Larger Work(s), and to sublicense the foregoing rights on either these or other terms. **
+
+This license is subject to the following condition: The above copyright notice and either this complete permission notice or at a minimum a reference to the UPL must be
+included in all copies or substantial portions of the Software. **
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A
+PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF
+CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+*/
+package com.oracle.mtm.sample.benchmark;
+
+import com.oracle.mtm.sample.PooledClientFactory;
+import com.oracle.mtm.sample.TransferMetrics;
+import com.oracle.mtm.sample.resource.TransferResource;
+import io.helidon.metrics.api.RegistryFactory;
+import jakarta.transaction.NotSupportedException;
+import jakarta.transaction.RollbackException;
+import jakarta.transaction.Status;
+import jakarta.transaction.SystemException;
+import jakarta.transaction.UserTransaction;
+import jakarta.ws.rs.client.ClientRequestFilter;
+import org.eclipse.microprofile.metrics.MetricRegistry;
+
+import javax.transaction.xa.XAException;
+
+/**
+ * The TransferResource of the Helidon teller, wired with its PooledClientFactory and TransferMetrics and calling two
+ * {@link StubDepartment}s. Its global transactions are begun on the {@link LocalCoordinator} instead of the MicroTx
+ * coordinator, with both departments enlisted, and the transaction id is propagated to them in a header.
+ */
+final class Teller implements AutoCloseable {
+
+    private final LocalCoordinator coordinator = new LocalCoordinator();
+    private final ThreadLocal<String> currentGtrid = new ThreadLocal<>();
+    private final StubDepartment departmentOne;
+    private final StubDepartment departmentTwo;
+    private final PooledClientFactory clientFactory;
+    private final TransferResource resource;
+
+    Teller(StubDepartment departmentOne, StubDepartment departmentTwo) {
+        this.departmentOne = departmentOne;
+        this.departmentTwo = departmentTwo;
+        MetricRegistry metricRegistry = RegistryFactory.getInstance().getRegistry(MetricRegistry.Type.APPLICATION);
+        clientFactory = Wiring.inject(Wiring.configDefaults(new PooledClientFactory()), "metricRegistry", metricRegistry);
+        Wiring.invoke(clientFactory, "init");
+        clientFactory.client().register((ClientRequestFilter) request ->
+                request.getHeaders().putSingle(StubDepartment.GTRID_HEADER, currentGtrid.get()));
+
+        resource = Wiring.configDefaults(new TransferResource() {
+            @Override
+            protected UserTransaction newTransaction() {
+                return new LocalUserTransaction();
+            }
+        });
+        Wiring.inject(resource, "clientFactory", clientFactory);
+        Wiring.inject(resource, "transferMetrics", Wiring.inject(new TransferMetrics(), "metricRegistry", metricRegistry));
+        Wiring.inject(resource, "departmentOneEndpoint", departmentOne.endpoint().toString());
+        Wiring.inject(resource, "departmentTwoEndpoint", departmentTwo.endpoint().toString());
+    }
+
+    /**
+     * @return The resource, shared by all requests as the application scoped beans it uses
+     */
+    TransferResource resource() {
+        return resource;
+    }
+
+    @Override
+    public void close() {
+        Wiring.invoke(clientFactory, "close");
+    }
+
+    /**
+     * A global transaction of the {@link LocalCoordinator}, bound to the thread of the transfer as the MicroTx one is
+     */
+    private final class LocalUserTransaction implements UserTransaction {
+
+        private LocalCoordinator.Transaction transaction;
+
+        @Override
+        public void begin() throws NotSupportedException {
+            if (transaction != null) {
+                throw new NotSupportedException("Nested transactions are not supported");
+            }
+            transaction = coordinator.begin();
+            transaction.enlist(departmentOne.branch(transaction.gtrid()));
+            transaction.enlist(departmentTwo.branch(transaction.gtrid()));
+            currentGtrid.set(transaction.gtrid());
+        }
+
+        @Override
+        public void commit() throws RollbackException {
+            try {
+                active().commit();
+            } catch (XAException e) {
+                throw (RollbackException) new RollbackException(e.getMessage()).initCause(e);
+            } finally {
+                end();
+            }
+        }
+
+        @Override
+        public void rollback() throws SystemException {
+            try {
+                active().rollback();
+            } catch (XAException e) {
+                throw (SystemException) new SystemException(e.getMessage()).initCause(e);
+            } finally {
+                end();
+            }
+        }
+
+        @Override
+        public void setRollbackOnly() {
+            throw new UnsupportedOperationException("setRollbackOnly");
+        }
+
+        @Override
+        public int getStatus() {
+            return transaction == null ? Status.STATUS_NO_TRANSACTION : Status.STATUS_ACTIVE;
+        }
+
+        @Override
+        public void setTransactionTimeout(int seconds) {
+            // Branches are completed as soon as the transfer ends
+        }
+
+        private LocalCoordinator.Transaction active() {
+            if (transaction == null) {
+                throw new IllegalStateException("No transaction");
+            }
+            return transaction;
+        }
+
+        private void end() {
+            transaction = null;
+            currentGtrid.remove();
+        }
+    }
+}
@@ -42,6 +42,11 @@ import org.slf4j.LoggerFactory;
 @RequestScoped
 public class AccountsService implements IAccountsService {
 
+    private static final String WITHDRAW_QUERY =
+            "UPDATE Account a SET a.amount = a.amount - :amount WHERE a.accountId = :accountId AND a.amount >= :amount";
+    private static final String DEPOSIT_QUERY =
+            "UPDATE Account a SET a.amount = a.amount + :amount WHERE a.accountId = :accountId";
+
     @Inject
     @TrmEntityManager
     private Provider<EntityManager> entityManager;
@@ -80,32 +85,32 @@ public class AccountsService implements IAccountsService {
 
     @Override
     public boolean withdraw(String accountId, double amount) throws SQLException {
-        Account account = findByAccountId(accountId, entityManager.get());
-        if (account != null) {
-            logger.info("Current Balance: " + account.getAmount());
-            account.setAmount(account.getAmount() - amount);
-
-            account = entityManager.get().merge(account);
-            entityManager.get().flush();
-            logger.info("New Balance: " + account.getAmount());
-            return true;
-        }
-        return false;
+        int updated = updateBalance(WITHDRAW_QUERY, accountId, amount);
+        logger.info("Withdrew " + amount + " from account " + accountId + ", rows updated: " + updated);
+        return updated > 0;
     }
 
     @Override
     public boolean deposit(String accountId, double amount) throws SQLException {
-        Account account = findByAccountId(accountId, entityManager.get());
-        if (account != null) {
-            logger.info("Current Balance: " + account.getAmount());
-            account.setAmount(account.getAmount() + amount);
-            account = entityManager.get().merge(account);
-            entityManager.get().flush();
-            logger.info("New Balance: " + account.getAmount());
-            return true;
-        }
-        return false;
+        int updated = updateBalance(DEPOSIT_QUERY, accountId, amount);
+        logger.info("Deposited " + amount + " to account " + accountId + ", rows updated: " + updated);
+        return updated > 0;
+    }
 
+    /**
+     * Applies the balance change with a single bulk update so that the check and the write happen in one
+     * statement inside the XA branch. The bulk update bypasses the persistence context, so pending changes are
+     * flushed before it runs and managed entities are detached afterwards to avoid serving a stale balance.
+     */
+    private int updateBalance(String jpql, String accountId, double amount) {
+        EntityManager em = entityManager.get();
+        em.flush();
+        int updated = em.createQuery(jpql)
+                .setParameter("accountId", accountId)
+                .setParameter("amount", amount)
+                .executeUpdate();
+        em.clear();
+        return updated;
     }
 
     @Override
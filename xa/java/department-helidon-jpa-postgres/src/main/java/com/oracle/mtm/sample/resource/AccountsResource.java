@@ -36,6 +36,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import jakarta.inject.Inject;
+import jakarta.persistence.NoResultException;
 import jakarta.ws.rs.*;
 import jakarta.ws.rs.core.MediaType;
 import jakarta.ws.rs.core.Response;
@@ -97,6 +98,7 @@ public class AccountsResource {
             @APIResponse(responseCode = "200", description = "Amount withdrawn from the account"),
             @APIResponse(responseCode = "422", description = "Amount must be greater than zero"),
             @APIResponse(responseCode = "422", description = "Insufficient balance in the account"),
+            @APIResponse(responseCode = "404", description = "No account found for the provided account Identity"),
             @APIResponse(responseCode = "500", description = "Internal Server Error")
     })
     @POST
@@ -106,13 +108,15 @@ public class AccountsResource {
             return Response.status(422,"Amount must be greater than zero").build();
         }
         try {
-            if (this.accountService.getBalance(accountId) < amount) {
-                return Response.status(422, "Insufficient balance in the account").build();
-            }
             if(this.accountService.withdraw(accountId, amount)) {
                 logger.info(amount + " withdrawn from account: " + accountId);
                 return Response.status(Response.Status.OK.getStatusCode(),  "Amount withdrawn from the account").build();
             }
+            // The guarded update matched no row, the account is only read to report why
+            if (!accountExists(accountId)) {
+                return Response.status(Response.Status.NOT_FOUND.getStatusCode(), "No account found for the provided account Identity").build();
+            }
+            return Response.status(422, "Insufficient balance in the account").build();
         } catch (SQLException e) {
             e.printStackTrace();
             logger.error(e.getLocalizedMessage());
@@ -122,8 +126,6 @@ public class AccountsResource {
             logger.error(e.getLocalizedMessage());
             return Response.status(Response.Status.INTERNAL_SERVER_ERROR.getStatusCode(), e.getLocalizedMessage()).build();
         }
-        System.out.println("Withdraw failed");
-        return Response.status(Response.Status.INTERNAL_SERVER_ERROR.getStatusCode(), "Withdraw failed").build();
     }
 
 
@@ -155,4 +157,12 @@ public class AccountsResource {
         }
         return Response.status(Response.Status.INTERNAL_SERVER_ERROR.getStatusCode(), "Deposit failed").build();
     }
-}
\ No newline at end of file
+
+    private boolean accountExists(String accountId) throws SQLException {
+        try {
+            return this.accountService.accountDetails(accountId) != null;
+        } catch (NoResultException e) {
+            return false;
+        }
+    }
+}
@@ -34,6 +34,7 @@ import jakarta.enterprise.event.Observes;
 import jakarta.inject.Inject;
 import java.lang.invoke.MethodHandles;
 import java.sql.SQLException;
+import java.util.Optional;
 
 @ApplicationScoped
 public class Configuration {
@@ -53,6 +54,18 @@ public class Configuration {
     @ConfigProperty(name = "departmentDataSource.password")
     String password;
 
+    /**
+     * Optional URL used for account queries, such as an Active Data Guard standby. Reads from a standby may lag
+     * the primary; when not set, queries run against the primary and see the latest committed balances.
+     */
+    @Inject
+    @ConfigProperty(name = "departmentDataSource.readUrl")
+    Optional<String> readUrl;
+
+    @Inject
+    @ConfigProperty(name = "departmentDataSource.readStatementCacheSize", defaultValue = "20")
+    int readStatementCacheSize;
+
 
     private void init(@Observes @Initialized(ApplicationScoped.class) Object event) {
 
@@ -79,16 +92,18 @@ public class Configuration {
     }
 
     /**
-     * Initialize the datasource for non xa operation
+     * Initialize the datasource for non xa operation. Account queries use this pool, with statement caching,
+     * instead of taking connections from the XA pool
      */
     private void initialiseDataSource() {
         try {
             this.dataSource = PoolDataSourceFactory.getPoolDataSource();
-            this.dataSource.setURL(url);
+            this.dataSource.setURL(readUrl.orElse(url));
             this.dataSource.setUser(user);
             this.dataSource.setPassword(password);
             this.dataSource.setConnectionFactoryClassName("oracle.jdbc.pool.OracleDataSource");
             this.dataSource.setMaxPoolSize(15);
+            this.dataSource.setMaxStatements(readStatementCacheSize);
         } catch (SQLException e) {
             logger.error("Failed to initialise database");
         }
@@ -25,6 +25,8 @@ import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
 import java.util.logging.Level;
 
 import jakarta.enterprise.context.RequestScoped;
@@ -33,6 +35,7 @@ import javax.sql.XAConnection;
 
 import com.oracle.mtm.sample.Configuration;
 import com.oracle.mtm.sample.entity.Account;
+import com.oracle.mtm.sample.entity.AccountOperation;
 
 import oracle.tmm.jta.common.TrmSQLConnection;
 import org.slf4j.Logger;
@@ -53,8 +56,12 @@ public class AccountsService implements IAccountsService {
     @TrmSQLConnection
     private Connection connection;
 
+    @Inject
+    private Configuration config;
+
     /**
-     * Get account details persisted in the database
+     * Get account details persisted in the database. The query runs on a pooled non-XA connection, so that
+     * balance lookups do not take connections from the XA pool used by transactions.
      * @param accountId Account identity
      * @return Returns the account details associated with the account
      * @throws SQLException
@@ -63,7 +70,9 @@ public class AccountsService implements IAccountsService {
     public Account accountDetails(String accountId) throws SQLException {
         Account account = null;
         PreparedStatement statement = null;
+        Connection connection = null;
         try {
+            connection = config.getDatasource().getConnection();
             if (connection == null) {
                 return null;
             }
@@ -81,6 +90,9 @@ public class AccountsService implements IAccountsService {
             if(statement!=null){
                 statement.close();
             }
+            if(connection != null){
+                connection.close();
+            }
         }
         return account;
     }
@@ -137,4 +149,53 @@ public class AccountsService implements IAccountsService {
         }
         throw new IllegalArgumentException("Account not found");
     }
-}
\ No newline at end of file
+
+    /**
+     * Withdraw amounts from several accounts in a single batch on the enlisted connection.
+     * An account is only debited if its balance covers the amount.
+     * @param withdrawals The accounts and the amounts to be withdrawn from them
+     * @return If every withdrawal was successful
+     * @throws SQLException
+     */
+    @Override
+    public boolean withdraw(List<AccountOperation> withdrawals) throws SQLException {
+        String query = "UPDATE accounts SET amount=amount-? where account_id=? and amount>=?";
+        try(PreparedStatement statement = connection.prepareStatement(query);) {
+            for (AccountOperation withdrawal : withdrawals) {
+                statement.setDouble(1, withdrawal.getAmount());
+                statement.setString(2, withdrawal.getAccountId());
+                statement.setDouble(3, withdrawal.getAmount());
+                statement.addBatch();
+            }
+            return allRowsUpdated(statement.executeBatch());
+        }
+    }
+
+    /**
+     * Deposit amounts to several accounts in a single batch on the enlisted connection
+     * @param deposits The accounts and the amounts to be deposited into them
+     * @return If every deposit was successful
+     * @throws SQLException
+     */
+    @Override
+    public boolean deposit(List<AccountOperation> deposits) throws SQLException {
+        String query = "UPDATE accounts SET amount=amount+? where account_id=?";
+        try(PreparedStatement statement = connection.prepareStatement(query);) {
+            for (AccountOperation deposit : deposits) {
+                statement.setDouble(1, deposit.getAmount());
+                statement.setString(2, deposit.getAccountId());
+                statement.addBatch();
+            }
+            return allRowsUpdated(statement.executeBatch());
+        }
+    }
+
+    private static boolean allRowsUpdated(int[] updateCounts) {
+        for (int updateCount : updateCounts) {
+            if (updateCount == 0 || updateCount == Statement.EXECUTE_FAILED) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
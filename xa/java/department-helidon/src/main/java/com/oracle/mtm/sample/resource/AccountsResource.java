@@ -25,6 +25,8 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.oracle.mtm.sample.Configuration;
 import com.oracle.mtm.sample.data.IAccountsService;
 import com.oracle.mtm.sample.entity.Account;
+import com.oracle.mtm.sample.entity.AccountOperation;
+import org.eclipse.microprofile.metrics.annotation.Timed;
 import org.eclipse.microprofile.openapi.annotations.OpenAPIDefinition;
 import org.eclipse.microprofile.openapi.annotations.info.Info;
 import org.eclipse.microprofile.openapi.annotations.media.Content;
@@ -40,6 +42,7 @@ import jakarta.ws.rs.core.MediaType;
 import jakarta.ws.rs.core.Response;
 import java.lang.invoke.MethodHandles;
 import java.sql.SQLException;
+import java.util.List;
 
 
 @Path("/accounts")
@@ -98,6 +101,7 @@ public class AccountsResource {
     })
     @POST
     @Path("{accountId}/withdraw")
+    @Timed(name = "accounts.withdraw", absolute = true, description = "Time to withdraw from an account in the branch of the global transaction")
     public Response withdraw(@PathParam("accountId") String accountId, @QueryParam("amount") double amount) {
         if(amount == 0){
             return Response.status(422).entity("Amount must be greater than zero").build();
@@ -134,6 +138,7 @@ public class AccountsResource {
     })
     @POST
     @Path("{accountId}/deposit")
+    @Timed(name = "accounts.deposit", absolute = true, description = "Time to deposit to an account in the branch of the global transaction")
     public Response deposit(@PathParam("accountId") String accountId, @QueryParam("amount") double amount) {
         if(amount == 0){
             return Response.status(422).entity("Amount must be greater than zero").build();
@@ -149,4 +154,71 @@ public class AccountsResource {
         }
         return Response.status(Response.Status.INTERNAL_SERVER_ERROR.getStatusCode()).entity("Deposit failed").build();
     }
+
+    /**
+     * API to withdraw amounts from several accounts in one batch, within the caller's transaction
+     * @param withdrawals - The accounts and the amounts to withdraw from them
+     * @return - API response
+     */
+    @APIResponses(value = {
+            @APIResponse(responseCode = "200", description = "Amounts withdrawn from the accounts"),
+            @APIResponse(responseCode = "422", description = "Amount must be greater than zero"),
+            @APIResponse(responseCode = "422", description = "Insufficient balance or no account found for an account Identity"),
+            @APIResponse(responseCode = "500", description = "Internal Server Error")
+    })
+    @POST
+    @Path("withdraw")
+    @Timed(name = "accounts.batch.withdraw", absolute = true, description = "Time to withdraw from several accounts in the branch of the global transaction")
+    @Consumes(MediaType.APPLICATION_JSON)
+    public Response withdraw(List<AccountOperation> withdrawals) {
+        if (!validAmounts(withdrawals)) {
+            return Response.status(422).entity("Amount must be greater than zero").build();
+        }
+        try {
+            if (this.accountService.withdraw(withdrawals)) {
+                logger.info("{} withdrawals completed", withdrawals.size());
+                return Response.status(Response.Status.OK.getStatusCode()).entity("Amounts withdrawn from the accounts").build();
+            }
+            return Response.status(422).entity("Insufficient balance or no account found for an account Identity").build();
+        } catch (SQLException e) {
+            logger.error(e.getLocalizedMessage());
+            return Response.status(Response.Status.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+    /**
+     * API to deposit amounts into several accounts in one batch, within the caller's transaction
+     * @param deposits - The accounts and the amounts to deposit into them
+     * @return - API response
+     */
+    @APIResponses(value = {
+            @APIResponse(responseCode = "200", description = "Amounts deposited to the accounts"),
+            @APIResponse(responseCode = "422", description = "Amount must be greater than zero"),
+            @APIResponse(responseCode = "422", description = "No account found for an account Identity"),
+            @APIResponse(responseCode = "500", description = "Internal Server Error")
+    })
+    @POST
+    @Path("deposit")
+    @Timed(name = "accounts.batch.deposit", absolute = true, description = "Time to deposit to several accounts in the branch of the global transaction")
+    @Consumes(MediaType.APPLICATION_JSON)
+    public Response deposit(List<AccountOperation> deposits) {
+        if (!validAmounts(deposits)) {
+            return Response.status(422).entity("Amount must be greater than zero").build();
+        }
+        try {
+            if (this.accountService.deposit(deposits)) {
+                logger.info("{} deposits completed", deposits.size());
+                return Response.status(Response.Status.OK.getStatusCode()).entity("Amounts deposited to the accounts").build();
+            }
+            return Response.status(422).entity("No account found for an account Identity").build();
+        } catch (SQLException e) {
+            logger.error(e.getLocalizedMessage());
+            return Response.status(Response.Status.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+    private static boolean validAmounts(List<AccountOperation> operations) {
+        return operations != null && !operations.isEmpty()
+                && operations.stream().allMatch(operation -> operation.getAmount() > 0);
+    }
 }
@@ -23,13 +23,19 @@ CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFT
 create database department_nonxa_ds;
 use department_nonxa_ds;
 
---LLR commit records table. LLR with datasource participant needs this table to be created for storing the commit records
+--LLR commit records table. LLR with datasource participant needs this table to be created for storing the commit records.
+--The table is range partitioned by commit time: the application adds the partitions ahead of time out of pmax and drops
+--the expired ones, so the records are never deleted row by row. Every unique key must include DATE_COMMITED.
 CREATE TABLE LLR_COMMIT_RECORD (
     GTRID varchar(255) NOT NULL,
-    DATE_COMMITED TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
-    RECORDSTR text,
-    PRIMARY KEY (GTRID)
-) ENGINE=InnoDB DEFAULT CHARSET=utf8;
+    DATE_COMMITED TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    RECORD blob NOT NULL,
+    PRIMARY KEY (GTRID, DATE_COMMITED),
+    KEY LLR_COMMIT_RECORD_DATE_IDX (DATE_COMMITED)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8
+PARTITION BY RANGE (UNIX_TIMESTAMP(DATE_COMMITED)) (
+    PARTITION pmax VALUES LESS THAN MAXVALUE
+);
 
 --Accounts table used in the sample application to demonstrate account transfer
 create table accounts
@@ -0,0 +1,169 @@
+/*
+Copyright (c) 2023, Oracle and/or its affiliates. **
+
+The Universal Permissive License (UPL), Version 1.0 **
+
+Subject to the condition set forth below, permission is hereby granted to any person obtaining a copy of this software, associated documentation and/or data
+(collectively the "Software"), free of charge and under any and all copyright rights in the Software, and any and all patent rights owned or freely licensable by each
+licensor hereunder covering either the unmodified Software as contributed to or provided by such licensor, or (ii) the Larger Works (as defined below), to deal in both **
+(a) the Software, and (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if one is included with the Software (each a "Larger Work" to which the
+Software is contributed by such licensors), **
+without restriction, including without limitation the rights to copy, create derivative works of, display, perform, and distribute the Software and make, use, sell,
+offer for sale, import, export, have made, and have sold the Software and the Larger Work(s), and to sublicense the foregoing rights on either these or other terms. **
+
+This license is subject to the following condition: The above copyright notice and either this complete permission notice or at a minimum a reference to the UPL must be
+included in all copies or substantial portions of the Software. **
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A
+PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF
+CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+package com.oracle.mtm.sample;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.eclipse.microprofile.metrics.Counter;
+import org.eclipse.microprofile.metrics.Gauge;
+import org.eclipse.microprofile.metrics.MetricRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.transaction.xa.Xid;
+import java.lang.invoke.MethodHandles;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Base64;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Binds a pooled connection with a local transaction to each transaction branch (Xid) from begin until its
+ * commit or rollback, which usually arrive on other requests and threads. Closing the connection returns it to the
+ * pool of the datasource, which bounds the number of open connections. Branches that are not ended within
+ * {@code branchConnections.transactionTimeoutSeconds} are rolled back.
+ */
+@ApplicationScoped
+public class BranchConnections {
+
+    final static Logger logger = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+
+    @Inject
+    Configuration config;
+
+    @Inject
+    MetricRegistry metricRegistry;
+
+    @Inject
+    @ConfigProperty(name = "branchConnections.transactionTimeoutSeconds", defaultValue = "60")
+    long transactionTimeoutSeconds;
+
+    private final Map<String, BoundConnection> activeConnections = new ConcurrentHashMap<>();
+    private ScheduledExecutorService reaper;
+    private Counter timedOut;
+
+    @PostConstruct
+    void init() {
+        timedOut = metricRegistry.counter("branchConnections.timedOut");
+        metricRegistry.register("branchConnections.active", (Gauge<Integer>) activeConnections::size);
+        reaper = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "branch-connection-reaper");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long period = Math.max(1, transactionTimeoutSeconds / 4);
+        reaper.scheduleWithFixedDelay(this::rollbackTimedOut, period, period, TimeUnit.SECONDS);
+    }
+
+    @PreDestroy
+    void stop() {
+        if (reaper != null) {
+            reaper.shutdownNow();
+        }
+    }
+
+    /**
+     * Returns the connection bound to the transaction branch, binding a pooled connection with auto commit
+     * disabled when the branch has none yet.
+     */
+    public Connection acquire(Xid xid) throws SQLException {
+        String key = key(xid);
+        BoundConnection bound = activeConnections.get(key);
+        if (bound != null) {
+            return bound.connection;
+        }
+        Connection connection = config.getDatasource().getConnection();
+        connection.setAutoCommit(false);
+        bound = activeConnections.putIfAbsent(key, new BoundConnection(connection));
+        if (bound != null) {
+            // Another request of the same branch bound a connection first
+            connection.close();
+            return bound.connection;
+        }
+        return connection;
+    }
+
+    /**
+     * @return the connection bound to the transaction branch, or null when it has none
+     */
+    public Connection get(Xid xid) {
+        BoundConnection bound = activeConnections.get(key(xid));
+        return bound != null ? bound.connection : null;
+    }
+
+    /**
+     * Unbinds the connection of the transaction branch and returns it to the pool. The local transaction must
+     * have been committed or rolled back.
+     */
+    public void release(Xid xid) {
+        BoundConnection bound = activeConnections.remove(key(xid));
+        if (bound != null) {
+            close(bound.connection, false);
+        }
+    }
+
+    private void rollbackTimedOut() {
+        long deadline = System.currentTimeMillis() - TimeUnit.SECONDS.toMillis(transactionTimeoutSeconds);
+        activeConnections.forEach((key, bound) -> {
+            if (bound.boundAt < deadline && activeConnections.remove(key, bound)) {
+                logger.warn("Rolling back the local transaction of a branch not ended within {} seconds", transactionTimeoutSeconds);
+                timedOut.inc();
+                close(bound.connection, true);
+            }
+        });
+    }
+
+    private void close(Connection connection, boolean rollback) {
+        try {
+            if (rollback) {
+                connection.rollback();
+            }
+        } catch (SQLException e) {
+            logger.warn("Failed to roll back the local transaction of a branch", e);
+        } finally {
+            try {
+                connection.close();
+            } catch (SQLException e) {
+                logger.warn("Failed to close the connection of a branch", e);
+            }
+        }
+    }
+
+    private static String key(Xid xid) {
+        Base64.Encoder encoder = Base64.getEncoder();
+        return encoder.encodeToString(xid.getGlobalTransactionId()) + ":" + encoder.encodeToString(xid.getBranchQualifier());
+    }
+
+    private static final class BoundConnection {
+        final Connection connection;
+        final long boundAt = System.currentTimeMillis();
+
+        BoundConnection(Connection connection) {
+            this.connection = connection;
+        }
+    }
+}
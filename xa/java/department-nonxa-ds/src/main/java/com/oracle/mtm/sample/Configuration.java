@@ -20,7 +20,7 @@ CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFT
 */
 package com.oracle.mtm.sample;
 
-import oracle.tmm.common.TrmConfig;
+import com.oracle.mtm.sample.nonxa.CommitRecordTable;
 import oracle.tmm.jta.common.DataSourceInfo;
 import oracle.ucp.jdbc.PoolDataSource;
 import oracle.ucp.jdbc.PoolDataSourceFactory;
@@ -51,14 +51,17 @@ public class Configuration {
     @ConfigProperty(name = "departmentDataSource.password")
     String password;
 
+    @Inject
+    CommitRecordTable commitRecordTable;
 
     private void init(@Observes @Initialized(ApplicationScoped.class) Object event) {
         initialiseDataSource();
+        commitRecordTable.start();
     }
 
     /**
-     * Initialises the datasource to the Trm library that manages the lifecycle of the XA transaction
-     *
+     * Initialises the datasource of the LLR branches. The commit records are kept by
+     * {@link com.oracle.mtm.sample.nonxa.JdbcNonXAResource} in the same database.
      */
     private void initialiseDataSource() {
         try {
@@ -68,8 +71,8 @@ public class Configuration {
             this.dataSource.setPassword(password);
             this.dataSource.setConnectionFactoryClassName("com.mysql.cj.jdbc.MysqlDataSource");
             this.dataSource.setMaxPoolSize(15);
-
-            TrmConfig.initNonXaDataSource(this.dataSource);
+            // Caches the commit record insert, which every branch prepares on its connection
+            this.dataSource.setMaxStatements(20);
 
         } catch (SQLException e) {
             logger.error("Failed to initialise database");
@@ -31,10 +31,9 @@ import jakarta.enterprise.context.RequestScoped;
 import jakarta.inject.Inject;
 import jakarta.inject.Provider;
 
-import com.oracle.mtm.sample.Configuration;
+import com.oracle.mtm.sample.NonXaConnection;
 import com.oracle.mtm.sample.entity.Account;
 
-import oracle.tmm.jta.nonxa.TrmNonXASQLConnection;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -45,7 +44,7 @@ import org.slf4j.LoggerFactory;
 public class AccountsService implements IAccountsService {
 
     @Inject
-    @TrmNonXASQLConnection
+    @NonXaConnection
     private Provider<Connection> connection;
 
 
@@ -0,0 +1,212 @@
+/*
+Copyright (c) 2023, Oracle and/or its affiliates. **
+
+The Universal Permissive License (UPL), Version 1.0 **
+
+Subject to the condition set forth below, permission is hereby granted to any person obtaining a copy of this software, associated documentation and/or data
+(collectively the "Software"), free of charge and under any and all copyright rights in the Software, and any and all patent rights owned or freely licensable by each
+licensor hereunder covering either the unmodified Software as contributed to or provided by such licensor, or (ii) the Larger Works (as defined below), to deal in both **
+(a) the Software, and (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if one is included with the Software (each a "Larger Work" to which the
+Software is contributed by such licensors), **
+without restriction, including without limitation the rights to copy, create derivative works of, display, perform, and distribute the Software and make, use, sell,
+offer for sale, import, export, have made, and have sold the Software and the Larger Work(s), and to sublicense the foregoing rights on either these or other terms. **
+
+This license is subject to the following condition: The above copyright notice and either this complete permission notice or at a minimum a reference to the UPL must be
+included in all copies or substantial portions of the Software. **
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A
+PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF
+CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+package com.oracle.mtm.sample.nonxa;
+
+import com.oracle.mtm.sample.Configuration;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import oracle.tmm.common.TrmConfig;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.eclipse.microprofile.metrics.Counter;
+import org.eclipse.microprofile.metrics.MetricRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.invoke.MethodHandles;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.StringJoiner;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * LLR commit records stored in the LLR_COMMIT_RECORD table, which is range partitioned by commit time (see
+ * department-nonxa-ds.sql). Each record is inserted on the connection of its branch, in the same local transaction
+ * as the branch's updates. Expired records are never deleted row by row: a single maintenance thread keeps
+ * {@code partitionsAhead} partitions of {@code partitionMinutes} ready ahead of the current time and drops the
+ * partitions whose whole range is older than the commit record expiry. Recovery reads the live records through the
+ * DATE_COMMITED index, which also prunes the scan to the live partitions.
+ */
+@ApplicationScoped
+public class CommitRecordTable {
+
+    final static Logger logger = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+
+    static final String TABLE_NAME = "LLR_COMMIT_RECORD";
+    static final String MAX_PARTITION = "pmax";
+    static final int SCAN_BATCH_SIZE = 1000;
+
+    private static final String INSERT = "INSERT INTO " + TABLE_NAME + " (GTRID, RECORD) VALUES (?, ?)";
+    private static final String SELECT_LIVE = "SELECT RECORD FROM " + TABLE_NAME + " WHERE DATE_COMMITED > ?";
+    private static final String SELECT_PARTITIONS = "SELECT PARTITION_NAME, PARTITION_DESCRIPTION FROM information_schema.PARTITIONS"
+            + " WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = ? AND PARTITION_NAME IS NOT NULL ORDER BY PARTITION_ORDINAL_POSITION";
+    private static final DateTimeFormatter PARTITION_NAME = DateTimeFormatter.ofPattern("'p'yyyyMMddHHmm").withZone(ZoneOffset.UTC);
+
+    @Inject
+    Configuration config;
+
+    @Inject
+    MetricRegistry metricRegistry;
+
+    @Inject
+    @ConfigProperty(name = "commitRecords.partitionMinutes", defaultValue = "60")
+    long partitionMinutes;
+
+    @Inject
+    @ConfigProperty(name = "commitRecords.partitionsAhead", defaultValue = "3")
+    int partitionsAhead;
+
+    private ScheduledExecutorService maintainer;
+    private Counter created;
+    private Counter dropped;
+
+    /**
+     * Starts the partition maintenance thread. Called once the datasource is initialised.
+     */
+    public void start() {
+        created = metricRegistry.counter("commitRecords.partitions.created");
+        dropped = metricRegistry.counter("commitRecords.partitions.dropped");
+        maintainer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "commit-record-partitions");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long period = Math.max(1, TimeUnit.MINUTES.toSeconds(partitionMinutes) / 2);
+        maintainer.scheduleWithFixedDelay(this::maintainPartitions, 0, period, TimeUnit.SECONDS);
+    }
+
+    @PreDestroy
+    void stop() {
+        if (maintainer != null) {
+            maintainer.shutdownNow();
+        }
+    }
+
+    /**
+     * Inserts the commit record of the branch within the local transaction of its connection
+     */
+    public void insert(Connection connection, String gtrid, byte[] commitRecord) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(INSERT)) {
+            statement.setString(1, gtrid);
+            statement.setBytes(2, commitRecord);
+            statement.executeUpdate();
+        }
+    }
+
+    /**
+     * Reads the commit records committed within the commit record expiry
+     */
+    public List<byte[]> loadNonExpired() throws SQLException {
+        List<byte[]> commitRecords = new ArrayList<>();
+        try (Connection connection = config.getDatasource().getConnection();
+             PreparedStatement statement = connection.prepareStatement(SELECT_LIVE)) {
+            statement.setTimestamp(1, new Timestamp(System.currentTimeMillis() - TrmConfig.LLR_DELETE_COMMIT_RECORD_TIME_INTERVAL));
+            statement.setFetchSize(SCAN_BATCH_SIZE);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                while (resultSet.next()) {
+                    commitRecords.add(resultSet.getBytes(1));
+                }
+            }
+        }
+        return commitRecords;
+    }
+
+    private void maintainPartitions() {
+        try (Connection connection = config.getDatasource().getConnection()) {
+            List<String> names = new ArrayList<>();
+            List<Long> upperBounds = new ArrayList<>();
+            boolean partitioned = false;
+            try (PreparedStatement statement = connection.prepareStatement(SELECT_PARTITIONS)) {
+                statement.setString(1, TABLE_NAME);
+                try (ResultSet resultSet = statement.executeQuery()) {
+                    while (resultSet.next()) {
+                        partitioned = true;
+                        if (!MAX_PARTITION.equals(resultSet.getString(1))) {
+                            names.add(resultSet.getString(1));
+                            upperBounds.add(Long.parseLong(resultSet.getString(2)));
+                        }
+                    }
+                }
+            }
+            if (!partitioned) {
+                logger.warn("{} is not partitioned, expired commit records are not purged", TABLE_NAME);
+                return;
+            }
+            addPartitions(connection, upperBounds.isEmpty() ? -1 : upperBounds.get(upperBounds.size() - 1));
+            dropExpiredPartitions(connection, names, upperBounds);
+        } catch (Exception e) {
+            logger.error("Failed to maintain the partitions of {}", TABLE_NAME, e);
+        }
+    }
+
+    /**
+     * Splits the partitions up to partitionsAhead ranges after the current one out of the empty MAXVALUE partition
+     */
+    private void addPartitions(Connection connection, long highestBound) throws SQLException {
+        long width = TimeUnit.MINUTES.toSeconds(partitionMinutes);
+        long now = TimeUnit.MILLISECONDS.toSeconds(System.currentTimeMillis());
+        long targetBound = (now / width + 1 + partitionsAhead) * width;
+        long bound = highestBound < 0 ? (now / width + 1) * width : highestBound + width;
+        if (bound > targetBound) {
+            return;
+        }
+        StringJoiner partitions = new StringJoiner(", ", "ALTER TABLE " + TABLE_NAME + " REORGANIZE PARTITION " + MAX_PARTITION + " INTO (",
+                ", PARTITION " + MAX_PARTITION + " VALUES LESS THAN MAXVALUE)");
+        int count = 0;
+        for (; bound <= targetBound; bound += width, count++) {
+            partitions.add("PARTITION " + PARTITION_NAME.format(Instant.ofEpochSecond(bound - width)) + " VALUES LESS THAN (" + bound + ")");
+        }
+        try (Statement statement = connection.createStatement()) {
+            statement.execute(partitions.toString());
+        }
+        created.inc(count);
+    }
+
+    /**
+     * Drops the partitions whose range ends before the commit record expiry, in a single statement
+     */
+    private void dropExpiredPartitions(Connection connection, List<String> names, List<Long> upperBounds) throws SQLException {
+        long expiredBefore = TimeUnit.MILLISECONDS.toSeconds(System.currentTimeMillis() - TrmConfig.LLR_DELETE_COMMIT_RECORD_TIME_INTERVAL);
+        StringJoiner expired = new StringJoiner(", ", "ALTER TABLE " + TABLE_NAME + " DROP PARTITION ", "");
+        int count = 0;
+        // The partitions are ordered by range, so the expired ones are a prefix; the MAXVALUE partition is never dropped
+        for (int i = 0; i < names.size() && upperBounds.get(i) <= expiredBefore; i++, count++) {
+            expired.add(names.get(i));
+        }
+        if (count == 0) {
+            return;
+        }
+        try (Statement statement = connection.createStatement()) {
+            statement.execute(expired.toString());
+        }
+        dropped.inc(count);
+    }
+}
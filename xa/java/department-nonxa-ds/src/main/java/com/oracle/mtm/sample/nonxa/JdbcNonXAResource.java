@@ -0,0 +1,121 @@
+/*
+Copyright (c) 2023, Oracle and/or its affiliates. **
+
+The Universal Permissive License (UPL), Version 1.0 **
+
+Subject to the condition set forth below, permission is hereby granted to any person obtaining a copy of this software, associated documentation and/or data
+(collectively the "Software"), free of charge and under any and all copyright rights in the Software, and any and all patent rights owned or freely licensable by each
+licensor hereunder covering either the unmodified Software as contributed to or provided by such licensor, or (ii) the Larger Works (as defined below), to deal in both **
+(a) the Software, and (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if one is included with the Software (each a "Larger Work" to which the
+Software is contributed by such licensors), **
+without restriction, including without limitation the rights to copy, create derivative works of, display, perform, and distribute the Software and make, use, sell,
+offer for sale, import, export, have made, and have sold the Software and the Larger Work(s), and to sublicense the foregoing rights on either these or other terms. **
+
+This license is subject to the following condition: The above copyright notice and either this complete permission notice or at a minimum a reference to the UPL must be
+included in all copies or substantial portions of the Software. **
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A
+PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF
+CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+package com.oracle.mtm.sample.nonxa;
+
+import com.oracle.mtm.sample.BranchConnections;
+import com.oracle.mtm.sample.CurrentTransaction;
+import oracle.tmm.jta.nonxa.NonXAException;
+import oracle.tmm.jta.nonxa.NonXAResource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import jakarta.inject.Inject;
+import javax.transaction.xa.Xid;
+import java.lang.invoke.MethodHandles;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+
+/**
+ * LLR branch on the MySQL datasource. The commit record of the branch is written to the partitioned commit record
+ * table in the branch's own local transaction, so the record and the branch's updates commit atomically.
+ */
+public class JdbcNonXAResource implements NonXAResource {
+
+    final static Logger logger = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+
+    @Inject
+    BranchConnections branchConnections;
+
+    @Inject
+    CurrentTransaction currentTransaction;
+
+    @Inject
+    CommitRecordTable commitRecordTable;
+
+    public JdbcNonXAResource() {
+    }
+
+    @Override
+    public void begin(Xid xid) throws NonXAException {
+        try {
+            branchConnections.acquire(xid);
+        } catch (SQLException e) {
+            throw new NonXAException(e.getMessage());
+        }
+        currentTransaction.setXid(xid);
+    }
+
+    @Override
+    public void commit(Xid xid, byte[] bytes) throws NonXAException {
+        Connection connection = getConnection(xid);
+        try {
+            commitRecordTable.insert(connection, new String(xid.getGlobalTransactionId()), bytes);
+            connection.commit();
+        } catch (SQLException e) {
+            rollbackQuietly(connection);
+            throw new NonXAException(e.getMessage());
+        } finally {
+            branchConnections.release(xid);
+        }
+    }
+
+    @Override
+    public void rollback(Xid xid) throws NonXAException {
+        Connection connection = getConnection(xid);
+        try {
+            connection.rollback();
+        } catch (SQLException e) {
+            throw new NonXAException(e.getMessage());
+        } finally {
+            branchConnections.release(xid);
+        }
+    }
+
+    @Override
+    public List<byte[]> recover() throws NonXAException {
+        try {
+            return commitRecordTable.loadNonExpired();
+        } catch (SQLException e) {
+            throw new NonXAException(e.getMessage());
+        }
+    }
+
+    @Override
+    public boolean isSameRM(NonXAResource nonXAResource) throws NonXAException {
+        return false;
+    }
+
+    private Connection getConnection(Xid xid) throws NonXAException {
+        Connection connection = branchConnections.get(xid);
+        if (connection == null) {
+            throw new NonXAException("No local transaction is active for the branch, it may have timed out");
+        }
+        return connection;
+    }
+
+    private void rollbackQuietly(Connection connection) {
+        try {
+            connection.rollback();
+        } catch (SQLException e) {
+            logger.warn("Failed to roll back the branch after a failed commit", e);
+        }
+    }
+}
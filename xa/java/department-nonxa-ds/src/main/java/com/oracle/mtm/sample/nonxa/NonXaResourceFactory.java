@@ -18,29 +18,30 @@ THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLI
 PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF
 CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
 */
- 
 package com.oracle.mtm.sample.nonxa;
 
-import com.mongodb.client.MongoCollection;
-import com.oracle.mtm.sample.entity.CommitRecord;
-import org.bson.Document;
+import oracle.tmm.jta.nonxa.NonXAResource;
+import oracle.tmm.jta.nonxa.NonXa;
 
-import java.util.LinkedList;
+import jakarta.enterprise.inject.Produces;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.ext.Provider;
+import java.util.function.Supplier;
 
-public class AsyncLLRCommitRecordDeletion implements Runnable{
-    private MongoCollection<CommitRecord> collection;
-    private LinkedList<String> gtridList;
+@Provider
+public class NonXaResourceFactory implements Supplier<NonXAResource> {
 
-    private static final Object countLock = new Object();
-    AsyncLLRCommitRecordDeletion(MongoCollection<CommitRecord> collection, LinkedList<String> gtridList){
-        this.collection = collection;
-        this.gtridList = gtridList;
+    @Inject
+    JdbcNonXAResource nonXAResource;
+
+    @Produces
+    @NonXa
+    public NonXAResource getNonXAResource() {
+        return nonXAResource;
     }
-    public void run(){
-            synchronized (countLock) {// taking a lock on countLock object. This is being done to avoid deadlock
-                Document filter = new Document("gtrid", new Document("$in", gtridList));
-                collection.deleteMany(filter);
-            }
 
+  @Override
+    public NonXAResource get() {
+        return getNonXAResource();
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,239 @@
+/*
+Copyright (c) 2023, Oracle and/or its affiliates. **
+
+The Universal Permissive License (UPL), Version 1.0 **
+
+Subject to the condition set forth below, permission is hereby granted to any person obtaining a copy of this software, associated documentation and/or data
+(collectively the "Software"), free of charge and under any and all copyright rights in the Software, and any and all patent rights owned or freely licensable by each
+licensor hereunder covering either the unmodified Software as contributed to or provided by such licensor, or (ii) the Larger Works (as defined below), to deal in both **
+(a) the Software, and (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if one is included with the Software (each a "Larger Work" to which the
+Software is contributed by such licensors), **
+without restriction, including without limitation the rights to copy, create derivative works of, display, perform, and distribute the Software and make, use, sell,
+offer for sale, import, export, have made, and have sold the Software and the Larger Work(s), and to sublicense the foregoing rights on either these or other terms. **
+
+This license is subject to the following condition: The above copyright notice and either this complete permission notice or at a minimum a reference to the UPL must be
+included in all copies or substantial portions of the Software. **
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A
+PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF
+CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+package com.oracle.mtm.sample;
+
+import com.mongodb.TransactionOptions;
+import com.mongodb.client.ClientSession;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.eclipse.microprofile.metrics.Counter;
+import org.eclipse.microprofile.metrics.Gauge;
+import org.eclipse.microprofile.metrics.MetricRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.transaction.xa.Xid;
+import java.lang.invoke.MethodHandles;
+import java.util.Base64;
+import java.util.Deque;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bounded pool of Mongo client sessions. A session is bound to a transaction branch (Xid) from begin until its
+ * commit or rollback, which usually arrive on other requests and threads, and then goes back to the pool with its
+ * transaction ended so that the next branch reuses it. At most {@code maxSize} sessions are open; a begin waits
+ * up to {@code acquireTimeoutMillis} for one to be released. Sessions whose transaction is not ended within
+ * {@code transactionTimeoutSeconds} are aborted and closed.
+ */
+@ApplicationScoped
+public class ClientSessionPool {
+
+    final static Logger logger = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+
+    @Inject
+    Configuration config;
+
+    @Inject
+    MetricRegistry metricRegistry;
+
+    @Inject
+    @ConfigProperty(name = "clientSessionPool.maxSize", defaultValue = "64")
+    int maxSize;
+
+    @Inject
+    @ConfigProperty(name = "clientSessionPool.acquireTimeoutMillis", defaultValue = "5000")
+    long acquireTimeoutMillis;
+
+    @Inject
+    @ConfigProperty(name = "clientSessionPool.transactionTimeoutSeconds", defaultValue = "60")
+    long transactionTimeoutSeconds;
+
+    private final Map<String, BoundSession> activeSessions = new ConcurrentHashMap<>();
+    private final Deque<ClientSession> idleSessions = new ConcurrentLinkedDeque<>();
+    private Semaphore permits;
+    private ScheduledExecutorService reaper;
+    private Counter created;
+    private Counter reused;
+    private Counter timedOut;
+
+    @PostConstruct
+    void init() {
+        permits = new Semaphore(maxSize);
+        created = metricRegistry.counter("clientSessionPool.created");
+        reused = metricRegistry.counter("clientSessionPool.reused");
+        timedOut = metricRegistry.counter("clientSessionPool.timedOut");
+        metricRegistry.register("clientSessionPool.active", (Gauge<Integer>) activeSessions::size);
+        metricRegistry.register("clientSessionPool.idle", (Gauge<Integer>) idleSessions::size);
+        reaper = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "client-session-reaper");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long period = Math.max(1, transactionTimeoutSeconds / 4);
+        reaper.scheduleWithFixedDelay(this::abortTimedOut, period, period, TimeUnit.SECONDS);
+    }
+
+    @PreDestroy
+    void stop() {
+        if (reaper != null) {
+            reaper.shutdownNow();
+        }
+        ClientSession session;
+        while ((session = idleSessions.pollFirst()) != null) {
+            session.close();
+        }
+    }
+
+    /**
+     * Returns the session bound to the transaction branch, binding a pooled or new session with a started
+     * transaction when the branch has none yet.
+     *
+     * @throws IllegalStateException when no session is released within acquireTimeoutMillis
+     */
+    public ClientSession acquire(Xid xid, TransactionOptions options) {
+        String key = key(xid);
+        BoundSession bound = activeSessions.get(key);
+        if (bound != null) {
+            return bound.session;
+        }
+        try {
+            if (!permits.tryAcquire(acquireTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                throw new IllegalStateException("No Mongo client session available within " + acquireTimeoutMillis + " ms");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for a Mongo client session");
+        }
+        ClientSession session = idleSessions.pollFirst();
+        try {
+            if (session != null) {
+                reused.inc();
+            } else {
+                session = config.getClient().startSession();
+                created.inc();
+            }
+            session.startTransaction(options);
+        } catch (RuntimeException e) {
+            if (session != null) {
+                session.close();
+            }
+            permits.release();
+            throw e;
+        }
+        bound = activeSessions.putIfAbsent(key, new BoundSession(session));
+        if (bound != null) {
+            // Another request of the same branch bound a session first
+            session.abortTransaction();
+            returnToPool(session);
+            return bound.session;
+        }
+        return session;
+    }
+
+    /**
+     * @return the session bound to the transaction branch, or null when it has none
+     */
+    public ClientSession get(Xid xid) {
+        BoundSession bound = activeSessions.get(key(xid));
+        return bound != null ? bound.session : null;
+    }
+
+    /**
+     * Unbinds the session of the transaction branch and returns it to the pool, aborting its transaction if it
+     * is still active.
+     */
+    public void release(Xid xid) {
+        BoundSession bound = activeSessions.remove(key(xid));
+        if (bound == null) {
+            return;
+        }
+        try {
+            if (bound.session.hasActiveTransaction()) {
+                bound.session.abortTransaction();
+            }
+        } catch (RuntimeException e) {
+            logger.warn("Failed to abort the transaction of a released client session", e);
+            closeSession(bound.session);
+            return;
+        }
+        returnToPool(bound.session);
+    }
+
+    /**
+     * Unbinds and closes the session of the transaction branch, used after a failure that may have left the
+     * session unusable.
+     */
+    public void discard(Xid xid) {
+        BoundSession bound = activeSessions.remove(key(xid));
+        if (bound != null) {
+            closeSession(bound.session);
+        }
+    }
+
+    private void abortTimedOut() {
+        long deadline = System.currentTimeMillis() - TimeUnit.SECONDS.toMillis(transactionTimeoutSeconds);
+        activeSessions.forEach((key, bound) -> {
+            if (bound.boundAt < deadline && activeSessions.remove(key, bound)) {
+                logger.warn("Aborting the Mongo transaction of a branch not ended within {} seconds", transactionTimeoutSeconds);
+                timedOut.inc();
+                // The session may still be in use by a request, so it is closed rather than reused
+                closeSession(bound.session);
+            }
+        });
+    }
+
+    private void returnToPool(ClientSession session) {
+        idleSessions.offerFirst(session);
+        permits.release();
+    }
+
+    private void closeSession(ClientSession session) {
+        try {
+            session.close();
+        } catch (RuntimeException e) {
+            logger.warn("Failed to close a client session", e);
+        } finally {
+            permits.release();
+        }
+    }
+
+    private static String key(Xid xid) {
+        Base64.Encoder encoder = Base64.getEncoder();
+        return encoder.encodeToString(xid.getGlobalTransactionId()) + ":" + encoder.encodeToString(xid.getBranchQualifier());
+    }
+
+    private static final class BoundSession {
+        final ClientSession session;
+        final long boundAt = System.currentTimeMillis();
+
+        BoundSession(ClientSession session) {
+            this.session = session;
+        }
+    }
+}
@@ -32,18 +32,26 @@ import com.mongodb.ConnectionString;
 import com.mongodb.MongoClientSettings;
 import com.mongodb.client.MongoClient;
 import com.mongodb.client.MongoClients;
+import com.mongodb.client.MongoCollection;
 import com.mongodb.client.MongoDatabase;
 
 import com.mongodb.connection.ConnectionPoolSettings;
+import com.oracle.mtm.sample.entity.Account;
+import org.bson.codecs.configuration.CodecRegistry;
+import org.bson.codecs.pojo.PojoCodecProvider;
 import org.eclipse.microprofile.config.inject.ConfigProperty;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import static org.bson.codecs.configuration.CodecRegistries.fromProviders;
+import static org.bson.codecs.configuration.CodecRegistries.fromRegistries;
+
 @ApplicationScoped
 public class Configuration {
 
     private MongoClient client;
+    private MongoCollection<Account> accountsCollection;
     final static Logger logger = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
 
     @Inject
@@ -99,11 +107,22 @@ public class Configuration {
                     .applyToServerSettings(builder -> builder.heartbeatFrequency(heartbeatFrequency, TimeUnit.SECONDS))
                     .build();
             this.client = MongoClients.create(mongoClientSettings);
+            initialiseCollections();
         } catch (Exception e) {
             logger.error("Failed to initialise database");
         }
     }
 
+    /**
+     * Builds the POJO codecs and the collections once, they are thread safe and shared by all requests
+     */
+    private void initialiseCollections() {
+        CodecRegistry pojoCodecRegistry = fromRegistries(MongoClientSettings.getDefaultCodecRegistry(),
+                fromProviders(PojoCodecProvider.builder().register(Account.class).build()));
+        MongoDatabase database = getDatabase().withCodecRegistry(pojoCodecRegistry);
+        accountsCollection = database.getCollection("accounts", Account.class);
+    }
+
     public MongoDatabase getDatabase() {
         return client.getDatabase(databaseName);
     }
@@ -111,4 +130,8 @@ public class Configuration {
     public MongoClient getClient() {
         return client;
     }
+
+    public MongoCollection<Account> getAccountsCollection() {
+        return accountsCollection;
+    }
 }
\ No newline at end of file
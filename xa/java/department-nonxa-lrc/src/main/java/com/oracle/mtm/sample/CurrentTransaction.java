@@ -17,26 +17,25 @@ included in all copies or substantial portions of the Software. **
 THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A
 PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF
 CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
-*/
 package com.oracle.mtm.sample;
 
-import com.mongodb.client.ClientSession;
+import jakarta.enterprise.context.RequestScoped;
+import javax.transaction.xa.Xid;
 
-public class ThreadLocalClientSession {
-    private static ThreadLocal<ClientSession> sessionThreadLocal = new ThreadLocal();
+/**
+ * Holds the transaction branch that the current request participates in, set when the branch begins, so that
+ * the client session of the branch can be looked up in the {@link ClientSessionPool}.
+ */
+@RequestScoped
+public class CurrentTransaction {
 
-    public ThreadLocalClientSession() {
-    }
-
-    public static void set(ClientSession obj) {
-        sessionThreadLocal.set(obj);
-    }
+    private Xid xid;
 
-    public static ClientSession get() {
-        return sessionThreadLocal.get();
+    public Xid getXid() {
+        return xid;
     }
 
-    public static void remove() {
-        sessionThreadLocal.remove();
+    public void setXid(Xid xid) {
+        this.xid = xid;
     }
 }
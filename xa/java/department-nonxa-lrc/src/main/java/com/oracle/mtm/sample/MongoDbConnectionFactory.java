@@ -29,7 +29,10 @@ import java.util.function.Supplier;
 @Provider
 public class MongoDbConnectionFactory implements Supplier<ClientSession> {
     @Inject
-    Configuration config;
+    ClientSessionPool clientSessionPool;
+
+    @Inject
+    CurrentTransaction currentTransaction;
 
     @Produces
     @MongoDbClientSession
@@ -42,22 +45,14 @@ public class MongoDbConnectionFactory implements Supplier<ClientSession> {
         return getSession();
     }
 
+    /**
+     * @return the client session of the transaction branch of the current request
+     */
     private ClientSession getSession() {
-        try {
-            ClientSession session = ThreadLocalClientSession.get();
-            if (session != null && !session.hasActiveTransaction()) {
-                session.close();
-                session = null;
-                ThreadLocalClientSession.remove();
-            }
-            if (session == null) {
-                session = config.getClient().startSession();
-                session.startTransaction();
-                ThreadLocalClientSession.set(session);
-            }
-            return session;
-        } catch (Exception e) {
-            return null;
+        ClientSession session = currentTransaction.getXid() != null ? clientSessionPool.get(currentTransaction.getXid()) : null;
+        if (session == null) {
+            throw new IllegalStateException("The request is not part of an active transaction");
         }
+        return session;
     }
 }
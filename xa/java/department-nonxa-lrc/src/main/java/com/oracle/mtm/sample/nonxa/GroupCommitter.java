@@ -0,0 +1,292 @@
+/*
+Copyright (c) 2023, Oracle and/or its affiliates. **
+
+The Universal Permissive License (UPL), Version 1.0 **
+
+Subject to the condition set forth below, permission is hereby granted to any person obtaining a copy of this software, associated documentation and/or data
+(collectively the "Software"), free of charge and under any and all copyright rights in the Software, and any and all patent rights owned or freely licensable by each
+licensor hereunder covering either the unmodified Software as contributed to or provided by such licensor, or (ii) the Larger Works (as defined below), to deal in both **
+(a) the Software, and (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if one is included with the Software (each a "Larger Work" to which the
+Software is contributed by such licensors), **
+without restriction, including without limitation the rights to copy, create derivative works of, display, perform, and distribute the Software and make, use, sell,
+offer for sale, import, export, have made, and have sold the Software and the Larger Work(s), and to sublicense the foregoing rights on either these or other terms. **
+
+This license is subject to the following condition: The above copyright notice and either this complete permission notice or at a minimum a reference to the UPL must be
+included in all copies or substantial portions of the Software. **
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A
+PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF
+CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+*/
+package com.oracle.mtm.sample.nonxa;
+
+import com.mongodb.ClientSessionOptions;
+import com.mongodb.ReadConcern;
+import com.mongodb.TransactionOptions;
+import com.mongodb.WriteConcern;
+import com.mongodb.client.ClientSession;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.IndexOptions;
+import com.mongodb.client.model.Indexes;
+import com.mongodb.client.model.Projections;
+import com.oracle.mtm.sample.Configuration;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import org.bson.BsonDocument;
+import org.bson.BsonTimestamp;
+import org.bson.Document;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.eclipse.microprofile.metrics.Counter;
+import org.eclipse.microprofile.metrics.Histogram;
+import org.eclipse.microprofile.metrics.MetricRegistry;
+import org.eclipse.microprofile.metrics.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.invoke.MethodHandles;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Commits the LRC branches. By default each branch commits its Mongo transaction with the client's write concern,
+ * which waits for the commit to replicate.
+ * <p>
+ * MongoDB cannot commit several session transactions together, so in group commit mode the replication wait is
+ * shared instead: each branch writes a marker document in its transaction and commits it with {@code w:1}, which
+ * only waits for the primary. A single thread gathers the branches committed within {@code windowMillis}, up to
+ * {@code maxBatchSize}, and confirms all of them with one majority read of their markers, made after the latest
+ * commit of the group. A branch whose marker is not found, because its commit was rolled back by a failover,
+ * fails on its own; the other branches of the group are not affected.
+ * <p>
+ * A commit that cannot be confirmed is an unknown outcome, not a failure: the primary acknowledged it, and failing the
+ * branch would make the coordinator roll back the other branches of a transaction that may be durable. The majority
+ * read is retried until it succeeds or {@code confirmTimeoutMillis} has passed; a commit still unconfirmed then, or
+ * when the application stops, is reported as committed, logged for reconciliation and counted by
+ * {@code lrc.groupCommit.unconfirmed}. Such a commit was only written with {@code w:1} and is lost if the primary
+ * fails before it replicates.
+ */
+@ApplicationScoped
+public class GroupCommitter {
+
+    final static Logger logger = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+
+    static final String MARKER_COLLECTION = "lrcCommitMarkers";
+
+    @Inject
+    Configuration config;
+
+    @Inject
+    MetricRegistry metricRegistry;
+
+    @Inject
+    @ConfigProperty(name = "lrc.groupCommit.enabled", defaultValue = "false")
+    boolean enabled;
+
+    @Inject
+    @ConfigProperty(name = "lrc.groupCommit.windowMillis", defaultValue = "2")
+    long windowMillis;
+
+    @Inject
+    @ConfigProperty(name = "lrc.groupCommit.maxBatchSize", defaultValue = "64")
+    int maxBatchSize;
+
+    @Inject
+    @ConfigProperty(name = "lrc.groupCommit.confirmTimeoutMillis", defaultValue = "30000")
+    long confirmTimeoutMillis;
+
+    @Inject
+    @ConfigProperty(name = "lrc.groupCommit.markerExpirySeconds", defaultValue = "3600")
+    long markerExpirySeconds;
+
+    private final BlockingQueue<PendingCommit> pendingCommits = new LinkedBlockingQueue<>();
+    private MongoCollection<Document> markers;
+    private ExecutorService confirmer;
+    private Histogram groupSize;
+    private Timer confirmation;
+    private Counter unconfirmedCommits;
+
+    @PostConstruct
+    void init() {
+        if (!enabled) {
+            return;
+        }
+        markers = config.getDatabase().getCollection(MARKER_COLLECTION);
+        markers.createIndex(Indexes.ascending("createdAt"),
+                new IndexOptions().expireAfter(markerExpirySeconds, TimeUnit.SECONDS));
+        groupSize = metricRegistry.histogram("lrc.groupCommit.size");
+        confirmation = metricRegistry.timer("lrc.groupCommit.confirmation");
+        unconfirmedCommits = metricRegistry.counter("lrc.groupCommit.unconfirmed");
+        confirmer = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "lrc-group-commit");
+            thread.setDaemon(true);
+            return thread;
+        });
+        confirmer.execute(this::confirmGroups);
+    }
+
+    @PreDestroy
+    void stop() {
+        if (confirmer != null) {
+            confirmer.shutdownNow();
+            try {
+                confirmer.awaitTermination(windowMillis + 1000, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            unconfirmed(pendingCommits);
+        }
+    }
+
+    /**
+     * @return the options of the Mongo transaction of an LRC branch
+     */
+    public TransactionOptions transactionOptions() {
+        if (!enabled) {
+            return TransactionOptions.builder().build();
+        }
+        return TransactionOptions.builder().writeConcern(WriteConcern.W1).build();
+    }
+
+    /**
+     * Commits the transaction of the session and returns once it is durable, or could not be confirmed
+     *
+     * @param session session with the active transaction of the branch
+     * @param gtrid   global transaction id of the branch
+     */
+    public void commit(ClientSession session, String gtrid) throws Exception {
+        if (!enabled) {
+            session.commitTransaction();
+            return;
+        }
+        markers.insertOne(session, new Document("_id", gtrid).append("createdAt", new Date()));
+        session.commitTransaction();
+        PendingCommit pendingCommit = new PendingCommit(gtrid, session.getOperationTime(), session.getClusterTime());
+        pendingCommits.add(pendingCommit);
+        if (confirmer.isShutdown()) {
+            unconfirmed(List.of(pendingCommit));
+        }
+        boolean confirmed;
+        try {
+            // The confirmer gives up on a group after confirmTimeoutMillis, the margin covers the groups ahead of it
+            confirmed = pendingCommit.durable.get(2 * confirmTimeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            confirmed = false;
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof Exception ? (Exception) e.getCause() : e;
+        }
+        if (!confirmed) {
+            unconfirmedCommits.inc();
+            logger.error("Commit of LRC branch {} could not be confirmed as majority committed, reporting it as committed", gtrid);
+        }
+    }
+
+    private void confirmGroups() {
+        List<PendingCommit> group = new ArrayList<>(maxBatchSize);
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                group.add(pendingCommits.take());
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(windowMillis);
+                while (group.size() < maxBatchSize) {
+                    PendingCommit next = pendingCommits.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    group.add(next);
+                }
+                confirmWithRetries(group);
+                group.clear();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            unconfirmed(group);
+        }
+    }
+
+    /**
+     * Confirms the group, retrying the majority read when it fails, for example on a network error or a primary step
+     * down, until it succeeds or confirmTimeoutMillis has passed since the group was formed
+     */
+    private void confirmWithRetries(List<PendingCommit> group) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(confirmTimeoutMillis);
+        long backoffMillis = 10;
+        groupSize.update(group.size());
+        while (true) {
+            try {
+                confirm(group);
+                return;
+            } catch (RuntimeException e) {
+                if (System.nanoTime() - deadline >= 0) {
+                    logger.error("Unable to confirm {} LRC commits: {}", group.size(), e.getMessage());
+                    unconfirmed(group);
+                    return;
+                }
+                logger.warn("Unable to confirm {} LRC commits, retrying: {}", group.size(), e.getMessage());
+                Thread.sleep(backoffMillis);
+                backoffMillis = Math.min(2 * backoffMillis, 1000);
+            }
+        }
+    }
+
+    private static void unconfirmed(Iterable<PendingCommit> commits) {
+        for (PendingCommit pendingCommit : commits) {
+            pendingCommit.durable.complete(false);
+        }
+    }
+
+    private void confirm(List<PendingCommit> group) {
+        Set<String> durableGtrids = new HashSet<>();
+        try (Timer.Context ignored = confirmation.time();
+             ClientSession session = config.getClient().startSession(
+                     ClientSessionOptions.builder().causallyConsistent(true).build())) {
+            // A causally consistent majority read waits until every commit of the group is majority committed
+            for (PendingCommit pendingCommit : group) {
+                session.advanceClusterTime(pendingCommit.clusterTime);
+                session.advanceOperationTime(pendingCommit.operationTime);
+            }
+            List<String> gtrids = new ArrayList<>(group.size());
+            group.forEach(pendingCommit -> gtrids.add(pendingCommit.gtrid));
+            markers.withReadConcern(ReadConcern.MAJORITY)
+                    .find(session, Filters.in("_id", gtrids))
+                    .projection(Projections.include("_id"))
+                    .forEach(marker -> durableGtrids.add(marker.getString("_id")));
+        }
+        for (PendingCommit pendingCommit : group) {
+            if (durableGtrids.contains(pendingCommit.gtrid)) {
+                pendingCommit.durable.complete(true);
+            } else {
+                logger.error("Commit of LRC branch {} was not majority committed", pendingCommit.gtrid);
+                pendingCommit.durable.completeExceptionally(
+                        new IllegalStateException("Commit of " + pendingCommit.gtrid + " was not majority committed"));
+            }
+        }
+    }
+
+    private static final class PendingCommit {
+        private final String gtrid;
+        private final BsonTimestamp operationTime;
+        private final BsonDocument clusterTime;
+        // true once majority committed, false when that could not be confirmed
+        private final CompletableFuture<Boolean> durable = new CompletableFuture<>();
+
+        private PendingCommit(String gtrid, BsonTimestamp operationTime, BsonDocument clusterTime) {
+            this.gtrid = gtrid;
+            this.operationTime = operationTime;
+            this.clusterTime = clusterTime;
+        }
+    }
+}
@@ -21,13 +21,13 @@ CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFT
 package com.oracle.mtm.sample.nonxa;
 
 import com.mongodb.client.ClientSession;
+import com.oracle.mtm.sample.ClientSessionPool;
 import com.oracle.mtm.sample.Configuration;
-import com.oracle.mtm.sample.MongoDbClientSession;
+import com.oracle.mtm.sample.CurrentTransaction;
 import oracle.tmm.jta.nonxa.NonXAException;
 import oracle.tmm.jta.nonxa.NonXAResource;
 
 import jakarta.inject.Inject;
-import jakarta.inject.Provider;
 import javax.transaction.xa.Xid;
 import java.util.List;
 
@@ -35,56 +35,53 @@ import java.util.List;
 public class MongoDbNonXALRCResource implements NonXAResource {
 
     @Inject
-    @MongoDbClientSession
-    private Provider<ClientSession> clientSessionProvider;
+    ClientSessionPool clientSessionPool;
+
+    @Inject
+    CurrentTransaction currentTransaction;
 
     @Inject
     Configuration config;
 
-    private ClientSession session;
+    @Inject
+    GroupCommitter groupCommitter;
 
     public MongoDbNonXALRCResource()  {
     }
 
     @Override
     public void begin(Xid xid) throws NonXAException {
-        session = clientSessionProvider.get();
-        if (session == null) {
-            throw new NonXAException("Client session instance is null");
-        }
-        if (!session.hasActiveTransaction()) {
-            session.startTransaction();
+        try {
+            clientSessionPool.acquire(xid, groupCommitter.transactionOptions());
+        } catch (Exception e) {
+            throw new NonXAException(e.getMessage());
         }
+        currentTransaction.setXid(xid);
     }
 
     @Override
     public void commit(Xid xid, byte[] bytes) throws NonXAException {
+        ClientSession session = getSession(xid);
         try {
             // commit records will be empty for LRC (Last Resource Committer) branch. Hence skipping save commit records step
-            session.commitTransaction();
+            groupCommitter.commit(session, new String(xid.getGlobalTransactionId()));
         } catch (Exception e) {
-            if(session.hasActiveTransaction()) {
-                session.abortTransaction();
-            }
+            clientSessionPool.discard(xid);
             throw new NonXAException(e.getMessage());
-        } finally {
-            if (session != null) {
-                session.close();
-            }
         }
+        clientSessionPool.release(xid);
     }
 
     @Override
     public void rollback(Xid xid) throws NonXAException {
+        ClientSession session = getSession(xid);
         try {
             session.abortTransaction();
         } catch (Exception e) {
+            clientSessionPool.discard(xid);
             throw new NonXAException(e.getMessage());
-        } finally {
-            if (session != null) {
-                session.close();
-            }
         }
+        clientSessionPool.release(xid);
     }
 
     @Override
@@ -96,4 +93,12 @@ public class MongoDbNonXALRCResource implements NonXAResource {
     public boolean isSameRM(NonXAResource nonXAResource) throws NonXAException {
         return false;
     }
+
+    private ClientSession getSession(Xid xid) throws NonXAException {
+        ClientSession session = clientSessionPool.get(xid);
+        if (session == null) {
+            throw new NonXAException("No Mongo transaction is active for the branch, it may have timed out");
+        }
+        return session;
+    }
 }
\ No newline at end of file
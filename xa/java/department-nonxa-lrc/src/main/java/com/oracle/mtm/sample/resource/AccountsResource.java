@@ -85,6 +85,7 @@ public class AccountsResource {
             @APIResponse(responseCode = "200", description = "Amount withdrawn from the account"),
             @APIResponse(responseCode = "422", description = "Amount must be greater than zero"),
             @APIResponse(responseCode = "422", description = "Insufficient balance in the account"),
+            @APIResponse(responseCode = "404", description = "No account found for the provided account Identity"),
             @APIResponse(responseCode = "500", description = "Internal Server Error")
     })
     @POST
@@ -94,13 +95,15 @@ public class AccountsResource {
             return Response.status(422,"Amount must be greater than zero").build();
         }
         try {
-            if (this.accountService.getBalance(accountId) < amount) {
-                return Response.status(422, "Insufficient balance in the account").build();
-            }
             if(this.accountService.withdraw(accountId, amount)) {
                 logger.info(amount + " withdrawn from account: " + accountId);
                 return Response.status(Response.Status.OK.getStatusCode(), "Amount withdrawn from the account").build();
             }
+            // The guarded update matched no account, it is only read to report why
+            if (this.accountService.accountDetails(accountId) == null) {
+                return Response.status(Response.Status.NOT_FOUND.getStatusCode(), "No account found for the provided account Identity").build();
+            }
+            return Response.status(422, "Insufficient balance in the account").build();
         } catch (SQLException e) {
             logger.error(e.getLocalizedMessage());
             return Response.status(Response.Status.INTERNAL_SERVER_ERROR).build();
@@ -108,7 +111,6 @@ public class AccountsResource {
             logger.error(e.getLocalizedMessage());
             return Response.status(Response.Status.INTERNAL_SERVER_ERROR.getStatusCode(), e.getLocalizedMessage()).build();
         }
-        return Response.status(Response.Status.INTERNAL_SERVER_ERROR.getStatusCode(), "Withdraw failed").build();
     }
 
     @APIResponses(value = {
@@ -36,8 +36,11 @@ import com.mongodb.client.MongoCollection;
 import com.mongodb.client.MongoDatabase;
 
 import com.mongodb.connection.ConnectionPoolSettings;
+import com.oracle.mtm.sample.entity.Account;
 import com.oracle.mtm.sample.entity.CommitRecord;
+import com.oracle.mtm.sample.nonxa.CommitRecordSweeper;
 import com.oracle.mtm.sample.nonxa.LlrCommitRecords;
+import oracle.tmm.common.TrmConfig;
 import org.bson.codecs.configuration.CodecRegistry;
 import org.bson.codecs.pojo.PojoCodecProvider;
 import org.eclipse.microprofile.config.inject.ConfigProperty;
@@ -51,6 +54,8 @@ import static org.bson.codecs.configuration.CodecRegistries.fromRegistries;
 public class Configuration {
 
     private MongoClient client;
+    private MongoCollection<Account> accountsCollection;
+    private MongoCollection<CommitRecord> commitRecordsCollection;
     final static Logger logger = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
 
     @Inject
@@ -81,8 +86,13 @@ public class Configuration {
     @ConfigProperty(name = "departmentDataSource.pool.minSize", defaultValue = "5")
     Integer minSize;
 
+    @Inject
+    CommitRecordSweeper commitRecordSweeper;
+
     private void init(@Observes @Initialized(ApplicationScoped.class) Object event) {
         initialise();
+        // The sweeper creates the createdAt index that loading the commit records relies on
+        commitRecordSweeper.start();
         loadCommitRecords();
     }
 
@@ -107,16 +117,25 @@ public class Configuration {
                     .applyToServerSettings(builder -> builder.heartbeatFrequency(heartbeatFrequency, TimeUnit.SECONDS))
                     .build();
             this.client = MongoClients.create(mongoClientSettings);
+            initialiseCollections();
         } catch (Exception e) {
             logger.error("Failed to initialise database");
         }
     }
 
     private void loadCommitRecords(){
+        LlrCommitRecords.loadLLRCommitRecords(getCommitRecordsCollection(), TrmConfig.LLR_DELETE_COMMIT_RECORD_TIME_INTERVAL);
+    }
+
+    /**
+     * Builds the POJO codecs and the collections once, they are thread safe and shared by all requests
+     */
+    private void initialiseCollections() {
         CodecRegistry pojoCodecRegistry = fromRegistries(MongoClientSettings.getDefaultCodecRegistry(),
-                fromProviders(PojoCodecProvider.builder().register(CommitRecord.class).build()));
-        MongoCollection<CommitRecord> collection = getDatabase().getCollection("commitRecords", CommitRecord.class).withCodecRegistry(pojoCodecRegistry);
-        LlrCommitRecords.loadLLRCommitRecords(collection);
+                fromProviders(PojoCodecProvider.builder().register(Account.class, CommitRecord.class).build()));
+        MongoDatabase database = getDatabase().withCodecRegistry(pojoCodecRegistry);
+        accountsCollection = database.getCollection("accounts", Account.class);
+        commitRecordsCollection = database.getCollection("commitRecords", CommitRecord.class);
     }
 
     public MongoDatabase getDatabase() {
@@ -126,4 +145,12 @@ public class Configuration {
     public MongoClient getClient() {
         return client;
     }
+
+    public MongoCollection<Account> getAccountsCollection() {
+        return accountsCollection;
+    }
+
+    public MongoCollection<CommitRecord> getCommitRecordsCollection() {
+        return commitRecordsCollection;
+    }
 }
\ No newline at end of file
@@ -21,7 +21,6 @@ CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFT
 package com.oracle.mtm.sample.data;
 
 import com.mongodb.BasicDBObject;
-import com.mongodb.MongoClientSettings;
 import com.mongodb.client.ClientSession;
 import com.mongodb.client.MongoCollection;
 import com.mongodb.client.model.Filters;
@@ -30,17 +29,13 @@ import com.mongodb.client.result.UpdateResult;
 import com.oracle.mtm.sample.Configuration;
 import com.oracle.mtm.sample.MongoDbClientSession;
 import com.oracle.mtm.sample.entity.Account;
-import org.bson.codecs.configuration.CodecRegistry;
-import org.bson.codecs.pojo.PojoCodecProvider;
+import org.bson.conversions.Bson;
 
 import jakarta.enterprise.context.RequestScoped;
 import jakarta.inject.Inject;
 import jakarta.inject.Provider;
 import java.sql.SQLException;
 
-import static org.bson.codecs.configuration.CodecRegistries.fromProviders;
-import static org.bson.codecs.configuration.CodecRegistries.fromRegistries;
-
 
 /**
  * Service that connects to the accounts database and provides methods to interact with the accounts
@@ -64,16 +59,14 @@ public class AccountsService implements IAccountsService {
 
     @Override
     public boolean withdraw(String accountId, double amount) throws SQLException {
-        double currentBalance = getBalance(accountId);
-        double newBalance = currentBalance - amount;
-        return updateBalance(session.get(), accountId, newBalance);
+        // The balance guard and the decrement are applied by the server in one update, so concurrent withdrawals
+        // can neither overdraw the account nor lose an update
+        return updateBalance(session.get(), Filters.and(Filters.eq("accountId", accountId), Filters.gte("amount", amount)), -amount);
     }
 
     @Override
     public boolean deposit(String accountId, double amount) throws SQLException {
-        double currentBalance = getBalance(accountId);
-        double newBalance = currentBalance + amount;
-        return updateBalance(session.get(), accountId, newBalance);
+        return updateBalance(session.get(), Filters.eq("accountId", accountId), amount);
     }
 
     @Override
@@ -86,13 +79,11 @@ public class AccountsService implements IAccountsService {
     }
 
     private MongoCollection<Account> getAccounts() {
-        CodecRegistry pojoCodecRegistry = fromRegistries(MongoClientSettings.getDefaultCodecRegistry(),
-                fromProviders(PojoCodecProvider.builder().register(Account.class).build()));
-        return config.getDatabase().getCollection("accounts", Account.class).withCodecRegistry(pojoCodecRegistry);
+        return config.getAccountsCollection();
     }
 
-    private boolean updateBalance(ClientSession session, String accountId, double newBalance) {
-        UpdateResult result = getAccounts().updateOne(session, Filters.eq("accountId", accountId), Updates.set("amount", newBalance));
-        return result != null && result.wasAcknowledged();
+    private boolean updateBalance(ClientSession session, Bson filter, double delta) {
+        UpdateResult result = getAccounts().updateOne(session, filter, Updates.inc("amount", delta));
+        return result != null && result.wasAcknowledged() && result.getMatchedCount() > 0;
     }
 }
@@ -24,6 +24,7 @@ import org.bson.types.ObjectId;
 import org.eclipse.microprofile.openapi.annotations.media.Schema;
 
 import java.sql.Timestamp;
+import java.util.Date;
 
 @Schema(name = "CommitRecord")
 public class CommitRecord {
@@ -33,6 +34,9 @@ public class CommitRecord {
 
     String timeStamp;
 
+    // Stored as a BSON date so that the TTL index on commitRecords can expire the record
+    Date createdAt;
+
     public CommitRecord() {
 
     }
@@ -53,6 +57,10 @@ public class CommitRecord {
 
     public  void setTimeStamp(String timeStamp){ this.timeStamp = timeStamp;}
 
+    public void setCreatedAt(Date createdAt) {
+        this.createdAt = createdAt;
+    }
+
     public void setCommitRecord(byte[] commitRecord) {
         this.commitRecord = commitRecord;
     }
@@ -67,6 +75,10 @@ public class CommitRecord {
 
     public String getTimeStamp(){ return timeStamp;}
 
+    public Date getCreatedAt() {
+        return createdAt;
+    }
+
     public byte[] getCommitRecord() {
         return commitRecord;
     }
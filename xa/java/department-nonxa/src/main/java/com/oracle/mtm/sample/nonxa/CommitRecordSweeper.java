@@ -0,0 +1,205 @@
+/*
+Copyright (c) 2023, Oracle and/or its affiliates. **
+
+The Universal Permissive License (UPL), Version 1.0 **
+
+Subject to the condition set forth below, permission is hereby granted to any person obtaining a copy of this software, associated documentation and/or data
+(collectively the "Software"), free of charge and under any and all copyright rights in the Software, and any and all patent rights owned or freely licensable by each
+licensor hereunder covering either the unmodified Software as contributed to or provided by such licensor, or (ii) the Larger Works (as defined below), to deal in both **
+(a) the Software, and (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if one is included with the Software (each a "Larger Work" to which the
+Software is contributed by such licensors), **
+without restriction, including without limitation the rights to copy, create derivative works of, display, perform, and distribute the Software and make, use, sell,
+offer for sale, import, export, have made, and have sold the Software and the Larger Work(s), and to sublicense the foregoing rights on either these or other terms. **
+
+This license is subject to the following condition: The above copyright notice and either this complete permission notice or at a minimum a reference to the UPL must be
+included in all copies or substantial portions of the Software. **
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A
+PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF
+CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+*/
+package com.oracle.mtm.sample.nonxa;
+
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.IndexOptions;
+import com.mongodb.client.model.Indexes;
+import com.oracle.mtm.sample.Configuration;
+import com.oracle.mtm.sample.entity.CommitRecord;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import oracle.tmm.common.TrmConfig;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.eclipse.microprofile.metrics.Counter;
+import org.eclipse.microprofile.metrics.Gauge;
+import org.eclipse.microprofile.metrics.MetricRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.invoke.MethodHandles;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Purges expired LLR commit records. By default MongoDB removes them itself through a TTL index on
+ * {@link CommitRecord#getCreatedAt()}. The gtrids handed to {@link #purge(List)} are deleted by a single background
+ * thread in bounded {@code $in} chunks, with a pause between chunks so the purge does not compete with live commits.
+ * The queue is bounded and the gtrids that do not fit, or whose delete fails, are not retried: without the TTL index the
+ * sweeper also deletes every record whose createdAt is older than the expiry interval each sweep interval, and the
+ * records written without createdAt are found again by the recovery scan.
+ */
+@ApplicationScoped
+public class CommitRecordSweeper {
+
+    final static Logger logger = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+
+    static final String COLLECTION_NAME = "commitRecords";
+    static final String TTL_INDEX_NAME = "createdAt_ttl";
+    static final String INDEX_NAME = "createdAt_1";
+
+    @Inject
+    Configuration config;
+
+    @Inject
+    MetricRegistry metricRegistry;
+
+    @Inject
+    @ConfigProperty(name = "commitRecords.ttlIndex.enabled", defaultValue = "true")
+    boolean ttlIndexEnabled;
+
+    @Inject
+    @ConfigProperty(name = "commitRecords.purge.batchSize", defaultValue = "500")
+    int batchSize;
+
+    @Inject
+    @ConfigProperty(name = "commitRecords.purge.queueCapacity", defaultValue = "10000")
+    int queueCapacity;
+
+    @Inject
+    @ConfigProperty(name = "commitRecords.purge.pauseMillis", defaultValue = "100")
+    long pauseMillis;
+
+    @Inject
+    @ConfigProperty(name = "commitRecords.purge.sweepIntervalMillis", defaultValue = "60000")
+    long sweepIntervalMillis;
+
+    private BlockingQueue<String> expiredGtrids;
+    private ExecutorService sweeper;
+    private Counter deleted;
+    private Counter dropped;
+
+    /**
+     * Creates the createdAt index and starts the sweeper thread. Called once the database client is initialised.
+     */
+    public void start() {
+        createIndexes();
+        expiredGtrids = new LinkedBlockingQueue<>(queueCapacity);
+        deleted = metricRegistry.counter("commitRecords.purge.deleted");
+        dropped = metricRegistry.counter("commitRecords.purge.dropped");
+        metricRegistry.register("commitRecords.purge.queued", (Gauge<Integer>) () -> expiredGtrids.size());
+        metricRegistry.register("commitRecords.inMemory", (Gauge<Integer>) LlrCommitRecords::size);
+        sweeper = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "commit-record-sweeper");
+            thread.setDaemon(true);
+            return thread;
+        });
+        sweeper.execute(this::sweep);
+    }
+
+    @PreDestroy
+    void stop() {
+        if (sweeper != null) {
+            sweeper.shutdownNow();
+        }
+    }
+
+    /**
+     * @return true when MongoDB expires the commit records through the TTL index
+     */
+    public boolean isTtlIndexEnabled() {
+        return ttlIndexEnabled;
+    }
+
+    /**
+     * Queues the commit records of the given gtrids for deletion without waiting for it
+     */
+    public void purge(List<String> gtrids) {
+        for (String gtrid : gtrids) {
+            if (!expiredGtrids.offer(gtrid)) {
+                dropped.inc();
+            }
+        }
+    }
+
+    private void sweep() {
+        List<String> chunk = new ArrayList<>(batchSize);
+        long nextSweep = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(sweepIntervalMillis);
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                String gtrid = expiredGtrids.poll(Math.max(nextSweep - System.nanoTime(), 0), TimeUnit.NANOSECONDS);
+                if (gtrid != null) {
+                    chunk.add(gtrid);
+                    expiredGtrids.drainTo(chunk, batchSize - 1);
+                    deleted.inc(getCommitRecordsCollection().deleteMany(Filters.in("gtrid", chunk)).getDeletedCount());
+                    chunk.clear();
+                    TimeUnit.MILLISECONDS.sleep(pauseMillis);
+                }
+                if (System.nanoTime() - nextSweep >= 0) {
+                    nextSweep = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(sweepIntervalMillis);
+                    sweepExpired();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (Exception e) {
+                // Not retried: the TTL index or the next sweepExpired deletes them, and the recovery scan finds the
+                // records written without createdAt again
+                logger.warn("Failed to purge {} commit records: {}", chunk.size(), e.getMessage());
+                chunk.clear();
+            }
+        }
+    }
+
+    /**
+     * Deletes the records whose createdAt is older than the expiry interval, catching the gtrids that were dropped
+     * from the queue or whose delete failed. Not needed with the TTL index, which already expires them.
+     */
+    private void sweepExpired() {
+        if (!ttlIndexEnabled) {
+            deleted.inc(getCommitRecordsCollection().deleteMany(LlrCommitRecords.expired(TrmConfig.LLR_DELETE_COMMIT_RECORD_TIME_INTERVAL)).getDeletedCount());
+        }
+    }
+
+    /**
+     * Creates the index on createdAt used by the recovery scan. It is a TTL index unless that is disabled or
+     * not supported, in which case expired records are left to the sweeper.
+     */
+    private void createIndexes() {
+        MongoCollection<CommitRecord> collection = getCommitRecordsCollection();
+        if (ttlIndexEnabled) {
+            try {
+                collection.createIndex(Indexes.ascending(LlrCommitRecords.CREATED_AT),
+                        new IndexOptions().name(TTL_INDEX_NAME).expireAfter(TrmConfig.LLR_DELETE_COMMIT_RECORD_TIME_INTERVAL, TimeUnit.MILLISECONDS));
+                return;
+            } catch (Exception e) {
+                logger.warn("Unable to create the TTL index on {}, expired commit records are purged by the sweeper: {}",
+                        COLLECTION_NAME, e.getMessage());
+                ttlIndexEnabled = false;
+            }
+        }
+        try {
+            collection.createIndex(Indexes.ascending(LlrCommitRecords.CREATED_AT), new IndexOptions().name(INDEX_NAME));
+        } catch (Exception e) {
+            logger.warn("Unable to create the createdAt index on {}: {}", COLLECTION_NAME, e.getMessage());
+        }
+    }
+
+    private MongoCollection<CommitRecord> getCommitRecordsCollection() {
+        return config.getCommitRecordsCollection();
+    }
+}
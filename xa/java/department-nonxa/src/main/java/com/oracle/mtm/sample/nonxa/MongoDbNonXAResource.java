@@ -20,52 +20,42 @@ CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFT
 */
 package com.oracle.mtm.sample.nonxa;
 
-import com.mongodb.MongoClientSettings;
+import com.mongodb.TransactionOptions;
 import com.mongodb.client.ClientSession;
-import com.mongodb.client.FindIterable;
 import com.mongodb.client.MongoCollection;
 import com.mongodb.client.MongoCursor;
-import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.Projections;
 import com.mongodb.internal.connection.Time;
+import com.oracle.mtm.sample.ClientSessionPool;
 import com.oracle.mtm.sample.Configuration;
-import com.oracle.mtm.sample.MongoDbClientSession;
+import com.oracle.mtm.sample.CurrentTransaction;
 import com.oracle.mtm.sample.entity.CommitRecord;
 import oracle.tmm.common.TrmConfig;
 import oracle.tmm.jta.nonxa.NonXAException;
 import oracle.tmm.jta.nonxa.NonXAResource;
 import org.bson.Document;
-import org.bson.codecs.configuration.CodecRegistry;
-import org.bson.codecs.pojo.PojoCodecProvider;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
 
 import jakarta.inject.Inject;
-import jakarta.inject.Provider;
 import javax.transaction.xa.Xid;
 import java.sql.Timestamp;
 import java.util.*;
 
-
-
-import static org.bson.codecs.configuration.CodecRegistries.fromProviders;
-import static org.bson.codecs.configuration.CodecRegistries.fromRegistries;
-
-
-
 public class MongoDbNonXAResource implements NonXAResource {
 
     @Inject
-    @MongoDbClientSession
-    private Provider<ClientSession> clientSessionProvider;
+    ClientSessionPool clientSessionPool;
 
+    @Inject
+    CurrentTransaction currentTransaction;
 
     @Inject
     Configuration config;
 
-    private ClientSession session;
+    @Inject
+    CommitRecordSweeper commitRecordSweeper;
 
-    private static long timer = 0;
-    private static ExecutorService executor = Executors.newFixedThreadPool(2);
+    private static final AtomicLong lastExpiry = new AtomicLong();
 
     public MongoDbNonXAResource()  {
     }
@@ -73,65 +63,48 @@ public class MongoDbNonXAResource implements NonXAResource {
 
     @Override
     public void begin(Xid xid) throws NonXAException {
-        session = clientSessionProvider.get();
-        if (session == null) {
-            throw new NonXAException("Client session instance is null");
-        }
-        if (!session.hasActiveTransaction()) {
-            session.startTransaction();
+        try {
+            clientSessionPool.acquire(xid, TransactionOptions.builder().build());
+        } catch (Exception e) {
+            throw new NonXAException(e.getMessage());
         }
+        currentTransaction.setXid(xid);
     }
 
     @Override
     public void commit(Xid xid, byte[] bytes) throws NonXAException {
+        ClientSession session = getSession(xid);
         try {
-            setCommitRecord(new String(xid.getGlobalTransactionId()), bytes);
+            setCommitRecord(session, new String(xid.getGlobalTransactionId()), bytes);
             session.commitTransaction();
-            if (System.currentTimeMillis() - timer > TrmConfig.LLR_DELETE_COMMIT_RECORD_TIME_INTERVAL) {
-                long currentTime = System.currentTimeMillis();
-                LinkedList<String> expiredGtrids = new LinkedList<>();
-
-                // getting all the previous commit record older than the timer
-
-                Iterator<CommitRecord> it = LlrCommitRecords.InMemoryCommitRecordList.listIterator();
-                while(it.hasNext())
-                {
-                    CommitRecord currentRecord = it.next();
-                    if(Timestamp.valueOf(currentRecord.getTimeStamp()).getTime()<=timer){
-                        expiredGtrids.add(currentRecord.getGtrid());
-                        it.remove();
-                    }
-                }
-                if(expiredGtrids.size() > 0)
-                {
-                    Runnable asyncDelete =  new AsyncLLRCommitRecordDeletion(getCommitRecordsCollection(), expiredGtrids);
-                    executor.execute(asyncDelete);
+            long currentTime = System.currentTimeMillis();
+            long previousExpiry = lastExpiry.get();
+            // Only the commit that moves the expiry time forward collects the records older than the previous one
+            if (currentTime - previousExpiry > TrmConfig.LLR_DELETE_COMMIT_RECORD_TIME_INTERVAL
+                    && lastExpiry.compareAndSet(previousExpiry, currentTime)) {
+                List<String> expiredGtrids = LlrCommitRecords.removeExpired(previousExpiry);
+                // With the TTL index MongoDB deletes the documents itself, only the in-memory index needs trimming
+                if (!commitRecordSweeper.isTtlIndexEnabled()) {
+                    commitRecordSweeper.purge(expiredGtrids);
                 }
-                timer = currentTime;
             }
         } catch (Exception e) {
-            if(session.hasActiveTransaction()) {
-                session.abortTransaction();
-            }
+            clientSessionPool.discard(xid);
             throw new NonXAException(e.getMessage());
-        } finally {
-            if (session != null) {
-                session.close();
-            }
         }
+        clientSessionPool.release(xid);
     }
 
     @Override
     public void rollback(Xid xid) throws NonXAException {
+        ClientSession session = getSession(xid);
         try {
             session.abortTransaction();
         } catch (Exception e) {
+            clientSessionPool.discard(xid);
             throw new NonXAException(e.getMessage());
-        } finally {
-            if (session != null) {
-                session.close();
-            }
         }
+        clientSessionPool.release(xid);
     }
 
     @Override
@@ -141,10 +114,6 @@ public class MongoDbNonXAResource implements NonXAResource {
             commitRecords = getNonExpiredCommitRecords();
         } catch (Exception e) {
             throw new NonXAException(e.getMessage());
-        } finally {
-            if (session != null) {
-                session.close();
-            }
         }
         return commitRecords;
     }
@@ -154,45 +123,67 @@ public class MongoDbNonXAResource implements NonXAResource {
         return false;
     }
 
-    public void setCommitRecord(String gtrid, byte[] commitRecord) {
+    public void setCommitRecord(ClientSession session, String gtrid, byte[] commitRecord) {
         Timestamp timestamp = new Timestamp(System.currentTimeMillis());
         CommitRecord record = new CommitRecord();
         record.setGtrid(gtrid);
         record.setCommitRecord(commitRecord);
         record.setTimeStamp(timestamp.toString());
-        LlrCommitRecords.InMemoryCommitRecordList.add(record);
+        record.setCreatedAt(new Date(timestamp.getTime()));
+        LlrCommitRecords.add(record);
         getCommitRecordsCollection().insertOne(session, record);
     }
 
 
 
+    /**
+     * Reads the commit records that have not expired yet. The time predicate is answered from the createdAt index
+     * and only the commitRecord field is fetched, in batches, so the scan grows with the live records rather than
+     * with the history of the collection.
+     */
     public List<byte[]> getNonExpiredCommitRecords() {
-        FindIterable<CommitRecord> commitRecords = getCommitRecordsCollection().find();
-        MongoCursor<CommitRecord> iterator = commitRecords.iterator();
-        long currentTime = System.currentTimeMillis();
+        MongoCollection<CommitRecord> collection = getCommitRecordsCollection();
         List<byte[]> result = new ArrayList<>();
-        CommitRecord currentRecord = new CommitRecord();
-        LinkedList<String> expiredGtrids = new LinkedList<>();
-
-        while(iterator.hasNext()) {
-            currentRecord = iterator.next();
-            Timestamp timestamp = Timestamp.valueOf(currentRecord.getTimeStamp());
-            if(currentTime-timestamp.getTime() > TrmConfig.LLR_DELETE_COMMIT_RECORD_TIME_INTERVAL) {
-                expiredGtrids.add(currentRecord.getGtrid());
-            } else {
-                result.add(currentRecord.getCommitRecord());
+        try (MongoCursor<CommitRecord> cursor = collection.find(LlrCommitRecords.notExpired(TrmConfig.LLR_DELETE_COMMIT_RECORD_TIME_INTERVAL))
+                .projection(Projections.fields(Projections.include("commitRecord"), Projections.excludeId()))
+                .batchSize(LlrCommitRecords.SCAN_BATCH_SIZE)
+                .iterator()) {
+            while (cursor.hasNext()) {
+                result.add(cursor.next().getCommitRecord());
             }
-            if(expiredGtrids.size() > 0){
-                Runnable asyncDelete =  new AsyncLLRCommitRecordDeletion(getCommitRecordsCollection(), expiredGtrids);
-                executor.execute(asyncDelete);
+        }
+
+        // Records written before createdAt was introduced are filtered on their string timestamp
+        long currentTime = System.currentTimeMillis();
+        List<String> expiredGtrids = new ArrayList<>();
+        try (MongoCursor<CommitRecord> cursor = collection.find(LlrCommitRecords.withoutCreatedAt())
+                .projection(Projections.excludeId())
+                .batchSize(LlrCommitRecords.SCAN_BATCH_SIZE)
+                .iterator()) {
+            while (cursor.hasNext()) {
+                CommitRecord currentRecord = cursor.next();
+                Timestamp timestamp = Timestamp.valueOf(currentRecord.getTimeStamp());
+                if (currentTime - timestamp.getTime() > TrmConfig.LLR_DELETE_COMMIT_RECORD_TIME_INTERVAL) {
+                    expiredGtrids.add(currentRecord.getGtrid());
+                } else {
+                    result.add(currentRecord.getCommitRecord());
+                }
             }
         }
+        // The TTL index does not expire records without createdAt
+        commitRecordSweeper.purge(expiredGtrids);
         return result;
     }
 
+    private ClientSession getSession(Xid xid) throws NonXAException {
+        ClientSession session = clientSessionPool.get(xid);
+        if (session == null) {
+            throw new NonXAException("No Mongo transaction is active for the branch, it may have timed out");
+        }
+        return session;
+    }
+
     private MongoCollection<CommitRecord> getCommitRecordsCollection() {
-        CodecRegistry pojoCodecRegistry = fromRegistries(MongoClientSettings.getDefaultCodecRegistry(),
-                fromProviders(PojoCodecProvider.builder().register(CommitRecord.class).build()));
-        return config.getDatabase().getCollection("commitRecords", CommitRecord.class).withCodecRegistry(pojoCodecRegistry);
+        return config.getCommitRecordsCollection();
     }
 }
\ No newline at end of file
@@ -42,6 +42,11 @@ import java.sql.SQLException;
 @RequestScope
 public class AccountService implements IAccountService {
 
+    private static final String WITHDRAW_QUERY =
+            "UPDATE Account a SET a.amount = a.amount - :amount WHERE a.accountId = :accountId AND a.amount >= :amount";
+    private static final String DEPOSIT_QUERY =
+            "UPDATE Account a SET a.amount = a.amount + :amount WHERE a.accountId = :accountId";
+
     private static final Logger LOG = LoggerFactory.getLogger(AccountService.class);
 
 
@@ -65,30 +70,31 @@ public class AccountService implements IAccountService {
 
     @Override
     public boolean withdraw(String accountId, double amount) throws SQLException {
-        Account account = findByAccountId(accountId, entityManager);
-        if (account != null) {
-            LOG.info("Current Balance: " + account.getAmount());
-            account.setAmount(account.getAmount() - amount);
-            account = entityManager.merge(account);
-            entityManager.flush();
-            LOG.info("New Balance: " + account.getAmount());
-            return true;
-        }
-        return false;
+        int updated = updateBalance(WITHDRAW_QUERY, accountId, amount);
+        LOG.info("Withdrew " + amount + " from account " + accountId + ", rows updated: " + updated);
+        return updated > 0;
     }
 
     @Override
     public boolean deposit(String accountId, double amount) throws SQLException {
-        Account account = findByAccountId(accountId, entityManager);
-        if (account != null) {
-            LOG.info("Current Balance: " + account.getAmount());
-            account.setAmount(account.getAmount() + amount);
-            account = entityManager.merge(account);
-            entityManager.flush();
-            LOG.info("New Balance: " + account.getAmount());
-            return true;
-        }
-        return false;
+        int updated = updateBalance(DEPOSIT_QUERY, accountId, amount);
+        LOG.info("Deposited " + amount + " to account " + accountId + ", rows updated: " + updated);
+        return updated > 0;
+    }
+
+    /**
+     * Applies the balance change with a single bulk update so that the check and the write happen in one
+     * statement inside the XA branch. The bulk update bypasses the persistence context, so pending changes are
+     * flushed before it runs and managed entities are detached afterwards to avoid serving a stale balance.
+     */
+    private int updateBalance(String jpql, String accountId, double amount) {
+        entityManager.flush();
+        int updated = entityManager.createQuery(jpql)
+                .setParameter("accountId", accountId)
+                .setParameter("amount", amount)
+                .executeUpdate();
+        entityManager.clear();
+        return updated;
     }
 
     @Override
@@ -36,6 +36,7 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import jakarta.persistence.NoResultException;
 import java.sql.SQLException;
 
 @RestController
@@ -75,6 +76,7 @@ public class AccountsResource {
             @ApiResponse(responseCode = "200", description = "Amount withdrawn from the account"),
             @ApiResponse(responseCode = "422", description = "Amount must be greater than zero"),
             @ApiResponse(responseCode = "422", description = "Insufficient balance in the account"),
+            @ApiResponse(responseCode = "404", description = "No account found for the provided account Identity"),
             @ApiResponse(responseCode = "500", description = "Internal Server Error")
     })
     @RequestMapping(value = "/{accountId}/withdraw", method = RequestMethod.POST)
@@ -83,18 +85,19 @@ public class AccountsResource {
             return ResponseEntity.status(HttpStatus.UNPROCESSABLE_ENTITY).body("Amount must be greater than zero");
         }
         try {
-            if (this.accountService.getBalance(accountId) < amount) {
-                return ResponseEntity.status(HttpStatus.UNPROCESSABLE_ENTITY).body("Insufficient balance in the account");
-            }
             if(this.accountService.withdraw(accountId, amount)) {
                LOG.info(amount + " withdrawn from account: " + accountId);
                 return ResponseEntity.ok("Amount withdrawn from the account");
             }
+            // The guarded update matched no row, the account is only read to report why
+            if (!accountExists(accountId)) {
+                return ResponseEntity.status(HttpStatus.NOT_FOUND).body("No account found for the provided account Identity");
+            }
+            return ResponseEntity.status(HttpStatus.UNPROCESSABLE_ENTITY).body("Insufficient balance in the account");
         } catch (SQLException | IllegalArgumentException e) {
             LOG.error(e.getLocalizedMessage());
             return ResponseEntity.internalServerError().body(e.getLocalizedMessage());
         }
-        return ResponseEntity.internalServerError().body("Withdraw failed");
     }
 
     @ApiResponses(value = {
@@ -118,4 +121,12 @@ public class AccountsResource {
         }
         return ResponseEntity.internalServerError().body("Deposit failed");
     }
+
+    private boolean accountExists(String accountId) throws SQLException {
+        try {
+            return this.accountService.accountDetails(accountId) != null;
+        } catch (NoResultException e) {
+            return false;
+        }
+    }
 }
@@ -23,6 +23,7 @@ package com.oracle.mtm.sample;
 
 import com.oracle.microtx.common.MicroTxConfig;
 import oracle.tmm.jta.common.DataSourceInfo;
+import oracle.ucp.jdbc.PoolDataSource;
 import oracle.ucp.jdbc.PoolDataSourceFactory;
 import oracle.ucp.jdbc.PoolXADataSource;
 import org.springframework.beans.factory.annotation.Value;
@@ -31,6 +32,7 @@ import org.springframework.context.annotation.ComponentScan;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Primary;
 
+import javax.sql.DataSource;
 import javax.sql.XADataSource;
 import java.sql.SQLException;
 
@@ -58,6 +60,11 @@ public class XADataSourceConfig {
     private String connectionPoolName;
     @Value("${departmentDataSource.oracleucp.connection-factory-class-name}")
     private String connectionFactoryClassName;
+    // Optional URL for account queries, such as an Active Data Guard standby. Reads from a standby may lag the primary.
+    @Value("${departmentDataSource.read-url:${departmentDataSource.url}}")
+    private String readUrl;
+    @Value("${departmentDataSource.oracleucp.max-statements:20}")
+    private String maxStatements;
 
     // Credit data source
     @Value("${creditDataSource.url}")
@@ -80,6 +87,10 @@ public class XADataSourceConfig {
     private String creditConnectionPoolName;
     @Value("${creditDataSource.oracleucp.connection-factory-class-name}")
     private String creditConnectionFactoryClassName;
+    @Value("${creditDataSource.read-url:${creditDataSource.url}}")
+    private String creditReadUrl;
+    @Value("${creditDataSource.oracleucp.max-statements:20}")
+    private String creditMaxStatements;
 
     @Bean(name = "ucpXADataSource")
     @Primary
@@ -135,4 +146,34 @@ public class XADataSourceConfig {
         }
         return pds;
     }
+
+    /**
+     * Non XA pool used for account queries, so that balance lookups do not take connections from the XA pool
+     */
+    @Bean(name = "ucpReadDataSource")
+    public DataSource getReadDataSource() {
+        return readDataSource(readUrl, username, password, maxPoolSize, maxStatements, connectionPoolName + "Read");
+    }
+
+    @Bean(name = "ucpCreditReadDataSource")
+    public DataSource getCreditReadDataSource() {
+        return readDataSource(creditReadUrl, creditUsername, creditPassword, creditMaxPoolSize, creditMaxStatements, creditConnectionPoolName + "Read");
+    }
+
+    private DataSource readDataSource(String url, String user, String password, String maxPoolSize, String maxStatements, String poolName) {
+        PoolDataSource pds = null;
+        try {
+            pds = PoolDataSourceFactory.getPoolDataSource();
+            pds.setConnectionFactoryClassName("oracle.jdbc.pool.OracleDataSource");
+            pds.setURL(url);
+            pds.setUser(user);
+            pds.setPassword(password);
+            pds.setMaxPoolSize(Integer.valueOf(maxPoolSize));
+            pds.setMaxStatements(Integer.valueOf(maxStatements));
+            pds.setConnectionPoolName(poolName);
+        } catch (SQLException ex) {
+            System.err.println("Error connecting to the database: " + ex.getMessage());
+        }
+        return pds;
+    }
 }
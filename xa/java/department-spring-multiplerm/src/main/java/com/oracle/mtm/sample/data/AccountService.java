@@ -24,8 +24,7 @@ import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
-import javax.sql.XAConnection;
-import javax.sql.XADataSource;
+import javax.sql.DataSource;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -52,13 +51,16 @@ public class AccountService implements IAccountService {
 
     private Connection creditConnection;
 
+    /**
+     * Non XA pools for account queries, kept apart from the XA pools used by transactions
+     */
     @Autowired
-    @Qualifier("ucpXADataSource")
-    XADataSource dataSource;
+    @Qualifier("ucpReadDataSource")
+    DataSource dataSource;
 
     @Autowired
-    @Qualifier("ucpCreditXADataSource")
-    XADataSource creditDataSource;
+    @Qualifier("ucpCreditReadDataSource")
+    DataSource creditDataSource;
 
     @Autowired
     public AccountService(ApplicationContext applicationContext) {
@@ -81,11 +83,9 @@ public class AccountService implements IAccountService {
     public Account accountDetails(String accountId) throws SQLException {
         Account account = null;
         Connection connection = null;
-        XAConnection xaConnection = null;
         PreparedStatement statement = null;
         try {
-            xaConnection = dataSource.getXAConnection();
-            connection = xaConnection.getConnection();
+            connection = dataSource.getConnection();
             if (connection == null) {
                 return null;
             }
@@ -106,9 +106,6 @@ public class AccountService implements IAccountService {
             if(connection != null){
                 connection.close();
             }
-            if(xaConnection != null){
-                xaConnection.close();
-            }
         }
         return account;
     }
@@ -117,11 +114,9 @@ public class AccountService implements IAccountService {
     public Account creditAccountDetails(String accountId) throws SQLException {
         Account account = null;
         Connection connection = null;
-        XAConnection xaConnection = null;
         PreparedStatement statement = null;
         try {
-            xaConnection = creditDataSource.getXAConnection();
-            connection = xaConnection.getConnection();
+            connection = creditDataSource.getConnection();
             if (connection == null) {
                 return null;
             }
@@ -142,9 +137,6 @@ public class AccountService implements IAccountService {
             if(connection != null){
                 connection.close();
             }
-            if(xaConnection != null){
-                xaConnection.close();
-            }
         }
         return account;
     }
@@ -21,12 +21,9 @@ CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFT
  
 package com.oracle.mtm.sample;
 
-import com.mongodb.client.MongoClient;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.config.ConfigurableBeanFactory;
 import org.springframework.context.annotation.Bean;
-import org.springframework.context.annotation.Lazy;
 import org.springframework.context.annotation.Scope;
 
 import com.mongodb.client.ClientSession;
@@ -36,12 +33,10 @@ import org.springframework.stereotype.Service;
 public class MongoDbConnectionFactory {
 
     @Autowired
-    @Qualifier("mongoDbClient")
-    @Lazy
-    MongoClient client;
+    ClientSessionPool clientSessionPool;
 
     @Autowired
-    ThreadLocalClientSession threadLocalClientSession;
+    CurrentTransaction currentTransaction;
 
     @Bean(name = "microTxNonXASession")
     @Scope(ConfigurableBeanFactory.SCOPE_PROTOTYPE)
@@ -49,22 +44,14 @@ public class MongoDbConnectionFactory {
         return getSession();
     }
 
+    /**
+     * @return the client session of the transaction branch of the current request
+     */
     private ClientSession getSession() {
-        try {
-            ClientSession session = threadLocalClientSession.get();
-            if (session != null && !session.hasActiveTransaction()) {
-                session.close();
-                session = null;
-                ThreadLocalClientSession.remove();
-            }
-            if (session == null) {
-                session = client.startSession();
-                session.startTransaction();
-                ThreadLocalClientSession.set(session);
-            }
-            return session;
-        } catch (Exception e) {
-            return null;
+        ClientSession session = currentTransaction.getXid() != null ? clientSessionPool.get(currentTransaction.getXid()) : null;
+        if (session == null) {
+            throw new IllegalStateException("The request is not part of an active transaction");
         }
+        return session;
     }
-}
\ No newline at end of file
+}
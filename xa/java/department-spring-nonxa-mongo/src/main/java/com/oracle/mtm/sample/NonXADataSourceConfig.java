@@ -22,21 +22,32 @@ CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFT
 package com.oracle.mtm.sample;
 
 
+import com.mongodb.MongoClientSettings;
 import com.mongodb.client.MongoClient;
 import com.mongodb.client.MongoClients;
 
+import com.mongodb.client.MongoCollection;
 import com.mongodb.client.MongoDatabase;
+import com.oracle.mtm.sample.entity.Account;
+import com.oracle.mtm.sample.entity.CommitRecord;
+import org.bson.codecs.configuration.CodecRegistry;
+import org.bson.codecs.pojo.PojoCodecProvider;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.ComponentScan;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Primary;
 
+import static org.bson.codecs.configuration.CodecRegistries.fromProviders;
+import static org.bson.codecs.configuration.CodecRegistries.fromRegistries;
+
 @Configuration
 @ComponentScan("com.oracle")
 public class NonXADataSourceConfig {
 
     private MongoClient client;
+    private MongoCollection<Account> accountsCollection;
+    private MongoCollection<CommitRecord> commitRecordsCollection;
 
     @Value("${departmentDataSource.url}")
     private String url;
@@ -79,12 +90,24 @@ public class NonXADataSourceConfig {
                     .build();
             this.client = MongoClients.create(mongoClientSettings);*/
             this.client = MongoClients.create(url);
+            initialiseCollections();
         } catch (Exception ex) {
             System.err.println("NonXAMongoDBClient creation failed :" + ex.getMessage());
         }
         return this.client;
     }
 
+    /**
+     * Builds the POJO codecs and the collections once, they are thread safe and shared by all requests
+     */
+    private void initialiseCollections() {
+        CodecRegistry pojoCodecRegistry = fromRegistries(MongoClientSettings.getDefaultCodecRegistry(),
+                fromProviders(PojoCodecProvider.builder().register(Account.class, CommitRecord.class).build()));
+        MongoDatabase database = getDatabase().withCodecRegistry(pojoCodecRegistry);
+        accountsCollection = database.getCollection("accounts", Account.class);
+        commitRecordsCollection = database.getCollection("commitRecords", CommitRecord.class);
+    }
+
     public MongoDatabase getDatabase() {
         return client.getDatabase(databaseName);
     }
@@ -92,4 +115,12 @@ public class NonXADataSourceConfig {
     public MongoClient getClient() {
         return client;
     }
+
+    public MongoCollection<Account> getAccountsCollection() {
+        return accountsCollection;
+    }
+
+    public MongoCollection<CommitRecord> getCommitRecordsCollection() {
+        return commitRecordsCollection;
+    }
 }
\ No newline at end of file
@@ -20,7 +20,6 @@ package com.oracle.mtm.sample.data;
 import java.sql.SQLException;
 
 import com.mongodb.BasicDBObject;
-import com.mongodb.MongoClientSettings;
 import com.mongodb.client.ClientSession;
 import com.mongodb.client.MongoCollection;
 import com.mongodb.client.model.Filters;
@@ -29,8 +28,7 @@ import com.mongodb.client.result.UpdateResult;
 import com.oracle.mtm.sample.NonXADataSourceConfig;
 import com.oracle.mtm.sample.entity.Account;
 import com.oracle.mtm.sample.resource.AccountsResource;
-import org.bson.codecs.configuration.CodecRegistry;
-import org.bson.codecs.pojo.PojoCodecProvider;
+import org.bson.conversions.Bson;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -42,9 +40,6 @@ import org.springframework.stereotype.Component;
 import org.springframework.web.context.annotation.RequestScope;
 
 
-import static org.bson.codecs.configuration.CodecRegistries.fromProviders;
-import static org.bson.codecs.configuration.CodecRegistries.fromRegistries;
-
 /**
  * Service that connects to the accounts database and provides methods to interact with the account
  */
@@ -72,16 +67,14 @@ public class AccountService implements IAccountService {
 
     @Override
     public boolean withdraw(String accountId, double amount) throws SQLException {
-        double currentBalance = getBalance(accountId);
-        double newBalance = currentBalance - amount;
-        return updateBalance(session, accountId, newBalance);
+        // The balance guard and the decrement are applied by the server in one update, so concurrent withdrawals
+        // can neither overdraw the account nor lose an update
+        return updateBalance(session, Filters.and(Filters.eq("accountId", accountId), Filters.gte("amount", amount)), -amount);
     }
 
     @Override
     public boolean deposit(String accountId, double amount) throws SQLException {
-        double currentBalance = getBalance(accountId);
-        double newBalance = currentBalance + amount;
-        return updateBalance(session, accountId, newBalance);
+        return updateBalance(session, Filters.eq("accountId", accountId), amount);
     }
 
     @Override
@@ -94,13 +87,11 @@ public class AccountService implements IAccountService {
     }
 
     private MongoCollection<Account> getAccounts() {
-        CodecRegistry pojoCodecRegistry = fromRegistries(MongoClientSettings.getDefaultCodecRegistry(),
-                fromProviders(PojoCodecProvider.builder().register(Account.class).build()));
-        return config.getDatabase().getCollection("accounts", Account.class).withCodecRegistry(pojoCodecRegistry);
+        return config.getAccountsCollection();
     }
 
-    private boolean updateBalance(ClientSession session, String accountId, double newBalance) {
-        UpdateResult result = getAccounts().updateOne(session, Filters.eq("accountId", accountId), Updates.set("amount", newBalance));
-        return result != null && result.wasAcknowledged();
+    private boolean updateBalance(ClientSession session, Bson filter, double delta) {
+        UpdateResult result = getAccounts().updateOne(session, filter, Updates.inc("amount", delta));
+        return result != null && result.wasAcknowledged() && result.getMatchedCount() > 0;
     }
 }
\ No newline at end of file
@@ -24,6 +24,8 @@ package com.oracle.mtm.sample.entity;
 import io.swagger.v3.oas.annotations.media.Schema;
 import org.bson.types.ObjectId;
 
+import java.util.Date;
+
 @Schema(name = "CommitRecord")
 public class CommitRecord {
     private ObjectId id;
@@ -32,6 +34,9 @@ public class CommitRecord {
 
     String timeStamp;
 
+    // Stored as a BSON date so that the TTL index on commitRecords can expire the record
+    Date createdAt;
+
     public CommitRecord() {
 
     }
@@ -52,6 +57,10 @@ public class CommitRecord {
 
     public  void setTimeStamp(String timeStamp){ this.timeStamp = timeStamp;}
 
+    public void setCreatedAt(Date createdAt) {
+        this.createdAt = createdAt;
+    }
+
     public void setCommitRecord(byte[] commitRecord) {
         this.commitRecord = commitRecord;
     }
@@ -66,6 +75,10 @@ public class CommitRecord {
 
     public String getTimeStamp(){ return timeStamp;}
 
+    public Date getCreatedAt() {
+        return createdAt;
+    }
+
     public byte[] getCommitRecord() {
         return commitRecord;
     }
@@ -0,0 +1,209 @@
+/*
+Copyright (c) 2023, Oracle and/or its affiliates. **
+
+The Universal Permissive License (UPL), Version 1.0 **
+
+Subject to the condition set forth below, permission is hereby granted to any person obtaining a copy of this software, associated documentation and/or data
+(collectively the "Software"), free of charge and under any and all copyright rights in the Software, and any and all patent rights owned or freely licensable by each
+licensor hereunder covering either the unmodified Software as contributed to or provided by such licensor, or (ii) the Larger Works (as defined below), to deal in both **
+(a) the Software, and (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if one is included with the Software (each a "Larger Work" to which the
+Software is contributed by such licensors), **
+without restriction, including without limitation the rights to copy, create derivative works of, display, perform, and distribute the Software and make, use, sell,
+offer for sale, import, export, have made, and have sold the Software and the Larger Work(s), and to sublicense the foregoing rights on either these or other terms. **
+
+This license is subject to the following condition: The above copyright notice and either this complete permission notice or at a minimum a reference to the UPL must be
+included in all copies or substantial portions of the Software. **
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A
+PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF
+CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+*/
+package com.oracle.mtm.sample.nonXA;
+
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.IndexOptions;
+import com.mongodb.client.model.Indexes;
+import com.oracle.microtx.springboot.MicroTxClientMain;
+import com.oracle.mtm.sample.NonXADataSourceConfig;
+import com.oracle.mtm.sample.entity.CommitRecord;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Purges expired LLR commit records. By default MongoDB removes them itself through a TTL index on
+ * {@link CommitRecord#getCreatedAt()}. The gtrids handed to {@link #purge(List)} are deleted by a single background
+ * thread in bounded {@code $in} chunks, with a pause between chunks so the purge does not compete with live commits.
+ * The queue is bounded and the gtrids that do not fit, or whose delete fails, are not retried: without the TTL index the
+ * sweeper also deletes every record whose createdAt is older than the expiry interval each sweep interval, and the
+ * records written without createdAt are found again by the recovery scan.
+ */
+@Component
+@DependsOn("mongoDbClient")
+public class CommitRecordSweeper {
+
+    private static final Logger LOG = LoggerFactory.getLogger(CommitRecordSweeper.class);
+
+    static final String COLLECTION_NAME = "commitRecords";
+    static final String TTL_INDEX_NAME = "createdAt_ttl";
+    static final String INDEX_NAME = "createdAt_1";
+
+    private final long commitRecordExpiryMillis;
+
+    @Autowired
+    NonXADataSourceConfig config;
+
+    @Autowired
+    MeterRegistry meterRegistry;
+
+    @Value("${commitRecords.ttlIndex.enabled:true}")
+    boolean ttlIndexEnabled;
+
+    @Value("${commitRecords.purge.batchSize:500}")
+    int batchSize;
+
+    @Value("${commitRecords.purge.queueCapacity:10000}")
+    int queueCapacity;
+
+    @Value("${commitRecords.purge.pauseMillis:100}")
+    long pauseMillis;
+
+    @Value("${commitRecords.purge.sweepIntervalMillis:60000}")
+    long sweepIntervalMillis;
+
+    private BlockingQueue<String> expiredGtrids;
+    private ExecutorService sweeper;
+    private Counter deleted;
+    private Counter dropped;
+
+    @Autowired
+    CommitRecordSweeper(MicroTxClientMain microTxClientMain) {
+        commitRecordExpiryMillis = microTxClientMain.xaLlrDeleteCommitRecordInterval();
+    }
+
+    /**
+     * Creates the createdAt index, loads the live commit records and starts the sweeper thread
+     */
+    @PostConstruct
+    void start() {
+        createIndexes();
+        LlrCommitRecords.loadLLRCommitRecords(getCommitRecordsCollection(), commitRecordExpiryMillis);
+        expiredGtrids = new LinkedBlockingQueue<>(queueCapacity);
+        deleted = Counter.builder("commitRecords.purge.deleted").register(meterRegistry);
+        dropped = Counter.builder("commitRecords.purge.dropped").register(meterRegistry);
+        Gauge.builder("commitRecords.purge.queued", expiredGtrids, BlockingQueue::size).register(meterRegistry);
+        Gauge.builder("commitRecords.inMemory", LlrCommitRecords::size).register(meterRegistry);
+        sweeper = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "commit-record-sweeper");
+            thread.setDaemon(true);
+            return thread;
+        });
+        sweeper.execute(this::sweep);
+    }
+
+    @PreDestroy
+    void stop() {
+        sweeper.shutdownNow();
+    }
+
+    /**
+     * @return true when MongoDB expires the commit records through the TTL index
+     */
+    public boolean isTtlIndexEnabled() {
+        return ttlIndexEnabled;
+    }
+
+    /**
+     * Queues the commit records of the given gtrids for deletion without waiting for it
+     */
+    public void purge(List<String> gtrids) {
+        for (String gtrid : gtrids) {
+            if (!expiredGtrids.offer(gtrid)) {
+                dropped.increment();
+            }
+        }
+    }
+
+    private void sweep() {
+        List<String> chunk = new ArrayList<>(batchSize);
+        long nextSweep = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(sweepIntervalMillis);
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                String gtrid = expiredGtrids.poll(Math.max(nextSweep - System.nanoTime(), 0), TimeUnit.NANOSECONDS);
+                if (gtrid != null) {
+                    chunk.add(gtrid);
+                    expiredGtrids.drainTo(chunk, batchSize - 1);
+                    deleted.increment(getCommitRecordsCollection().deleteMany(Filters.in("gtrid", chunk)).getDeletedCount());
+                    chunk.clear();
+                    TimeUnit.MILLISECONDS.sleep(pauseMillis);
+                }
+                if (System.nanoTime() - nextSweep >= 0) {
+                    nextSweep = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(sweepIntervalMillis);
+                    sweepExpired();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (Exception e) {
+                // Not retried: the TTL index or the next sweepExpired deletes them, and the recovery scan finds the
+                // records written without createdAt again
+                LOG.warn("Failed to purge {} commit records: {}", chunk.size(), e.getMessage());
+                chunk.clear();
+            }
+        }
+    }
+
+    /**
+     * Deletes the records whose createdAt is older than the expiry interval, catching the gtrids that were dropped
+     * from the queue or whose delete failed. Not needed with the TTL index, which already expires them.
+     */
+    private void sweepExpired() {
+        if (!ttlIndexEnabled) {
+            deleted.increment(getCommitRecordsCollection().deleteMany(LlrCommitRecords.expired(commitRecordExpiryMillis)).getDeletedCount());
+        }
+    }
+
+    /**
+     * Creates the index on createdAt used by the recovery scan. It is a TTL index unless that is disabled or
+     * not supported, in which case expired records are left to the sweeper.
+     */
+    private void createIndexes() {
+        MongoCollection<CommitRecord> collection = getCommitRecordsCollection();
+        if (ttlIndexEnabled) {
+            try {
+                collection.createIndex(Indexes.ascending(LlrCommitRecords.CREATED_AT),
+                        new IndexOptions().name(TTL_INDEX_NAME).expireAfter(commitRecordExpiryMillis, TimeUnit.MILLISECONDS));
+                return;
+            } catch (Exception e) {
+                LOG.warn("Unable to create the TTL index on {}, expired commit records are purged by the sweeper: {}",
+                        COLLECTION_NAME, e.getMessage());
+                ttlIndexEnabled = false;
+            }
+        }
+        try {
+            collection.createIndex(Indexes.ascending(LlrCommitRecords.CREATED_AT), new IndexOptions().name(INDEX_NAME));
+        } catch (Exception e) {
+            LOG.warn("Unable to create the createdAt index on {}: {}", COLLECTION_NAME, e.getMessage());
+        }
+    }
+
+    private MongoCollection<CommitRecord> getCommitRecordsCollection() {
+        return config.getCommitRecordsCollection();
+    }
+}
@@ -23,23 +23,143 @@ package com.oracle.mtm.sample.nonXA;
 
 import com.mongodb.client.MongoCollection;
 import com.mongodb.client.MongoCursor;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.Projections;
+
 import com.oracle.mtm.sample.entity.CommitRecord;
+import org.bson.conversions.Bson;
 
-import java.util.LinkedList;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicInteger;
 
+/**
+ * In-memory index of the LLR commit records written by this department, ordered by commit time. Commits add to it
+ * from several request threads while one of them expires the old records, so the gtrids are kept in per-millisecond
+ * buckets of a skip list and expiry only visits the buckets it removes.
+ */
 public class LlrCommitRecords {
 
     public LlrCommitRecords(){
 
     }
 
-    public static LinkedList<CommitRecord> InMemoryCommitRecordList = new LinkedList<>();
+    private static final ConcurrentNavigableMap<Long, Queue<String>> commitRecordsByTime = new ConcurrentSkipListMap<>();
+
+    private static final AtomicInteger size = new AtomicInteger();
+
+    static final String CREATED_AT = "createdAt";
+
+    /**
+     * Number of documents fetched per round trip when scanning the commit records
+     */
+    static final int SCAN_BATCH_SIZE = 1000;
+
+    /**
+     * Loads the commit records that have not expired yet. Only the gtrid and the commit time are read.
+     */
+    public static void loadLLRCommitRecords(MongoCollection<CommitRecord> commitRecordcollection, long expiryMillis){
+        try (MongoCursor<CommitRecord> cursor = commitRecordcollection.find(notExpired(expiryMillis))
+                .projection(Projections.fields(Projections.include("gtrid", CREATED_AT), Projections.excludeId()))
+                .batchSize(SCAN_BATCH_SIZE)
+                .iterator()) {
+            while (cursor.hasNext()) {
+                add(cursor.next());
+            }
+        }
+        // Records written before createdAt was introduced only carry the string timestamp
+        try (MongoCursor<CommitRecord> cursor = commitRecordcollection.find(withoutCreatedAt())
+                .projection(Projections.fields(Projections.include("gtrid", "timeStamp"), Projections.excludeId()))
+                .batchSize(SCAN_BATCH_SIZE)
+                .iterator()) {
+            while (cursor.hasNext()) {
+                add(cursor.next());
+            }
+        }
+    }
+
+    /**
+     * Filter on the createdAt index matching the commit records written within the last expiryMillis
+     */
+    public static Bson notExpired(long expiryMillis) {
+        return Filters.gt(CREATED_AT, new Date(System.currentTimeMillis() - expiryMillis));
+    }
+
+    /**
+     * Filter on the createdAt index matching the commit records written before the last expiryMillis
+     */
+    public static Bson expired(long expiryMillis) {
+        return Filters.lte(CREATED_AT, new Date(System.currentTimeMillis() - expiryMillis));
+    }
 
-    public static void loadLLRCommitRecords(MongoCollection<CommitRecord> commitRecordcollection){
-        MongoCursor<CommitRecord> cursor = commitRecordcollection.find().iterator();
-        while(cursor.hasNext()){
-            CommitRecord commitRecord = cursor.next();
-            InMemoryCommitRecordList.add(commitRecord);
+    /**
+     * Filter matching the commit records written without createdAt. A missing field is indexed as null, so this
+     * is answered from the createdAt index as well.
+     */
+    public static Bson withoutCreatedAt() {
+        return Filters.eq(CREATED_AT, null);
+    }
+
+    /**
+     * Records the gtrid of a commit record under its commit time
+     */
+    public static void add(CommitRecord commitRecord) {
+        long commitTime = commitRecord.getCreatedAt() != null ? commitRecord.getCreatedAt().getTime()
+                : Timestamp.valueOf(commitRecord.getTimeStamp()).getTime();
+        while (true) {
+            Queue<String> bucket = commitRecordsByTime.computeIfAbsent(commitTime, time -> new ConcurrentLinkedQueue<>());
+            // The bucket lock orders the add with its expiry, a bucket expired in the meantime is replaced
+            synchronized (bucket) {
+                if (commitRecordsByTime.get(commitTime) == bucket) {
+                    bucket.add(commitRecord.getGtrid());
+                    break;
+                }
+            }
+        }
+        size.incrementAndGet();
+    }
+
+    /**
+     * Removes the commit records written at or before the given time
+     *
+     * @param expiryTime time in milliseconds since the epoch
+     * @return the gtrids of the removed commit records
+     */
+    public static List<String> removeExpired(long expiryTime) {
+        List<String> expiredGtrids = new ArrayList<>();
+        Map.Entry<Long, Queue<String>> bucket;
+        while ((bucket = pollFirstBucket(expiryTime)) != null) {
+            expiredGtrids.addAll(bucket.getValue());
+        }
+        size.addAndGet(-expiredGtrids.size());
+        return expiredGtrids;
+    }
+
+    /**
+     * @return the number of commit records held in memory
+     */
+    public static int size() {
+        return size.get();
+    }
+
+    private static Map.Entry<Long, Queue<String>> pollFirstBucket(long expiryTime) {
+        Map.Entry<Long, Queue<String>> first = commitRecordsByTime.firstEntry();
+        if (first == null || first.getKey() > expiryTime) {
+            return null;
+        }
+        // Another thread may have expired the same bucket in the meantime, remove() tells which one got it. Once
+        // removed under the bucket lock no gtrid is added to the bucket any more.
+        boolean removed;
+        synchronized (first.getValue()) {
+            removed = commitRecordsByTime.remove(first.getKey(), first.getValue());
         }
+        return removed ? first : pollFirstBucket(expiryTime);
     }
-}
\ No newline at end of file
+}
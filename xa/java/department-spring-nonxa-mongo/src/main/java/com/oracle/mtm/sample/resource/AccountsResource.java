@@ -70,6 +70,7 @@ public class AccountsResource {
             @ApiResponse(responseCode = "200", description = "Amount withdrawn from the account"),
             @ApiResponse(responseCode = "422", description = "Amount must be greater than zero"),
             @ApiResponse(responseCode = "422", description = "Insufficient balance in the account"),
+            @ApiResponse(responseCode = "404", description = "No account found for the provided account Identity"),
             @ApiResponse(responseCode = "500", description = "Internal Server Error")
     })
     @RequestMapping(value = "/{accountId}/withdraw", method = RequestMethod.POST)
@@ -78,18 +79,19 @@ public class AccountsResource {
             return ResponseEntity.status(HttpStatus.UNPROCESSABLE_ENTITY).body("Amount must be greater than zero");
         }
         try {
-            if (this.accountService.getBalance(accountId) < amount) {
-                return ResponseEntity.status(HttpStatus.UNPROCESSABLE_ENTITY).body("Insufficient balance in the account");
-            }
             if(this.accountService.withdraw(accountId, amount)) {
                 LOG.info(amount + " withdrawn from account: " + accountId);
                 return ResponseEntity.ok("Amount withdrawn from the account");
             }
+            // The guarded update matched no account, it is only read to report why
+            if (this.accountService.accountDetails(accountId) == null) {
+                return ResponseEntity.status(HttpStatus.NOT_FOUND).body("No account found for the provided account Identity");
+            }
+            return ResponseEntity.status(HttpStatus.UNPROCESSABLE_ENTITY).body("Insufficient balance in the account");
         } catch (SQLException | IllegalArgumentException e) {
             LOG.error(e.getLocalizedMessage());
             return ResponseEntity.internalServerError().body(e.getLocalizedMessage());
         }
-        return ResponseEntity.internalServerError().body("Withdraw failed");
     }
 
     @ApiResponses(value = {
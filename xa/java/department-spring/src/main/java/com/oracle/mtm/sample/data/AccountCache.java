@@ -0,0 +1,259 @@
+/*
+Copyright (c) 2023, Oracle and/or its affiliates. **
+
+The Universal Permissive License (UPL), Version 1.0 **
+
+Subject to the condition set forth below, permission is hereby granted to any person obtaining a copy of this software, associated documentation and/or data
+(collectively the "Software"), free of charge and under any and all copyright rights in the Software, and any and all patent rights owned or freely licensable by each
+licensor hereunder covering either the unmodified Software as contributed to or provided by such licensor, or (ii) the Larger Works (as defined below), to deal in both **
+(a) the Software, and (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if one is included with the Software (each a "Larger Work" to which the
+Software is contributed by such licensors), **
+without restriction, including without limitation the rights to copy, create derivative works of, display, perform, and distribute the Software and make, use, sell,
+offer for sale, import, export, have made, and have sold the Software and the Larger Work(s), and to sublicense the foregoing rights on either these or other terms. **
+
+This license is subject to the following condition: The above copyright notice and either this complete permission notice or at a minimum a reference to the UPL must be
+included in all copies or substantial portions of the Software. **
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A
+PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF
+CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+*/
+package com.oracle.mtm.sample.data;
+
+import com.oracle.microtx.store.MicroTxXaTxnStoreService;
+import com.oracle.microtx.xa.synchronization.TrmRegisterSynchronization;
+import com.oracle.mtm.sample.entity.Account;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Read-through cache of committed account details, bounded by size and entry time-to-live.
+ * Reads made inside a global transaction bypass the cache so that a branch always sees its own uncommitted updates
+ * and never publishes them to other readers. Accounts updated by a branch are invalidated only once the
+ * transaction manager reports the outcome of the transaction through the registered synchronization callback.
+ * Until then the accounts are not cached; a transaction whose outcome is not reported within the transaction timeout
+ * stops holding them back and they are cached again, for the time-to-live.
+ */
+@Component
+public class AccountCache {
+    private static final Logger LOG = LoggerFactory.getLogger(AccountCache.class);
+
+    public static final String SYNCHRONIZATION_CALLBACK_URI = "/accounts-cache-sync";
+
+    private static final int INVALIDATION_STRIPES = 64;
+
+    @Value("${accountCache.enabled:false}")
+    private boolean enabled;
+
+    @Value("${accountCache.max-size:1000}")
+    private int maxSize;
+
+    @Value("${accountCache.ttl-millis:5000}")
+    private long ttlMillis;
+
+    @Value("${spring.microtx.xa-transaction-timeout:60000}")
+    private long transactionTimeoutMillis;
+
+    @Autowired
+    TrmRegisterSynchronization trmRegisterSynchronization;
+
+    @Autowired
+    MicroTxXaTxnStoreService microTxXaTxnStoreService;
+
+    private final Map<String, CachedAccount> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final Map<String, PendingInvalidation> pendingInvalidations = new ConcurrentHashMap<>();
+    // Invalidation versions by account stripe, a load is discarded only if its own stripe was invalidated meanwhile
+    private final AtomicLongArray invalidations = new AtomicLongArray(INVALIDATION_STRIPES);
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    /**
+     * Returns the committed account details, loading and caching them on a miss
+     * @param accountId Account identity
+     * @param loader Reads the account details from the database
+     * @return Returns the account details associated with the account
+     */
+    public <E extends Exception> Account get(String accountId, AccountLoader<E> loader) throws E {
+        if (!enabled || currentTransactionId() != null) {
+            return loader.load(accountId);
+        }
+        long now = System.currentTimeMillis();
+        synchronized (entries) {
+            CachedAccount cached = entries.get(accountId);
+            if (cached != null && cached.expiresAt > now) {
+                hits.incrementAndGet();
+                return cached.copy();
+            }
+            if (cached != null) {
+                entries.remove(accountId);
+                evictions.incrementAndGet();
+            }
+        }
+        misses.incrementAndGet();
+        long versionBeforeLoad = invalidations.get(stripe(accountId));
+        Account account = loader.load(accountId);
+        if (account != null) {
+            put(account, versionBeforeLoad);
+        }
+        return account;
+    }
+
+    /**
+     * Records an update to the account in the current global transaction. The cached details are
+     * invalidated once the transaction completes.
+     * @param accountId Account identity
+     */
+    public void updated(String accountId) {
+        if (!enabled) {
+            return;
+        }
+        String gtrid = currentTransactionId();
+        if (gtrid == null) {
+            invalidate(Collections.singleton(accountId));
+            return;
+        }
+        expirePendingInvalidations();
+        PendingInvalidation pending = pendingInvalidations.computeIfAbsent(gtrid, id -> {
+            try {
+                trmRegisterSynchronization.register(id, SYNCHRONIZATION_CALLBACK_URI);
+            } catch (Exception e) {
+                // Without the callback the outcome is never reported, entries expire after the time-to-live
+                LOG.warn("Error while registering to MicroTx transaction events " + e.getLocalizedMessage());
+                return null;
+            }
+            return new PendingInvalidation(System.currentTimeMillis() + transactionTimeoutMillis);
+        });
+        if (pending != null) {
+            pending.accountIds.add(accountId);
+        }
+        invalidate(Collections.singleton(accountId));
+    }
+
+    /**
+     * Invalidates the accounts updated by the transaction once the transaction manager reports its outcome
+     * @param gtrid Global transaction identity
+     * @param committed If the transaction was committed
+     */
+    public void afterCompletion(String gtrid, boolean committed) {
+        PendingInvalidation pending = pendingInvalidations.remove(gtrid);
+        if (pending != null && committed) {
+            invalidate(pending.accountIds);
+        }
+    }
+
+    /**
+     * Hit and miss counts of the cache
+     * @return Returns the cache statistics
+     */
+    public Map<String, Object> statistics() {
+        long hitCount = hits.get();
+        long missCount = misses.get();
+        Map<String, Object> statistics = new LinkedHashMap<>();
+        statistics.put("enabled", enabled);
+        synchronized (entries) {
+            statistics.put("size", entries.size());
+        }
+        statistics.put("hits", hitCount);
+        statistics.put("misses", missCount);
+        statistics.put("hitRatio", hitCount + missCount == 0 ? 0.0 : (double) hitCount / (hitCount + missCount));
+        statistics.put("evictions", evictions.get());
+        statistics.put("pendingTransactions", pendingInvalidations.size());
+        return statistics;
+    }
+
+    private void put(Account account, long versionBeforeLoad) {
+        String accountId = account.getAccountId();
+        synchronized (entries) {
+            // An account invalidated while it was being read may have been loaded before the commit
+            if (invalidations.get(stripe(accountId)) != versionBeforeLoad || isPending(accountId)) {
+                return;
+            }
+            entries.put(accountId, new CachedAccount(account, System.currentTimeMillis() + ttlMillis));
+            Iterator<CachedAccount> eldest = entries.values().iterator();
+            while (entries.size() > maxSize && eldest.hasNext()) {
+                eldest.next();
+                eldest.remove();
+                evictions.incrementAndGet();
+            }
+        }
+    }
+
+    private void invalidate(Collection<String> accountIds) {
+        synchronized (entries) {
+            for (String accountId : accountIds) {
+                invalidations.incrementAndGet(stripe(accountId));
+            }
+            entries.keySet().removeAll(accountIds);
+        }
+    }
+
+    private static int stripe(String accountId) {
+        return Math.floorMod(accountId.hashCode(), INVALIDATION_STRIPES);
+    }
+
+    private boolean isPending(String accountId) {
+        expirePendingInvalidations();
+        for (PendingInvalidation pending : pendingInvalidations.values()) {
+            if (pending.accountIds.contains(accountId)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Drops the transactions whose outcome was not reported within the transaction timeout, the callback may never come
+     */
+    private void expirePendingInvalidations() {
+        long now = System.currentTimeMillis();
+        pendingInvalidations.values().removeIf(pending -> pending.expiresAt <= now);
+    }
+
+    private String currentTransactionId() {
+        return microTxXaTxnStoreService.getGlobalTransactionId();
+    }
+
+    /**
+     * Reads account details from the database on a cache miss
+     */
+    @FunctionalInterface
+    public interface AccountLoader<E extends Exception> {
+        Account load(String accountId) throws E;
+    }
+
+    private static class PendingInvalidation {
+        private final Set<String> accountIds = ConcurrentHashMap.newKeySet();
+        private final long expiresAt;
+
+        PendingInvalidation(long expiresAt) {
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    private static class CachedAccount {
+        private final String accountId;
+        private final String name;
+        private final double amount;
+        private final long expiresAt;
+
+        CachedAccount(Account account, long expiresAt) {
+            this.accountId = account.getAccountId();
+            this.name = account.getName();
+            this.amount = account.getAmount();
+            this.expiresAt = expiresAt;
+        }
+
+        Account copy() {
+            return new Account(accountId, name, amount);
+        }
+    }
+}
@@ -30,6 +30,7 @@ import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.context.annotation.Lazy;
 import org.springframework.stereotype.Component;
 import com.oracle.mtm.sample.entity.Account;
+import com.oracle.mtm.sample.entity.AccountOperation;
 import org.springframework.web.context.annotation.RequestScope;
 
 import javax.sql.XAConnection;
@@ -49,6 +50,8 @@ public class AccountService implements IAccountService {
     @Lazy
     private Connection connection;
 
+    @Autowired
+    private AccountCache accountCache;
 
     /**
      * Get account details persisted in the database
@@ -58,6 +61,10 @@ public class AccountService implements IAccountService {
      */
     @Override
     public Account accountDetails(String accountId) throws SQLException {
+        return accountCache.get(accountId, this::readAccount);
+    }
+
+    private Account readAccount(String accountId) throws SQLException {
         Account account = null;
         PreparedStatement statement = null;
         try {
@@ -96,6 +103,7 @@ public class AccountService implements IAccountService {
         try(PreparedStatement statement = connection.prepareStatement(query);) {
             statement.setDouble(1, amount);
             statement.setString(2, accountId);
+            accountCache.updated(accountId);
             return statement.executeUpdate() > 0;
         }
     }
@@ -113,6 +121,7 @@ public class AccountService implements IAccountService {
         try(PreparedStatement statement = connection.prepareStatement(query);) {
             statement.setDouble(1, amount);
             statement.setString(2, accountId);
+            accountCache.updated(accountId);
             return statement.executeUpdate() > 0;
         }
     }
@@ -125,14 +134,61 @@ public class AccountService implements IAccountService {
      */
     @Override
     public double getBalance(String accountId) throws SQLException {
-        String query = "SELECT amount FROM accounts where account_id=?";
+        Account account = accountCache.get(accountId, this::readAccount);
+        if (account != null) {
+            return account.getAmount();
+        }
+        throw new IllegalArgumentException("Account not found");
+    }
+
+    /**
+     * Withdraw amounts from several accounts in a single batch on the enlisted connection.
+     * An account is only debited if its balance covers the amount.
+     * @param withdrawals The accounts and the amounts to be withdrawn from them
+     * @return If every withdrawal was successful
+     * @throws SQLException
+     */
+    @Override
+    public boolean withdraw(List<AccountOperation> withdrawals) throws SQLException {
+        String query = "UPDATE accounts SET amount=amount-? where account_id=? and amount>=?";
         try(PreparedStatement statement = connection.prepareStatement(query);) {
-            statement.setString(1, accountId);
-            ResultSet dataSet = statement.executeQuery();
-            if (dataSet.next()) {
-                return Double.parseDouble(dataSet.getString("amount"));
+            for (AccountOperation withdrawal : withdrawals) {
+                statement.setDouble(1, withdrawal.getAmount());
+                statement.setString(2, withdrawal.getAccountId());
+                statement.setDouble(3, withdrawal.getAmount());
+                statement.addBatch();
+                accountCache.updated(withdrawal.getAccountId());
             }
+            return allRowsUpdated(statement.executeBatch());
         }
-        throw new IllegalArgumentException("Account not found");
     }
-}
\ No newline at end of file
+
+    /**
+     * Deposit amounts to several accounts in a single batch on the enlisted connection
+     * @param deposits The accounts and the amounts to be deposited into them
+     * @return If every deposit was successful
+     * @throws SQLException
+     */
+    @Override
+    public boolean deposit(List<AccountOperation> deposits) throws SQLException {
+        String query = "UPDATE accounts SET amount=amount+? where account_id=?";
+        try(PreparedStatement statement = connection.prepareStatement(query);) {
+            for (AccountOperation deposit : deposits) {
+                statement.setDouble(1, deposit.getAmount());
+                statement.setString(2, deposit.getAccountId());
+                statement.addBatch();
+                accountCache.updated(deposit.getAccountId());
+            }
+            return allRowsUpdated(statement.executeBatch());
+        }
+    }
+
+    private static boolean allRowsUpdated(int[] updateCounts) {
+        for (int updateCount : updateCounts) {
+            if (updateCount == 0 || updateCount == Statement.EXECUTE_FAILED) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
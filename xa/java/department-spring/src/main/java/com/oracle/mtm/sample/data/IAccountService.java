@@ -21,9 +21,11 @@ CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFT
 package com.oracle.mtm.sample.data;
 
 import com.oracle.mtm.sample.entity.Account;
+import com.oracle.mtm.sample.entity.AccountOperation;
 
 import java.sql.Connection;
 import java.sql.SQLException;
+import java.util.List;
 
 /**
  * Interface for account database service
@@ -63,4 +65,21 @@ public interface IAccountService {
      * @throws SQLException
      */
     double getBalance(String accountId) throws SQLException;
+
+    /**
+     * Withdraw amounts from several accounts in a single batch on the enlisted connection.
+     * An account is only debited if its balance covers the amount.
+     * @param withdrawals The accounts and the amounts to be withdrawn from them
+     * @return If every withdrawal was successful
+     * @throws SQLException
+     */
+    boolean withdraw(List<AccountOperation> withdrawals) throws SQLException;
+
+    /**
+     * Deposit amounts to several accounts in a single batch on the enlisted connection
+     * @param deposits The accounts and the amounts to be deposited into them
+     * @return If every deposit was successful
+     * @throws SQLException
+     */
+    boolean deposit(List<AccountOperation> deposits) throws SQLException;
 }
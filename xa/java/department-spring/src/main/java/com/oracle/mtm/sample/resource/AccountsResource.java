@@ -20,8 +20,10 @@ CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFT
 */
 package com.oracle.mtm.sample.resource;
 
+import com.oracle.mtm.sample.data.AccountCache;
 import com.oracle.mtm.sample.data.IAccountService;
 import com.oracle.mtm.sample.entity.Account;
+import com.oracle.mtm.sample.entity.AccountOperation;
 import io.swagger.v3.oas.annotations.OpenAPIDefinition;
 import io.swagger.v3.oas.annotations.info.Info;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -37,6 +39,7 @@ import org.springframework.web.bind.annotation.*;
 import org.springframework.http.MediaType;
 
 import java.sql.SQLException;
+import java.util.List;
 
 @RestController
 @RequestMapping("/accounts")
@@ -47,6 +50,17 @@ public class AccountsResource {
     @Autowired
     IAccountService accountService;
 
+    @Autowired
+    AccountCache accountCache;
+
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Hit and miss counts of the account cache")
+    })
+    @RequestMapping(value = "/cache/statistics", method = RequestMethod.GET, produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<?> getCacheStatistics() {
+        return ResponseEntity.ok(accountCache.statistics());
+    }
+
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Account Details",
                     content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE, schema = @Schema(ref = "Account"))),
@@ -115,4 +129,55 @@ public class AccountsResource {
         }
         return ResponseEntity.internalServerError().body("Deposit failed");
     }
-}
\ No newline at end of file
+
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Amounts withdrawn from the accounts"),
+            @ApiResponse(responseCode = "422", description = "Amount must be greater than zero"),
+            @ApiResponse(responseCode = "422", description = "Insufficient balance or no account found for an account Identity"),
+            @ApiResponse(responseCode = "500", description = "Internal Server Error")
+    })
+    @RequestMapping(value = "/withdraw", method = RequestMethod.POST, consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<?> withdraw(@RequestBody List<AccountOperation> withdrawals) {
+        if (!validAmounts(withdrawals)) {
+            return ResponseEntity.status(HttpStatus.UNPROCESSABLE_ENTITY).body("Amount must be greater than zero");
+        }
+        try {
+            if (this.accountService.withdraw(withdrawals)) {
+                LOG.info(withdrawals.size() + " withdrawals completed");
+                return ResponseEntity.ok("Amounts withdrawn from the accounts");
+            }
+            return ResponseEntity.status(HttpStatus.UNPROCESSABLE_ENTITY).body("Insufficient balance or no account found for an account Identity");
+        } catch (SQLException e) {
+            LOG.error(e.getLocalizedMessage());
+            return ResponseEntity.internalServerError().body(e.getLocalizedMessage());
+        }
+    }
+
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Amounts deposited to the accounts"),
+            @ApiResponse(responseCode = "422", description = "Amount must be greater than zero"),
+            @ApiResponse(responseCode = "422", description = "No account found for an account Identity"),
+            @ApiResponse(responseCode = "500", description = "Internal Server Error")
+    })
+    @RequestMapping(value = "/deposit", method = RequestMethod.POST, consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<?> deposit(@RequestBody List<AccountOperation> deposits) {
+        if (!validAmounts(deposits)) {
+            return ResponseEntity.status(HttpStatus.UNPROCESSABLE_ENTITY).body("Amount must be greater than zero");
+        }
+        try {
+            if (this.accountService.deposit(deposits)) {
+                LOG.info(deposits.size() + " deposits completed");
+                return ResponseEntity.ok("Amounts deposited to the accounts");
+            }
+            return ResponseEntity.status(HttpStatus.UNPROCESSABLE_ENTITY).body("No account found for an account Identity");
+        } catch (SQLException e) {
+            LOG.error(e.getLocalizedMessage());
+            return ResponseEntity.internalServerError().body(e.getLocalizedMessage());
+        }
+    }
+
+    private static boolean validAmounts(List<AccountOperation> operations) {
+        return operations != null && !operations.isEmpty()
+                && operations.stream().allMatch(operation -> operation.getAmount() > 0);
+    }
+}
@@ -0,0 +1,271 @@
+/*
+Copyright (c) 2023, Oracle and/or its affiliates. **
+
+The Universal Permissive License (UPL), Version 1.0 **
+
+Subject to the condition set forth below, permission is hereby granted to any person obtaining a copy of this software, associated documentation and/or data
+(collectively the "Software"), free of charge and under any and all copyright rights in the Software, and any and all patent rights owned or freely licensable by each
+licensor hereunder covering either the unmodified Software as contributed to or provided by such licensor, or (ii) the Larger Works (as defined below), to deal in both **
+(a) the Software, and (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if one is included with the Software (each a "Larger Work" to which the
+Software is contributed by such licensors), **
+without restriction, including without limitation the rights to copy, create derivative works of, display, perform, and distribute the Software and make, use, sell,
+offer for sale, import, export, have made, and have sold the Software and the Larger Work(s), and to sublicense the foregoing rights on either these or other terms. **
+
+This license is subject to the following condition: The above copyright notice and either this complete permission notice or at a minimum a reference to the UPL must be
+included in all copies or substantial portions of the Software. **
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A
+PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF
+CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+*/
+package com.oracle.mtm.sample;
+
+import com.oracle.mtm.sample.entity.AccountActivity;
+import com.oracle.mtm.sample.entity.AccountEvent;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.jms.JMSException;
+import jakarta.jms.Message;
+import jakarta.jms.MessageConsumer;
+import jakarta.jms.Session;
+import jakarta.jms.TextMessage;
+import jakarta.jms.Topic;
+import jakarta.jms.TopicConnection;
+import oracle.jakarta.jms.AQjmsFactory;
+import oracle.jakarta.jms.AQjmsSession;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Consumes the account events of the department topic in batches, on {@code eventsConsumer.sessions} sessions of
+ * the {@code eventsConsumer.subscriberName} recipient, each with its own connection and thread. The departments
+ * publish the shard of the account of each event in the {@code accountShard} property, and each session dequeues
+ * the events of its own range of shards with a selector: the events of an account are consumed by a single session,
+ * in the order they were dequeued, and the sessions merge disjoint accounts.
+ * <p>
+ * Each session dequeues up to {@code eventsConsumer.batchSize} messages, aggregates them per account, merges them
+ * into account_activity and acknowledges them in one local transaction of its TEQ session, which also owns the
+ * database connection of the merge: a batch is either applied and removed from the topic or rolled back and dequeued
+ * again.
+ */
+@Component
+public class AccountEventsConsumer {
+
+    private static final Logger LOG = LoggerFactory.getLogger(AccountEventsConsumer.class);
+
+    /**
+     * Number of account shards, the range of {@code accountShard} set by the departments
+     */
+    static final int ACCOUNT_SHARDS = 64;
+
+    private static final String MERGE_ACTIVITY = "MERGE INTO account_activity a "
+            + "USING (SELECT ? account_id, ? net_amount, ? events, ? last_event_at FROM dual) e "
+            + "ON (a.account_id = e.account_id) "
+            + "WHEN MATCHED THEN UPDATE SET a.net_amount = a.net_amount + e.net_amount, a.events = a.events + e.events, "
+            + "a.last_event_at = GREATEST(a.last_event_at, e.last_event_at) "
+            + "WHEN NOT MATCHED THEN INSERT (account_id, net_amount, events, last_event_at) "
+            + "VALUES (e.account_id, e.net_amount, e.events, e.last_event_at)";
+
+    @Autowired
+    @Qualifier("eventsDataSource")
+    DataSource dataSource;
+
+    @Value("${departmentDataSource.user}")
+    private String username;
+
+    @Value("${departmentDataSource.jms.topicName}")
+    private String topicName;
+
+    @Value("${eventsConsumer.subscriberName:my_subscription}")
+    private String subscriberName;
+
+    @Value("${eventsConsumer.sessions:4}")
+    private int sessions;
+
+    @Value("${eventsConsumer.batchSize:500}")
+    private int batchSize;
+
+    @Value("${eventsConsumer.pollMillis:1000}")
+    private long pollMillis;
+
+    @Value("${eventsConsumer.statsIntervalSeconds:10}")
+    private long statsIntervalSeconds;
+
+    private final List<Thread> consumers = new ArrayList<>();
+
+    /**
+     * Starts a consumer thread per session, each with an equal share of the account shards
+     */
+    @PostConstruct
+    void start() {
+        if (sessions < 1 || sessions > ACCOUNT_SHARDS) {
+            throw new IllegalStateException("eventsConsumer.sessions must be between 1 and " + ACCOUNT_SHARDS);
+        }
+        for (int i = 0; i < sessions; i++) {
+            ShardConsumer shardConsumer = new ShardConsumer(i * ACCOUNT_SHARDS / sessions, (i + 1) * ACCOUNT_SHARDS / sessions - 1);
+            Thread consumer = new Thread(shardConsumer::consume, "account-events-consumer-" + i);
+            consumer.start();
+            consumers.add(consumer);
+        }
+    }
+
+    @PreDestroy
+    void stop() {
+        consumers.forEach(Thread::interrupt);
+    }
+
+    /**
+     * Aggregates the events of a batch per account
+     */
+    private static Collection<AccountActivity> aggregate(List<AccountEvent> events) {
+        Map<String, AccountActivity> activities = new LinkedHashMap<>();
+        for (AccountEvent event : events) {
+            activities.computeIfAbsent(event.getAccountId(), AccountActivity::new).add(event);
+        }
+        return activities.values();
+    }
+
+    private static void merge(Connection connection, Collection<AccountActivity> activities) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(MERGE_ACTIVITY)) {
+            for (AccountActivity activity : activities) {
+                statement.setString(1, activity.getAccountId());
+                statement.setBigDecimal(2, activity.getNetAmount());
+                statement.setInt(3, activity.getEvents());
+                statement.setTimestamp(4, new Timestamp(activity.getLastEventAt()));
+                statement.addBatch();
+            }
+            statement.executeBatch();
+        }
+    }
+
+    private void pause() {
+        try {
+            Thread.sleep(pollMillis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void close(TopicConnection connection) {
+        if (connection == null) {
+            return;
+        }
+        try {
+            connection.close();
+        } catch (JMSException e) {
+            LOG.warn("Failed to close the account events consumer connection", e);
+        }
+    }
+
+    /**
+     * The session consuming the events of the accounts in a range of shards
+     */
+    private class ShardConsumer {
+        private final int firstShard;
+        private final int lastShard;
+        private long consumedSinceStats;
+        private long statsStartedAt;
+
+        ShardConsumer(int firstShard, int lastShard) {
+            this.firstShard = firstShard;
+            this.lastShard = lastShard;
+        }
+
+        void consume() {
+            statsStartedAt = System.nanoTime();
+            while (!Thread.currentThread().isInterrupted()) {
+                TopicConnection connection = null;
+                try {
+                    connection = AQjmsFactory.getTopicConnectionFactory(dataSource).createTopicConnection();
+                    AQjmsSession session = (AQjmsSession) connection.createSession(true, Session.AUTO_ACKNOWLEDGE);
+                    Topic topic = session.getTopic(username, topicName);
+                    // The departments address the events to the recipient, which the receivers of all sessions share
+                    MessageConsumer receiver = session.createTopicReceiver(topic, subscriberName, selector());
+                    connection.start();
+                    while (!Thread.currentThread().isInterrupted()) {
+                        consumeBatch(session, receiver);
+                    }
+                } catch (Exception e) {
+                    LOG.error("Account events consumer of shards {}-{} failed, reconnecting", firstShard, lastShard, e);
+                    pause();
+                } finally {
+                    close(connection);
+                }
+            }
+        }
+
+        /**
+         * Selects the events of the shards of this session. The first session also takes the events published
+         * without a shard.
+         */
+        private String selector() {
+            String selector = "accountShard BETWEEN " + firstShard + " AND " + lastShard;
+            return firstShard == 0 ? selector + " OR accountShard IS NULL" : selector;
+        }
+
+        /**
+         * Dequeues, processes and acknowledges one batch of messages
+         */
+        private void consumeBatch(AQjmsSession session, MessageConsumer receiver) throws JMSException, SQLException {
+            List<AccountEvent> events = new ArrayList<>(batchSize);
+            int messages = 0;
+            long oldestPublishedAt = Long.MAX_VALUE;
+            try {
+                Message message = receiver.receive(pollMillis);
+                while (message != null) {
+                    messages++;
+                    oldestPublishedAt = Math.min(oldestPublishedAt, message.getJMSTimestamp());
+                    if (message instanceof TextMessage) {
+                        AccountEvent event = AccountEvent.parse(((TextMessage) message).getText(), message.getJMSTimestamp());
+                        if (event != null) {
+                            events.add(event);
+                        }
+                    }
+                    message = messages < batchSize ? receiver.receiveNoWait() : null;
+                }
+                if (messages == 0) {
+                    logStats(0);
+                    return;
+                }
+                merge(session.getDBConnection(), aggregate(events));
+                session.commit();
+            } catch (JMSException | SQLException e) {
+                session.rollback();
+                throw e;
+            }
+            consumedSinceStats += events.size();
+            logStats(System.currentTimeMillis() - oldestPublishedAt);
+        }
+
+        /**
+         * Logs the throughput of the session since its previous log line and the lag of its last batch, the time
+         * its oldest message waited in the topic
+         */
+        private void logStats(long lagMillis) {
+            long elapsedNanos = System.nanoTime() - statsStartedAt;
+            if (elapsedNanos < TimeUnit.SECONDS.toNanos(statsIntervalSeconds)) {
+                return;
+            }
+            LOG.info("Consumed {} account events/s of shards {}-{}, lag {} ms", consumedSinceStats * TimeUnit.SECONDS.toNanos(1) / elapsedNanos,
+                    firstShard, lastShard, lagMillis);
+            consumedSinceStats = 0;
+            statsStartedAt = System.nanoTime();
+        }
+    }
+}
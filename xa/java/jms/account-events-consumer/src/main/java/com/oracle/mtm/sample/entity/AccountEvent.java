@@ -0,0 +1,80 @@
+/*
+Copyright (c) 2023, Oracle and/or its affiliates. **
+
+The Universal Permissive License (UPL), Version 1.0 **
+
+Subject to the condition set forth below, permission is hereby granted to any person obtaining a copy of this software, associated documentation and/or data
+(collectively the "Software"), free of charge and under any and all copyright rights in the Software, and any and all patent rights owned or freely licensable by each
+licensor hereunder covering either the unmodified Software as contributed to or provided by such licensor, or (ii) the Larger Works (as defined below), to deal in both **
+(a) the Software, and (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if one is included with the Software (each a "Larger Work" to which the
+Software is contributed by such licensors), **
+without restriction, including without limitation the rights to copy, create derivative works of, display, perform, and distribute the Software and make, use, sell,
+offer for sale, import, export, have made, and have sold the Software and the Larger Work(s), and to sublicense the foregoing rights on either these or other terms. **
+
+This license is subject to the following condition: The above copyright notice and either this complete permission notice or at a minimum a reference to the UPL must be
+included in all copies or substantial portions of the Software. **
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A
+PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF
+CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+*/
+package com.oracle.mtm.sample.entity;
+
+import java.math.BigDecimal;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * A withdraw or deposit event published by the department, one per message
+ */
+public class AccountEvent {
+
+    private static final Pattern EVENT = Pattern.compile("^(Withdrawn|Deposited): \\$([0-9.E+-]+) (?:from|in) account: (.+)$");
+
+    private final String accountId;
+    private final BigDecimal amount;
+    private final long publishedAt;
+
+    public AccountEvent(String accountId, BigDecimal amount, long publishedAt) {
+        this.accountId = accountId;
+        this.amount = amount;
+        this.publishedAt = publishedAt;
+    }
+
+    /**
+     * Parses the event of a message
+     *
+     * @param payload     text of the message
+     * @param publishedAt JMSTimestamp of the message
+     * @return the event, or null if the message is not an account event
+     */
+    public static AccountEvent parse(String payload, long publishedAt) {
+        if (payload == null) {
+            return null;
+        }
+        Matcher matcher = EVENT.matcher(payload.trim());
+        if (!matcher.matches()) {
+            return null;
+        }
+        BigDecimal amount = new BigDecimal(matcher.group(2));
+        if (matcher.group(1).equals("Withdrawn")) {
+            amount = amount.negate();
+        }
+        return new AccountEvent(matcher.group(3), amount, publishedAt);
+    }
+
+    public String getAccountId() {
+        return accountId;
+    }
+
+    /**
+     * @return the amount, negative for a withdraw
+     */
+    public BigDecimal getAmount() {
+        return amount;
+    }
+
+    public long getPublishedAt() {
+        return publishedAt;
+    }
+}
@@ -35,6 +35,17 @@ insert into accounts values('account3', 'account3', 3000.00);
 insert into accounts values('account4', 'account4', 4000.00);
 insert into accounts values('account5', 'account5', 5000.00);
 
+-- Outbox of the account events. Each withdraw and deposit inserts its event in its XA transaction, the application
+-- relays the committed events to the topic in event_id order and deletes them
+create table account_events
+(
+    event_id NUMBER GENERATED ALWAYS AS IDENTITY,
+    account_id VARCHAR(10) not null,
+    payload VARCHAR(4000) not null,
+    created_at TIMESTAMP DEFAULT SYSTIMESTAMP not null,
+    PRIMARY KEY (event_id)
+);
+
 
 -- Oracle transaction event Queue(TEQ) related grants
 GRANT EXECUTE ON DBMS_AQ TO department_teq
@@ -68,8 +68,12 @@ public class Configuration {
     @ConfigProperty(name = "departmentDataSource.jms.topicName")
     String topicName;
 
+    @Inject
+    OutboxRelay outboxRelay;
+
     private void init(@Observes @Initialized(ApplicationScoped.class) Object event) {
         initialiseDataSource();
+        outboxRelay.start();
         new Thread(() -> {
             consumeEvents();
         }).start();
@@ -0,0 +1,225 @@
+/*
+Copyright (c) 2023, Oracle and/or its affiliates. **
+
+The Universal Permissive License (UPL), Version 1.0 **
+
+Subject to the condition set forth below, permission is hereby granted to any person obtaining a copy of this software, associated documentation and/or data
+(collectively the "Software"), free of charge and under any and all copyright rights in the Software, and any and all patent rights owned or freely licensable by each
+licensor hereunder covering either the unmodified Software as contributed to or provided by such licensor, or (ii) the Larger Works (as defined below), to deal in both **
+(a) the Software, and (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if one is included with the Software (each a "Larger Work" to which the
+Software is contributed by such licensors), **
+without restriction, including without limitation the rights to copy, create derivative works of, display, perform, and distribute the Software and make, use, sell,
+offer for sale, import, export, have made, and have sold the Software and the Larger Work(s), and to sublicense the foregoing rights on either these or other terms. **
+
+This license is subject to the following condition: The above copyright notice and either this complete permission notice or at a minimum a reference to the UPL must be
+included in all copies or substantial portions of the Software. **
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A
+PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF
+CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+package com.oracle.mtm.sample;
+
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.jms.JMSException;
+import jakarta.jms.Session;
+import jakarta.jms.TopicConnection;
+import oracle.jakarta.jms.AQjmsAgent;
+import oracle.jakarta.jms.AQjmsFactory;
+import oracle.jakarta.jms.AQjmsSession;
+import oracle.jakarta.jms.AQjmsTextMessage;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.eclipse.microprofile.metrics.Counter;
+import org.eclipse.microprofile.metrics.Gauge;
+import org.eclipse.microprofile.metrics.MetricRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.invoke.MethodHandles;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Relays the account events of the account_events outbox to the topic. Withdraw and deposit only insert their event
+ * in the outbox, in their own XA transaction; a relay thread locks the oldest {@code batchSize} events in event_id
+ * order, publishes them and deletes them in one local transaction of its TEQ session, so an event is published only
+ * once its transaction committed. The lock makes the relays of several replicas of a department take turns: a relay
+ * waits for the batch another one holds and then finds its rows deleted, and a batch whose rows were not all deleted
+ * is rolled back, publications included, so an event is published once. Events of an account are inserted after its
+ * balance update, which serialises them, so they are published in the order they were committed.
+ */
+@ApplicationScoped
+public class OutboxRelay {
+
+    final static Logger logger = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+
+    // Oracle does not allow FOR UPDATE with a row limiting clause, the batch is limited in a subquery instead
+    private static final String SELECT_EVENTS = "SELECT event_id, account_id, payload, created_at FROM account_events"
+            + " WHERE event_id IN (SELECT event_id FROM (SELECT event_id FROM account_events ORDER BY event_id) WHERE ROWNUM <= ?)"
+            + " ORDER BY event_id FOR UPDATE";
+    private static final String DELETE_EVENT = "DELETE FROM account_events WHERE event_id = ?";
+    private static final AQjmsAgent[] RECIPIENTS = new AQjmsAgent[]{new AQjmsAgent("my_subscription", null)};
+
+    @Inject
+    Configuration config;
+
+    @Inject
+    TopicPublisherCache publisherCache;
+
+    @Inject
+    MetricRegistry metricRegistry;
+
+    @Inject
+    @ConfigProperty(name = "departmentDataSource.jms.outbox.enabled", defaultValue = "false")
+    boolean enabled;
+
+    @Inject
+    @ConfigProperty(name = "departmentDataSource.jms.outbox.batchSize", defaultValue = "500")
+    int batchSize;
+
+    @Inject
+    @ConfigProperty(name = "departmentDataSource.jms.outbox.pollMillis", defaultValue = "200")
+    long pollMillis;
+
+    private ExecutorService relay;
+    private Counter relayed;
+    private volatile long lagMillis;
+
+    /**
+     * Starts the relay thread. Called once the datasources are initialised.
+     */
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        relayed = metricRegistry.counter("outbox.relayed");
+        metricRegistry.register("outbox.lagMillis", (Gauge<Long>) () -> lagMillis);
+        relay = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "outbox-relay");
+            thread.setDaemon(true);
+            return thread;
+        });
+        relay.execute(this::relay);
+    }
+
+    @PreDestroy
+    void stop() {
+        if (relay != null) {
+            relay.shutdownNow();
+        }
+    }
+
+    /**
+     * @return true when the account events are written to the outbox instead of being published inline
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    private void relay() {
+        while (!Thread.currentThread().isInterrupted()) {
+            TopicConnection connection = null;
+            try {
+                connection = AQjmsFactory.getXATopicConnectionFactory(config.getXADatasource()).createXATopicConnection();
+                AQjmsSession session = (AQjmsSession) connection.createSession(true, Session.AUTO_ACKNOWLEDGE);
+                while (!Thread.currentThread().isInterrupted()) {
+                    if (relayBatch(session) < batchSize) {
+                        Thread.sleep(pollMillis);
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (Exception e) {
+                logger.error("Outbox relay failed, reconnecting", e);
+                pause();
+            } finally {
+                close(connection);
+            }
+        }
+    }
+
+    /**
+     * Publishes the oldest events of the outbox and deletes them in one local transaction
+     *
+     * @return the number of events relayed
+     */
+    private int relayBatch(AQjmsSession session) throws JMSException, SQLException {
+        Connection connection = session.getDBConnection();
+        List<Long> eventIds = new ArrayList<>(batchSize);
+        long oldestEventTime = 0;
+        try {
+            try (PreparedStatement statement = connection.prepareStatement(SELECT_EVENTS)) {
+                statement.setInt(1, batchSize);
+                try (ResultSet events = statement.executeQuery()) {
+                    while (events.next()) {
+                        if (eventIds.isEmpty()) {
+                            oldestEventTime = events.getTimestamp("created_at").getTime();
+                        }
+                        AQjmsTextMessage message = (AQjmsTextMessage) session.createTextMessage(events.getString("payload"));
+                        TopicPublisherCache.setAccount(message, events.getString("account_id"));
+                        publisherCache.publish(session, message, RECIPIENTS);
+                        eventIds.add(events.getLong("event_id"));
+                    }
+                }
+            }
+            if (eventIds.isEmpty()) {
+                lagMillis = 0;
+                return 0;
+            }
+            try (PreparedStatement statement = connection.prepareStatement(DELETE_EVENT)) {
+                for (Long eventId : eventIds) {
+                    statement.setLong(1, eventId);
+                    statement.addBatch();
+                }
+                if (deleted(statement.executeBatch()) < eventIds.size()) {
+                    // Another relay published some of these events, publish none of them
+                    logger.warn("Outbox events were relayed concurrently, rolling back a batch of {}", eventIds.size());
+                    session.rollback();
+                    return 0;
+                }
+            }
+            session.commit();
+        } catch (JMSException | SQLException e) {
+            session.rollback();
+            throw e;
+        }
+        relayed.inc(eventIds.size());
+        lagMillis = System.currentTimeMillis() - oldestEventTime;
+        return eventIds.size();
+    }
+
+    private static int deleted(int[] updateCounts) {
+        int deleted = 0;
+        for (int updateCount : updateCounts) {
+            deleted += updateCount == Statement.SUCCESS_NO_INFO ? 1 : updateCount;
+        }
+        return deleted;
+    }
+
+    private void pause() {
+        try {
+            Thread.sleep(pollMillis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void close(TopicConnection connection) {
+        if (connection == null) {
+            return;
+        }
+        try {
+            connection.close();
+        } catch (JMSException e) {
+            logger.warn("Failed to close the outbox relay connection", e);
+        }
+    }
+}
@@ -29,18 +29,17 @@ import java.sql.SQLException;
 import jakarta.enterprise.context.RequestScoped;
 import jakarta.inject.Inject;
 import jakarta.jms.JMSException;
-import jakarta.jms.Topic;
 import jakarta.jms.XATopicSession;
 
 import com.oracle.mtm.sample.Configuration;
+import com.oracle.mtm.sample.OutboxRelay;
+import com.oracle.mtm.sample.TopicPublisherCache;
 import com.oracle.mtm.sample.entity.Account;
 
 import oracle.jakarta.jms.AQjmsAgent;
 import oracle.jakarta.jms.AQjmsSession;
 import oracle.jakarta.jms.AQjmsTextMessage;
-import oracle.jakarta.jms.AQjmsTopicPublisher;
 import oracle.tmm.jta.common.MicroTxXATopicSession;
-import org.eclipse.microprofile.config.inject.ConfigProperty;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -63,12 +62,12 @@ public class AccountsService implements IAccountsService {
     private Configuration config;
 
     @Inject
-    @ConfigProperty(name = "departmentDataSource.user")
-    String user;
+    private TopicPublisherCache publisherCache;
 
     @Inject
-    @ConfigProperty(name = "departmentDataSource.jms.topicName")
-    String topicName;
+    private OutboxRelay outboxRelay;
+
+    private static final String INSERT_EVENT = "INSERT INTO account_events (account_id, payload) VALUES (?, ?)";
 
     /**
      * Get account details persisted in the database
@@ -128,7 +127,7 @@ public class AccountsService implements IAccountsService {
         statement.setString(2, accountId);
         boolean res = statement.executeUpdate() > 0;
 
-        publishEvent("Withdrawn: $" + amount + " from account: " + accountId);
+        recordEvent(connection, accountId, "Withdrawn: $" + amount + " from account: " + accountId);
 
         return res;
     }
@@ -154,7 +153,7 @@ public class AccountsService implements IAccountsService {
         statement.setString(2, accountId);
         boolean res = statement.executeUpdate() > 0;
 
-        publishEvent("Deposited: $" + amount + " in account: " + accountId);
+        recordEvent(connection, accountId, "Deposited: $" + amount + " in account: " + accountId);
 
         return res;
     }
@@ -186,11 +185,33 @@ public class AccountsService implements IAccountsService {
 
     @Override
     public void publishEvent(String msg) throws JMSException, SQLException {
-        Topic topic = ((AQjmsSession) xaTopicSession).getTopic(user, topicName);
-        try (AQjmsTopicPublisher publisher = (AQjmsTopicPublisher) ((AQjmsSession) xaTopicSession).createPublisher(topic)) {
-            AQjmsTextMessage message = (AQjmsTextMessage) xaTopicSession.createTextMessage(msg);
-            publisher.publish(message, new AQjmsAgent[]{new AQjmsAgent("my_subscription", null)});
-            logger.info("Message published:" + msg);
+        publish(null, msg);
+    }
+
+    /**
+     * Writes the event to the outbox in the XA transaction of the update, or publishes it when the outbox is disabled
+     */
+    private void recordEvent(Connection connection, String accountId, String msg) throws SQLException, JMSException {
+        if (!outboxRelay.isEnabled()) {
+            publish(accountId, msg);
+            return;
+        }
+        try (PreparedStatement statement = connection.prepareStatement(INSERT_EVENT)) {
+            statement.setString(1, accountId);
+            statement.setString(2, msg);
+            statement.executeUpdate();
+        }
+    }
+
+    /**
+     * Publishes the event, with its account when it has one
+     */
+    private void publish(String accountId, String msg) throws JMSException {
+        AQjmsTextMessage message = (AQjmsTextMessage) xaTopicSession.createTextMessage(msg);
+        if (accountId != null) {
+            TopicPublisherCache.setAccount(message, accountId);
         }
+        publisherCache.publish((AQjmsSession) xaTopicSession, message, new AQjmsAgent[]{new AQjmsAgent("my_subscription", null)});
+        logger.info("Message published:" + msg);
     }
 }
@@ -0,0 +1,130 @@
+/*
+Copyright (c) 2023, Oracle and/or its affiliates. **
+
+The Universal Permissive License (UPL), Version 1.0 **
+
+Subject to the condition set forth below, permission is hereby granted to any person obtaining a copy of this software, associated documentation and/or data
+(collectively the "Software"), free of charge and under any and all copyright rights in the Software, and any and all patent rights owned or freely licensable by each
+licensor hereunder covering either the unmodified Software as contributed to or provided by such licensor, or (ii) the Larger Works (as defined below), to deal in both **
+(a) the Software, and (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if one is included with the Software (each a "Larger Work" to which the
+Software is contributed by such licensors), **
+without restriction, including without limitation the rights to copy, create derivative works of, display, perform, and distribute the Software and make, use, sell,
+offer for sale, import, export, have made, and have sold the Software and the Larger Work(s), and to sublicense the foregoing rights on either these or other terms. **
+
+This license is subject to the following condition: The above copyright notice and either this complete permission notice or at a minimum a reference to the UPL must be
+included in all copies or substantial portions of the Software. **
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A
+PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF
+CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+*/
+ 
+package com.oracle.mtm.sample;
+
+import jakarta.jms.JMSException;
+import jakarta.jms.Message;
+import oracle.jakarta.jms.AQjmsAgent;
+import oracle.jakarta.jms.AQjmsSession;
+import oracle.jakarta.jms.AQjmsTopicPublisher;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Keeps the topic and its publisher of each XA topic session, so that publishing an event does not look the topic
+ * up and create a publisher, two database round trips, every time. At most {@code publisherCacheSize} sessions are
+ * cached; the publisher of the least recently used session is closed when another one is added. The publisher of a
+ * session that fails to publish is evicted, as the session may have been closed.
+ */
+@Component
+public class TopicPublisherCache {
+
+    private static final Logger LOG = LoggerFactory.getLogger(TopicPublisherCache.class);
+
+    @Value("${departmentDataSource.user}")
+    private String username;
+
+    @Value("${departmentDataSource.jms.topicName}")
+    private String topicName;
+
+    @Value("${departmentDataSource.jms.publisherCacheSize:64}")
+    private int publisherCacheSize;
+
+    /**
+     * Number of account shards, the range of {@code accountShard} known to account-events-consumer
+     */
+    public static final int ACCOUNT_SHARDS = 64;
+
+    private final Map<AQjmsSession, AQjmsTopicPublisher> publishers = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<AQjmsSession, AQjmsTopicPublisher> eldest) {
+            if (size() > publisherCacheSize) {
+                close(eldest.getValue());
+                return true;
+            }
+            return false;
+        }
+    };
+
+    /**
+     * Publishes the message to the topic through the cached publisher of the session
+     */
+    public void publish(AQjmsSession session, Message message, AQjmsAgent[] recipients) throws JMSException {
+        AQjmsTopicPublisher publisher = publisher(session);
+        try {
+            publisher.publish(message, recipients);
+        } catch (JMSException e) {
+            evict(session);
+            throw e;
+        }
+    }
+
+    /**
+     * Sets the account of the event on the message. account-events-consumer splits the account shards among its
+     * sessions with a selector on {@code accountShard}, so that the events of an account are consumed in order.
+     */
+    public static void setAccount(Message message, String accountId) throws JMSException {
+        message.setStringProperty("accountId", accountId);
+        message.setIntProperty("accountShard", Math.floorMod(accountId.hashCode(), ACCOUNT_SHARDS));
+    }
+
+    private AQjmsTopicPublisher publisher(AQjmsSession session) throws JMSException {
+        synchronized (publishers) {
+            AQjmsTopicPublisher publisher = publishers.get(session);
+            if (publisher != null) {
+                return publisher;
+            }
+        }
+        AQjmsTopicPublisher publisher = (AQjmsTopicPublisher) session.createPublisher(session.getTopic(username, topicName));
+        synchronized (publishers) {
+            AQjmsTopicPublisher cached = publishers.putIfAbsent(session, publisher);
+            if (cached != null) {
+                close(publisher);
+                return cached;
+            }
+        }
+        return publisher;
+    }
+
+    private void evict(AQjmsSession session) {
+        AQjmsTopicPublisher publisher;
+        synchronized (publishers) {
+            publisher = publishers.remove(session);
+        }
+        if (publisher != null) {
+            close(publisher);
+        }
+    }
+
+    private static void close(AQjmsTopicPublisher publisher) {
+        try {
+            publisher.close();
+        } catch (JMSException e) {
+            LOG.warn("Failed to close a topic publisher", e);
+        }
+    }
+}
@@ -23,19 +23,18 @@ package com.oracle.mtm.sample.data;
 import java.sql.*;
 import java.util.*;
 
+import com.oracle.mtm.sample.OutboxRelay;
+import com.oracle.mtm.sample.TopicPublisherCache;
 import com.oracle.mtm.sample.resource.AccountsResource;
 import jakarta.jms.JMSException;
-import jakarta.jms.Topic;
 import jakarta.jms.XATopicSession;
 import oracle.jakarta.jms.AQjmsAgent;
 import oracle.jakarta.jms.AQjmsSession;
 import oracle.jakarta.jms.AQjmsTextMessage;
-import oracle.jakarta.jms.AQjmsTopicPublisher;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
-import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Lazy;
 import org.springframework.stereotype.Component;
 import com.oracle.mtm.sample.entity.Account;
@@ -62,11 +61,13 @@ public class AccountService implements IAccountService {
     @Qualifier("ucpXADataSource")
     XADataSource dataSource;
 
-    @Value("${departmentDataSource.user}")
-    private String username;
+    @Autowired
+    TopicPublisherCache publisherCache;
+
+    @Autowired
+    OutboxRelay outboxRelay;
 
-    @Value("${departmentDataSource.jms.topicName}")
-    private String topicName;
+    private static final String INSERT_EVENT = "INSERT INTO account_events (account_id, payload) VALUES (?, ?)";
 
     private static final Logger logger = LoggerFactory.getLogger(AccountService.class);
 
@@ -134,7 +135,7 @@ public class AccountService implements IAccountService {
             statement.setString(2, accountId);
             boolean res =  statement.executeUpdate() > 0;
 
-            publishEvent("Withdrawn: $" + amount + " from account: " + accountId);
+            recordEvent(connection, accountId, "Withdrawn: $" + amount + " from account: " + accountId);
 
             return res;
         }
@@ -161,7 +162,7 @@ public class AccountService implements IAccountService {
             statement.setString(2, accountId);
             boolean res = statement.executeUpdate() > 0;
 
-            publishEvent("Deposited: $" + amount + " in account: " + accountId);
+            recordEvent(connection, accountId, "Deposited: $" + amount + " in account: " + accountId);
 
             return res;
         }
@@ -194,11 +195,34 @@ public class AccountService implements IAccountService {
 
     @Override
     public void publishEvent(String msg) throws JMSException, SQLException {
-        Topic topic = ((AQjmsSession) xaTopicSession.getTopicSession()).getTopic(username, topicName);
-        try (AQjmsTopicPublisher publisher = (AQjmsTopicPublisher) ((AQjmsSession) xaTopicSession.getTopicSession()).createPublisher(topic)) {
-            AQjmsTextMessage message = (AQjmsTextMessage) ((AQjmsSession)xaTopicSession.getTopicSession()).createTextMessage(msg);
-            publisher.publish(message, new AQjmsAgent[]{new AQjmsAgent("my_subscription", null)});
-            logger.info("Message published:" + msg);
+        publish(null, msg);
+    }
+
+    /**
+     * Writes the event to the outbox in the XA transaction of the update, or publishes it when the outbox is disabled
+     */
+    private void recordEvent(Connection connection, String accountId, String msg) throws SQLException, JMSException {
+        if (!outboxRelay.isEnabled()) {
+            publish(accountId, msg);
+            return;
+        }
+        try (PreparedStatement statement = connection.prepareStatement(INSERT_EVENT)) {
+            statement.setString(1, accountId);
+            statement.setString(2, msg);
+            statement.executeUpdate();
+        }
+    }
+
+    /**
+     * Publishes the event, with its account when it has one
+     */
+    private void publish(String accountId, String msg) throws JMSException {
+        AQjmsSession session = (AQjmsSession) xaTopicSession.getTopicSession();
+        AQjmsTextMessage message = (AQjmsTextMessage) session.createTextMessage(msg);
+        if (accountId != null) {
+            TopicPublisherCache.setAccount(message, accountId);
         }
+        publisherCache.publish(session, message, new AQjmsAgent[]{new AQjmsAgent("my_subscription", null)});
+        logger.info("Message published:" + msg);
     }
-}
\ No newline at end of file
+}
@@ -21,6 +21,7 @@ CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFT
 package com.oracle.mtm.sample.resource;
 
 import com.oracle.mtm.sample.Configuration;
+import com.oracle.mtm.sample.PooledClientFactory;
 import com.oracle.mtm.sample.entity.Transfer;
 import com.oracle.mtm.sample.service.TransferFeeService;
 
@@ -44,8 +45,6 @@ import jakarta.ws.rs.Consumes;
 import jakarta.ws.rs.POST;
 import jakarta.ws.rs.Path;
 import jakarta.ws.rs.Produces;
-import jakarta.ws.rs.client.Client;
-import jakarta.ws.rs.client.ClientBuilder;
 import jakarta.ws.rs.client.Entity;
 import jakarta.ws.rs.core.MediaType;
 import jakarta.ws.rs.core.Response;
@@ -60,8 +59,8 @@ import java.util.logging.Level;
 @OpenAPIDefinition(info = @Info(title = "Amount Transfer endpoint", version = "1.0"))
 public class TransferResource {
 
-    private static Client withdrawClient = ClientBuilder.newClient();
-    private static Client depositClient = ClientBuilder.newClient();
+    @Inject
+    private PooledClientFactory clientFactory;
 
     final static Logger logger = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
 
@@ -151,7 +150,7 @@ public class TransferResource {
      */
     private Response withdraw(String serviceEndpoint, double amount, String accountId) throws URISyntaxException {
         String withDrawEndpoint = UriBuilder.fromUri(new URI(serviceEndpoint)).path("accounts").path(accountId).path("withdraw").queryParam("amount", amount).toString();
-        Response response = withdrawClient.target(withDrawEndpoint).request().post(Entity.text(""));
+        Response response = clientFactory.client().target(withDrawEndpoint).request().post(Entity.text(""));
         logger.info("Withdraw Response: \n" + response.toString());
         return response;
     }
@@ -165,7 +164,7 @@ public class TransferResource {
      */
     private Response deposit(String serviceEndpoint, double amount, String accountId) throws URISyntaxException {
         String depositEndpoint = UriBuilder.fromUri(new URI(serviceEndpoint)).path("accounts").path(accountId).path("/deposit").queryParam("amount", amount).toString();
-        Response response = depositClient.target(depositEndpoint).request().post(Entity.text(""));
+        Response response = clientFactory.client().target(depositEndpoint).request().post(Entity.text(""));
         logger.info("Deposit Response: \n" + response.toString());
         return response;
     }
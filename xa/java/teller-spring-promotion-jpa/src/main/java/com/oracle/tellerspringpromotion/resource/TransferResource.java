@@ -42,7 +42,10 @@ import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
 import org.springframework.web.util.UriComponentsBuilder;
+import reactor.core.publisher.Mono;
+import reactor.util.function.Tuple2;
 
 import jakarta.transaction.*;
 import java.net.URI;
@@ -197,8 +200,8 @@ public class TransferResource {
     @RequestMapping(value = "/global", method = RequestMethod.POST)
     public ResponseEntity<?>  globaltransfer(@RequestBody Transfer transferDetails){
         LOG.info( "Global Transfer initiated:" + transferDetails.toString());
-        ResponseEntity withdrawResponse = null;
-        ResponseEntity depositResponse = null;
+        ResponseEntity<String> withdrawResponse = null;
+        ResponseEntity<String> depositResponse = null;
         // Use-case: The transfer service charges 10% as Fee
         transferDetails.setTransferFee(0.1* transferDetails.getAmount());
         transferDetails.setTotalCharged(transferDetails.getAmount() + transferDetails.getTransferFee());
@@ -214,15 +217,20 @@ public class TransferResource {
             LOG.info( "Fee deposited successful" + transferDetails.toString());
 
             // Begin a user transaction and also enlist in the transaction by setting enlist = true
-            // Withdraw processing
-            withdrawResponse= withdraw(departmentOneEndpoint, transferDetails.getTotalCharged(), transferDetails.getFrom());
+            // Withdraw and deposit are independent branches of the same global transaction, so both requests
+            // are sent together and the transaction waits only for the slower one. Both are subscribed from
+            // this thread, which carries the transaction context propagated by the MicroTx web client.
+            Tuple2<ResponseEntity<String>, ResponseEntity<String>> responses = Mono.zip(
+                    withdraw(departmentOneEndpoint, transferDetails.getTotalCharged(), transferDetails.getFrom()),
+                    deposit(departmentTwoEndpoint, transferDetails.getAmount(), transferDetails.getTo()))
+                    .block();
+            withdrawResponse = responses.getT1();
+            depositResponse = responses.getT2();
             if (withdrawResponse.getStatusCode() != HttpStatus.OK) {
                 microTxtransaction.rollback();
                 LOG.error( "Withdraw failed: "+ transferDetails.toString() + "Reason: " + withdrawResponse.getStatusCode());
                 return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Withdraw failed");
             }
-            // Deposit processing
-            depositResponse = deposit(departmentTwoEndpoint, transferDetails.getAmount(), transferDetails.getTo());
             if (depositResponse.getStatusCode() != HttpStatus.OK) {
                 microTxtransaction.rollback();
                 LOG.error( "Deposit failed: "+ transferDetails.toString() + "Reason: " + depositResponse.getStatusCode());
@@ -249,27 +257,19 @@ public class TransferResource {
      * @param serviceEndpoint The service endpoint which is called to withdraw
      * @param amount The amount to be withdrawn
      * @param accountId The account Identity
-     * @return HTTP Response from the service
+     * @return HTTP Response from the service, emitted once the service has replied
      */
-    private ResponseEntity<?> withdraw(String serviceEndpoint, double amount, String accountId) throws URISyntaxException {
-
-      String withDrawEndpoint = UriComponentsBuilder.fromUri(URI.create(serviceEndpoint))
+    private Mono<ResponseEntity<String>> withdraw(String serviceEndpoint, double amount, String accountId) throws URISyntaxException {
+        String withDrawEndpoint = UriComponentsBuilder.fromUri(URI.create(serviceEndpoint))
                 .path("/accounts")
                 .path("/" + accountId)
                 .path("/withdraw")
                 .queryParam("amount", amount)
                 .build()
-              .toString();
-
-        ResponseEntity<String> response  = webClientBuilder.baseUrl(withDrawEndpoint).build()
-                .post()
-                .retrieve()
-                .toEntity(String.class)
-                .block();
+                .toString();
 
-        HttpStatus status = HttpStatus.resolve(response.getStatusCode().value());
-        LOG.info( "Withdraw Response: \n" + response.getBody().toString());
-        return response;
+        return post(withDrawEndpoint)
+                .doOnNext(response -> LOG.info( "Withdraw Response: \n" + response.getBody()));
     }
 
     /**
@@ -277,9 +277,9 @@ public class TransferResource {
      * @param serviceEndpoint The service endpoint which is called to deposit
      * @param amount The amount to be deposited
      * @param accountId The account Identity
-     * @return HTTP Response from the service
+     * @return HTTP Response from the service, emitted once the service has replied
      */
-    private ResponseEntity<?> deposit(String serviceEndpoint, double amount, String accountId) throws URISyntaxException {
+    private Mono<ResponseEntity<String>> deposit(String serviceEndpoint, double amount, String accountId) throws URISyntaxException {
         String depositEndpoint = UriComponentsBuilder.fromUri(URI.create(serviceEndpoint))
                 .path("/accounts")
                 .path("/" + accountId)
@@ -288,14 +288,21 @@ public class TransferResource {
                 .build()
                 .toString();
 
+        return post(depositEndpoint)
+                .doOnNext(response -> LOG.info( "Deposit Response: \n" + response.getBody()));
+    }
 
-        ResponseEntity<String> response  = webClientBuilder.baseUrl(depositEndpoint).build()
+    /**
+     * Error statuses are returned as a response instead of an error signal, so that a failing branch
+     * does not cancel the other one and the caller can roll back once both have replied.
+     */
+    private Mono<ResponseEntity<String>> post(String endpoint) {
+        return webClientBuilder.build()
                 .post()
+                .uri(URI.create(endpoint))
                 .retrieve()
                 .toEntity(String.class)
-                .block();
-
-        LOG.info( "Deposit Response: \n" + response.getBody().toString());
-        return response;
+                .onErrorResume(WebClientResponseException.class,
+                        e -> Mono.just(ResponseEntity.status(e.getStatusCode()).body(e.getResponseBodyAsString())));
     }
-}
\ No newline at end of file
+}
@@ -24,12 +24,12 @@ package com.oracle.tellerspringpromotion.service;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.context.ApplicationContext;
 import org.springframework.stereotype.Component;
 import org.springframework.web.context.annotation.RequestScope;
 
 import java.sql.Connection;
-import java.sql.PreparedStatement;
 import java.sql.SQLException;
 
 @Component
@@ -41,6 +41,10 @@ public class CreditFeeService {
 
     private ApplicationContext applicationContext;
 
+    @Autowired
+    @Qualifier("creditAccounts")
+    private StripedAccounts creditAccounts;
+
     private static final Logger LOG = LoggerFactory.getLogger(com.oracle.tellerspringpromotion.service.CreditFeeService.class);
 
 
@@ -60,11 +64,6 @@ public class CreditFeeService {
     }
 
     public boolean depositcredit(String accountId, double amount) throws SQLException {
-        String query = "UPDATE credit SET amount=amount+? where account_id=?";
-        try(PreparedStatement statement = creditFeeConnection.prepareStatement(query);) {
-            statement.setDouble(1, amount);
-            statement.setString(2, accountId);
-            return statement.executeUpdate() > 0;
-        }
+        return creditAccounts.credit(creditFeeConnection, accountId, amount);
     }
 }
\ No newline at end of file
@@ -24,12 +24,12 @@ package com.oracle.tellerspringpromotion.service;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.context.ApplicationContext;
 import org.springframework.stereotype.Component;
 import org.springframework.web.context.annotation.RequestScope;
 
 import java.sql.Connection;
-import java.sql.PreparedStatement;
 import java.sql.SQLException;
 
 @Component
@@ -40,11 +40,14 @@ public class TransferFeeService {
 
     private ApplicationContext applicationContext;
 
+    private StripedAccounts feeAccounts;
+
     private static final Logger LOG = LoggerFactory.getLogger(CreditFeeService.class);
 
     @Autowired
-    public TransferFeeService(ApplicationContext applicationContext) {
+    public TransferFeeService(ApplicationContext applicationContext, @Qualifier("feeAccounts") StripedAccounts feeAccounts) {
         this.applicationContext = applicationContext;
+        this.feeAccounts = feeAccounts;
         try {
             feeConnection =  (Connection) applicationContext.getBean("microTxSqlConnection", "feeDataSource");
         } catch (ClassCastException ex) {
@@ -53,11 +56,6 @@ public class TransferFeeService {
     }
 
     public boolean depositFee(String accountId, double amount) throws SQLException {
-        String query = "UPDATE fee SET amount=amount+? where account_id=?";
-        try(PreparedStatement statement = feeConnection.prepareStatement(query);) {
-            statement.setDouble(1, amount);
-            statement.setString(2, accountId);
-            return statement.executeUpdate() > 0;
-        }
+        return feeAccounts.credit(feeConnection, accountId, amount);
     }
 }
\ No newline at end of file
@@ -22,15 +22,18 @@ CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFT
 CREATE USER transfer_fee IDENTIFIED BY <password> QUOTA UNLIMITED ON DATA;
 GRANT CREATE SESSION TO transfer_fee;
 ALTER SESSION SET CURRENT_SCHEMA=transfer_fee;
+-- An account has one row per stripe when feeDataSource.stripes is greater than 1, stripe 0 otherwise.
+-- The application creates the missing stripes at startup.
 create table fee
 (
     account_id VARCHAR(10) not null,
+    stripe NUMBER(3) DEFAULT 0 not null,
     amount decimal(10,2) not null,
-    PRIMARY KEY (account_id)
+    PRIMARY KEY (account_id, stripe)
 );
 
-insert into fee values('account1', 0.00);
-insert into fee values('account2', 0.00);
-insert into fee values('account3', 0.00);
-insert into fee values('account4', 0.00);
-insert into fee values('account5', 0.00);
\ No newline at end of file
+insert into fee (account_id, amount) values('account1', 0.00);
+insert into fee (account_id, amount) values('account2', 0.00);
+insert into fee (account_id, amount) values('account3', 0.00);
+insert into fee (account_id, amount) values('account4', 0.00);
+insert into fee (account_id, amount) values('account5', 0.00);
\ No newline at end of file
@@ -20,6 +20,8 @@ CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFT
 */
 package com.example.mtm.sample.resource;
 
+import com.example.mtm.sample.TransferMetrics;
+import com.example.mtm.sample.TransferMetrics.Phase;
 import com.example.mtm.sample.entity.Transfer;
 import com.example.mtm.sample.exception.TransferFailedException;
 import io.swagger.v3.oas.annotations.OpenAPIDefinition;
@@ -63,6 +65,9 @@ public class TransferResource {
     RestTemplate restTemplate;
     private static final Logger LOG = LoggerFactory.getLogger(TransferResource.class);
 
+    @Autowired
+    TransferMetrics transferMetrics;
+
     @Value("${departmentOneEndpoint}")
     String departmentOneEndpoint;
 
@@ -73,20 +78,29 @@ public class TransferResource {
     @Transactional(propagation = Propagation.REQUIRED)
     public ResponseEntity<?> transfer(@RequestBody Transfer transferDetails) throws Exception {
             LOG.info("Transfer initiated:" + transferDetails.toString());
-            ResponseEntity<String> withdrawResponse = withdraw(transferDetails.getAmount(), transferDetails.getFrom());
-            if (!withdrawResponse.getStatusCode().is2xxSuccessful()) {
-                LOG.error("Withdraw failed: " + transferDetails.toString() + "Reason: " + withdrawResponse.getBody());
-                throw new TransferFailedException(String.format("Withdraw failed: %s Reason: %s", transferDetails, withdrawResponse.getBody()));
-            }
-
-            // Deposit processing
-            ResponseEntity<String> depositResponse = deposit(transferDetails.getAmount(), transferDetails.getTo());
-            if (!depositResponse.getStatusCode().is2xxSuccessful()) {
-                LOG.error("Deposit failed: "+ transferDetails.toString() + "Reason: " + depositResponse.getBody());
-                throw new TransferFailedException(String.format("Deposit failed: %s Reason: %s ", transferDetails, depositResponse.getBody()));
+            transferMetrics.transferStarted();
+            try {
+                ResponseEntity<String> withdrawResponse = transferMetrics.recordCallable(Phase.WITHDRAW,
+                        () -> withdraw(transferDetails.getAmount(), transferDetails.getFrom()));
+                if (!withdrawResponse.getStatusCode().is2xxSuccessful()) {
+                    LOG.error("Withdraw failed: " + transferDetails.toString() + "Reason: " + withdrawResponse.getBody());
+                    transferMetrics.rolledBack("withdraw");
+                    throw new TransferFailedException(String.format("Withdraw failed: %s Reason: %s", transferDetails, withdrawResponse.getBody()));
+                }
+
+                // Deposit processing
+                ResponseEntity<String> depositResponse = transferMetrics.recordCallable(Phase.DEPOSIT,
+                        () -> deposit(transferDetails.getAmount(), transferDetails.getTo()));
+                if (!depositResponse.getStatusCode().is2xxSuccessful()) {
+                    LOG.error("Deposit failed: "+ transferDetails.toString() + "Reason: " + depositResponse.getBody());
+                    transferMetrics.rolledBack("deposit");
+                    throw new TransferFailedException(String.format("Deposit failed: %s Reason: %s ", transferDetails, depositResponse.getBody()));
+                }
+                LOG.info("Transfer successful:" + transferDetails.toString());
+                return ResponseEntity.ok("Transfer completed successfully");
+            } finally {
+                transferMetrics.transferEnded();
             }
-            LOG.info("Transfer successful:" + transferDetails.toString());
-            return ResponseEntity.ok("Transfer completed successfully");
     }
 
     /**
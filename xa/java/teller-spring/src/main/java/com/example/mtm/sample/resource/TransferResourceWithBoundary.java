@@ -20,6 +20,8 @@ CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFT
 */
 package com.example.mtm.sample.resource;
 
+import com.example.mtm.sample.TransferMetrics;
+import com.example.mtm.sample.TransferMetrics.Phase;
 import com.example.mtm.sample.entity.Transfer;
 import com.example.mtm.sample.exception.TransferFailedException;
 import com.oracle.microtx.xa.rm.MicroTxUserTransaction;
@@ -29,6 +31,9 @@ import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import jakarta.transaction.HeuristicMixedException;
+import jakarta.transaction.HeuristicRollbackException;
+import jakarta.transaction.RollbackException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -65,6 +70,9 @@ public class TransferResourceWithBoundary {
     @Autowired
     MicroTxUserTransaction microTxUserTransaction;
 
+    @Autowired
+    TransferMetrics transferMetrics;
+
     @Value("${departmentOneEndpoint}")
     String departmentOneEndpoint;
 
@@ -74,32 +82,51 @@ public class TransferResourceWithBoundary {
     @RequestMapping(value = "", method = RequestMethod.POST)
     public ResponseEntity<?> transfer(@RequestBody Transfer transferDetails) {
             LOG.info("Transfer with Self Define Transaction Boundary initiated:" + transferDetails.toString());
+            transferMetrics.transferStarted();
             try {
-                microTxUserTransaction.begin();
-                ResponseEntity<String> withdrawResponse = withdraw(transferDetails.getAmount(), transferDetails.getFrom());
+                transferMetrics.record(Phase.BEGIN, microTxUserTransaction::begin);
+                ResponseEntity<String> withdrawResponse = transferMetrics.recordCallable(Phase.WITHDRAW,
+                        () -> withdraw(transferDetails.getAmount(), transferDetails.getFrom()));
                 if (!withdrawResponse.getStatusCode().is2xxSuccessful()) {
                     LOG.error("Withdraw failed: " + transferDetails.toString() + "Reason: " + withdrawResponse.getBody());
-                    microTxUserTransaction.rollback();
+                    rollback("withdraw");
                     throw new TransferFailedException(String.format("Withdraw failed: %s Reason: %s", transferDetails, withdrawResponse.getBody()));
                 }
 
                 // Deposit processing
-                ResponseEntity<String> depositResponse = deposit(transferDetails.getAmount(), transferDetails.getTo());
+                ResponseEntity<String> depositResponse = transferMetrics.recordCallable(Phase.DEPOSIT,
+                        () -> deposit(transferDetails.getAmount(), transferDetails.getTo()));
                 if (!depositResponse.getStatusCode().is2xxSuccessful()) {
                     LOG.error("Deposit failed: " + transferDetails.toString() + "Reason: " + depositResponse.getBody());
-                    microTxUserTransaction.rollback();
+                    rollback("deposit");
                     throw new TransferFailedException(String.format("Deposit failed: %s Reason: %s ", transferDetails, depositResponse.getBody()));
                 }
 
                 LOG.info("Transfer successful:" + transferDetails.toString());
-                microTxUserTransaction.commit();
+                transferMetrics.record(Phase.COMMIT, microTxUserTransaction::commit);
                 return ResponseEntity.ok("Transfer completed successfully");
             }catch (Exception e){
+                if (e instanceof RollbackException) {
+                    transferMetrics.rolledBack("commit");
+                } else if (e instanceof HeuristicMixedException || e instanceof HeuristicRollbackException) {
+                    transferMetrics.heuristic(e instanceof HeuristicMixedException ? "mixed" : "rollback");
+                }
                 LOG.error(e.getMessage());
                 return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Transfer Failed ");
+            } finally {
+                transferMetrics.transferEnded();
             }
     }
 
+    /**
+     * Roll back the transfer after a failed department call and count it
+     * @param reason The department call that failed
+     */
+    private void rollback(String reason) throws Exception {
+        transferMetrics.record(Phase.ROLLBACK, microTxUserTransaction::rollback);
+        transferMetrics.rolledBack(reason);
+    }
+
     /**
      * Send an HTTP request to the service to withdraw amount from the provided account identity
      * @param amount The amount to be withdrawn
@@ -22,6 +22,7 @@ CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFT
 package com.oracle.mtm.sample;
 
 
+import com.oracle.mtm.sample.service.StripedAccounts;
 import oracle.tmm.common.TrmConfig;
 import oracle.tmm.jta.common.DataSourceInfo;
 import oracle.ucp.jdbc.PoolDataSourceFactory;
@@ -30,6 +31,7 @@ import org.eclipse.microprofile.config.inject.ConfigProperty;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import jakarta.annotation.PreDestroy;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.enterprise.context.Initialized;
 import jakarta.enterprise.event.Observes;
@@ -43,6 +45,10 @@ public class Configuration {
     private PoolXADataSource feedataSource;
 
     private PoolXADataSource creditDataSource;
+
+    private StripedAccounts feeAccounts;
+
+    private StripedAccounts creditAccounts;
     final static Logger logger = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
 
     @Inject
@@ -73,10 +79,32 @@ public class Configuration {
     @ConfigProperty(name = "creditDataSource.rmid")
     String creditRmid;
 
+    @Inject
+    @ConfigProperty(name = "feeDataSource.stripes", defaultValue = "1")
+    int feeStripes;
+
+    @Inject
+    @ConfigProperty(name = "creditDataSource.stripes", defaultValue = "1")
+    int creditStripes;
+
+    @Inject
+    @ConfigProperty(name = "stripedAccounts.consolidationIntervalSeconds", defaultValue = "60")
+    long consolidationIntervalSeconds;
+
 
     private void init(@Observes @Initialized(ApplicationScoped.class) Object event) {
         initialiseDataSource();
         initialiseCreditDataSource();
+        feeAccounts = new StripedAccounts("fee", feedataSource, feeStripes);
+        feeAccounts.start(consolidationIntervalSeconds);
+        creditAccounts = new StripedAccounts("credit", creditDataSource, creditStripes);
+        creditAccounts.start(consolidationIntervalSeconds);
+    }
+
+    @PreDestroy
+    void close() {
+        feeAccounts.close();
+        creditAccounts.close();
     }
 
     /**
@@ -118,4 +146,18 @@ public class Configuration {
     public PoolXADataSource getDatasource() {
         return feedataSource;
     }
+
+    /**
+     * @return the fee accounts, optionally striped
+     */
+    public StripedAccounts getFeeAccounts() {
+        return feeAccounts;
+    }
+
+    /**
+     * @return the credit accounts, optionally striped
+     */
+    public StripedAccounts getCreditAccounts() {
+        return creditAccounts;
+    }
 }
\ No newline at end of file
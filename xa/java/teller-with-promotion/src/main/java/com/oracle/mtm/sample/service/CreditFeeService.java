@@ -21,12 +21,12 @@ CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFT
  
 package com.oracle.mtm.sample.service;
 
+import com.oracle.mtm.sample.Configuration;
 import oracle.tmm.jta.common.TrmSQLConnection;
 
 import jakarta.enterprise.context.RequestScoped;
 import jakarta.inject.Inject;
 import java.sql.Connection;
-import java.sql.PreparedStatement;
 import java.sql.SQLException;
 
 @RequestScoped
@@ -36,13 +36,11 @@ public class CreditFeeService {
     @TrmSQLConnection(name = "creditDataSource")
     private Connection connection;
 
+    @Inject
+    private Configuration configuration;
+
 
     public boolean depositcredit(String accountId, double amount) throws SQLException {
-        String query = "UPDATE credit SET amount=amount+? where account_id=?";
-        try(PreparedStatement statement = connection.prepareStatement(query);) {
-            statement.setDouble(1, amount);
-            statement.setString(2, accountId);
-            return statement.executeUpdate() > 0;
-        }
+        return configuration.getCreditAccounts().credit(connection, accountId, amount);
     }
 }
\ No newline at end of file
@@ -0,0 +1,217 @@
+/*
+Copyright (c) 2023, Oracle and/or its affiliates. **
+
+The Universal Permissive License (UPL), Version 1.0 **
+
+Subject to the condition set forth below, permission is hereby granted to any person obtaining a copy of this software, associated documentation and/or data
+(collectively the "Software"), free of charge and under any and all copyright rights in the Software, and any and all patent rights owned or freely licensable by each
+licensor hereunder covering either the unmodified Software as contributed to or provided by such licensor, or (ii) the Larger Works (as defined below), to deal in both **
+(a) the Software, and (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if one is included with the Software (each a "Larger Work" to which the
+Software is contributed by such licensors), **
+without restriction, including without limitation the rights to copy, create derivative works of, display, perform, and distribute the Software and make, use, sell,
+offer for sale, import, export, have made, and have sold the Software and the Larger Work(s), and to sublicense the foregoing rights on either these or other terms. **
+
+This license is subject to the following condition: The above copyright notice and either this complete permission notice or at a minimum a reference to the UPL must be
+included in all copies or substantial portions of the Software. **
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A
+PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF
+CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+*/
+ 
+package com.oracle.mtm.sample.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.sql.DataSource;
+import java.lang.invoke.MethodHandles;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * An account table whose rows can be split in stripes to relieve the row lock of hot accounts. Every transfer
+ * credits the fee and the credit account of its sender, and the lock of that row is held until the XA commit, which
+ * serialises the transfers of an account. With {@code stripes} greater than 1 an account has one row per stripe,
+ * keyed by (account_id, stripe), a credit updates a random stripe, and a consolidation thread periodically moves the
+ * amount of stripes 1 to {@code stripes - 1} to stripe 0 in short local transactions. The balance of an account is
+ * the sum of its stripes. With a single stripe the table is used as before and needs no stripe column; when it has
+ * one, credits go to stripe 0 and the stripes left by a striped configuration are consolidated once at startup.
+ */
+public class StripedAccounts implements AutoCloseable {
+
+    final static Logger logger = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+
+    // ORA-00904, invalid identifier
+    private static final int INVALID_IDENTIFIER = 904;
+
+    private final String table;
+    private final DataSource dataSource;
+    private final int stripes;
+    private ScheduledExecutorService consolidation;
+    // Whether the table has the stripe column, probed on first use when not striped
+    private volatile Boolean stripeColumn;
+
+    /**
+     * @param table      the account table, fee or credit
+     * @param dataSource the pool of the table, used for local connections by the consolidation
+     * @param stripes    number of rows per account
+     */
+    public StripedAccounts(String table, DataSource dataSource, int stripes) {
+        this.table = table;
+        this.dataSource = dataSource;
+        this.stripes = Math.max(1, stripes);
+    }
+
+    /**
+     * Creates the missing stripes and starts the consolidation when the accounts are striped
+     */
+    public void start(long consolidationIntervalSeconds) {
+        if (stripes == 1) {
+            boolean hasStripes;
+            try (Connection connection = dataSource.getConnection()) {
+                hasStripes = hasStripeColumn(connection);
+            } catch (SQLException e) {
+                logger.warn("Failed to check the stripe column of the {} accounts", table, e);
+                return;
+            }
+            if (hasStripes) {
+                consolidate();
+            }
+            return;
+        }
+        try {
+            createStripes();
+        } catch (SQLException e) {
+            logger.error("Failed to create the stripes of the {} accounts", table, e);
+        }
+        consolidation = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, table + "-consolidation");
+            thread.setDaemon(true);
+            return thread;
+        });
+        consolidation.scheduleWithFixedDelay(this::consolidate, consolidationIntervalSeconds, consolidationIntervalSeconds, TimeUnit.SECONDS);
+    }
+
+    @Override
+    public void close() {
+        if (consolidation != null) {
+            consolidation.shutdownNow();
+        }
+    }
+
+    /**
+     * Credits an account in the transaction of the connection, on a random stripe. An account whose stripes are not
+     * created yet is credited on stripe 0.
+     *
+     * @return false when the account does not exist
+     */
+    public boolean credit(Connection connection, String accountId, double amount) throws SQLException {
+        if (stripes == 1) {
+            if (hasStripeColumn(connection)) {
+                // Only stripe 0, the account may still have the rows of a striped configuration
+                return update(connection, "UPDATE " + table + " SET amount=amount+? where account_id=? and stripe=?", accountId, amount, 0);
+            }
+            return update(connection, "UPDATE " + table + " SET amount=amount+? where account_id=?", accountId, amount, -1);
+        }
+        String query = "UPDATE " + table + " SET amount=amount+? where account_id=? and stripe=?";
+        int stripe = ThreadLocalRandom.current().nextInt(stripes);
+        return update(connection, query, accountId, amount, stripe) || (stripe != 0 && update(connection, query, accountId, amount, 0));
+    }
+
+    private static boolean update(Connection connection, String query, String accountId, double amount, int stripe) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(query)) {
+            statement.setDouble(1, amount);
+            statement.setString(2, accountId);
+            if (stripe >= 0) {
+                statement.setInt(3, stripe);
+            }
+            return statement.executeUpdate() > 0;
+        }
+    }
+
+    private boolean hasStripeColumn(Connection connection) throws SQLException {
+        Boolean known = stripeColumn;
+        if (known == null) {
+            try (PreparedStatement statement = connection.prepareStatement("SELECT stripe FROM " + table + " where 1=0")) {
+                statement.executeQuery().close();
+                known = true;
+            } catch (SQLException e) {
+                if (e.getErrorCode() != INVALID_IDENTIFIER) {
+                    throw e;
+                }
+                known = false;
+            }
+            stripeColumn = known;
+        }
+        return known;
+    }
+
+    private void createStripes() throws SQLException {
+        String insert = "INSERT INTO " + table + " (account_id, stripe, amount) SELECT account_id, ?, 0 FROM " + table + " a "
+                + "where stripe=0 and NOT EXISTS (SELECT 1 FROM " + table + " s where s.account_id=a.account_id and s.stripe=?)";
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement(insert)) {
+            for (int stripe = 1; stripe < stripes; stripe++) {
+                statement.setInt(1, stripe);
+                statement.setInt(2, stripe);
+                statement.executeUpdate();
+            }
+            if (!connection.getAutoCommit()) {
+                connection.commit();
+            }
+        }
+    }
+
+    /**
+     * Moves the amount of each non empty stripe to stripe 0 of its account, one stripe per local transaction so the
+     * stripe locks are held briefly
+     */
+    private void consolidate() {
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setAutoCommit(false);
+            List<String[]> pending = new ArrayList<>();
+            try (PreparedStatement statement = connection.prepareStatement("SELECT account_id, stripe FROM " + table + " where stripe>0 and amount<>0");
+                 ResultSet resultSet = statement.executeQuery()) {
+                while (resultSet.next()) {
+                    pending.add(new String[]{resultSet.getString(1), resultSet.getString(2)});
+                }
+            }
+            connection.commit();
+            for (String[] stripe : pending) {
+                consolidate(connection, stripe[0], Integer.parseInt(stripe[1]));
+            }
+        } catch (SQLException e) {
+            logger.warn("Failed to consolidate the {} accounts", table, e);
+        }
+    }
+
+    private void consolidate(Connection connection, String accountId, int stripe) throws SQLException {
+        try {
+            double amount;
+            try (PreparedStatement statement = connection.prepareStatement("SELECT amount FROM " + table + " where account_id=? and stripe=? FOR UPDATE")) {
+                statement.setString(1, accountId);
+                statement.setInt(2, stripe);
+                try (ResultSet resultSet = statement.executeQuery()) {
+                    amount = resultSet.next() ? resultSet.getDouble(1) : 0;
+                }
+            }
+            if (amount != 0) {
+                update(connection, "UPDATE " + table + " SET amount=amount+? where account_id=? and stripe=?", accountId, amount, 0);
+                update(connection, "UPDATE " + table + " SET amount=amount-? where account_id=? and stripe=?", accountId, amount, stripe);
+            }
+            connection.commit();
+        } catch (SQLException e) {
+            connection.rollback();
+            throw e;
+        }
+    }
+}
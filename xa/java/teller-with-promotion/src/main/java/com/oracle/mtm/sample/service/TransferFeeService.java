@@ -23,12 +23,12 @@ package com.oracle.mtm.sample.service;
 
 
 
+import com.oracle.mtm.sample.Configuration;
 import oracle.tmm.jta.common.TrmSQLConnection;
 
 import jakarta.enterprise.context.RequestScoped;
 import jakarta.inject.Inject;
 import java.sql.Connection;
-import java.sql.PreparedStatement;
 import java.sql.SQLException;
 
 @RequestScoped
@@ -38,12 +38,10 @@ public class TransferFeeService {
     @TrmSQLConnection(name = "feeDataSource")
     private Connection connection;
 
+    @Inject
+    private Configuration configuration;
+
     public boolean depositFee(String accountId, double amount) throws SQLException {
-        String query = "UPDATE fee SET amount=amount+? where account_id=?";
-        try(PreparedStatement statement = connection.prepareStatement(query);) {
-            statement.setDouble(1, amount);
-            statement.setString(2, accountId);
-            return statement.executeUpdate() > 0;
-        }
+        return configuration.getFeeAccounts().credit(connection, accountId, amount);
     }
 }
\ No newline at end of file
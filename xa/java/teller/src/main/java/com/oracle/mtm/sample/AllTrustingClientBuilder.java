@@ -28,6 +28,8 @@ import javax.net.ssl.TrustManager;
 import javax.net.ssl.X509TrustManager;
 import java.lang.invoke.MethodHandles;
 import java.net.URISyntaxException;
+import java.security.KeyManagementException;
+import java.security.NoSuchAlgorithmException;
 import java.security.cert.CertificateException;
 import java.security.cert.X509Certificate;
 import jakarta.ws.rs.client.Client;
@@ -43,16 +45,8 @@ public class AllTrustingClientBuilder {
     public static Client newClient() {
         Client client = null;
         try {
-            SSLContext sslcontext = SSLContext.getInstance("TLS");
-
-            sslcontext.init(null, new TrustManager[]{new X509TrustManager() {
-                public void checkClientTrusted(X509Certificate[] arg0, String arg1) throws CertificateException {}
-                public void checkServerTrusted(X509Certificate[] arg0, String arg1) throws CertificateException {}
-                public X509Certificate[] getAcceptedIssuers() { return new X509Certificate[0]; }
-            }}, new java.security.SecureRandom());
-
             client = ClientBuilder.newBuilder()
-                    .sslContext(sslcontext)
+                    .sslContext(sslContext())
                     .hostnameVerifier((s1, s2) -> true)
                     .build();
         } catch (Exception e) {
@@ -60,4 +54,15 @@ public class AllTrustingClientBuilder {
         }
         return client;
     }
+
+    public static SSLContext sslContext() throws NoSuchAlgorithmException, KeyManagementException {
+        SSLContext sslcontext = SSLContext.getInstance("TLS");
+
+        sslcontext.init(null, new TrustManager[]{new X509TrustManager() {
+            public void checkClientTrusted(X509Certificate[] arg0, String arg1) throws CertificateException {}
+            public void checkServerTrusted(X509Certificate[] arg0, String arg1) throws CertificateException {}
+            public X509Certificate[] getAcceptedIssuers() { return new X509Certificate[0]; }
+        }}, new java.security.SecureRandom());
+        return sslcontext;
+    }
 }
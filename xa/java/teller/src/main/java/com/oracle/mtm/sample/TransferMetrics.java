@@ -0,0 +1,81 @@
+/*
+Copyright (c) 2023, Oracle and/or its affiliates. **
+
+The Universal Permissive License (UPL), Version 1.0 **
+
+Subject to the condition set forth below, permission is hereby granted to any person obtaining a copy of this software, associated documentation and/or data
+(collectively the "Software"), free of charge and under any and all copyright rights in the Software, and any and all patent rights owned or freely licensable by each
+licensor hereunder covering either the unmodified Software as contributed to or provided by such licensor, or (ii) the Larger Works (as defined below), to deal in both **
+(a) the Software, and (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if one is included with the Software (each a "Larger Work" to which the
+Software is contributed by such licensors), **
+without restriction, including without limitation the rights to copy, create derivative works of, display, perform, and distribute the Software and make, use, sell,
+offer for sale, import, export, have made, and have sold the Software and the Larger Work(s), and to sublicense the foregoing rights on either these or other terms. **
+
+This license is subject to the following condition: The above copyright notice and either this complete permission notice or at a minimum a reference to the UPL must be
+included in all copies or substantial portions of the Software. **
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A
+PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF
+CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+*/
+package com.oracle.mtm.sample;
+
+import org.eclipse.microprofile.metrics.ConcurrentGauge;
+import org.eclipse.microprofile.metrics.MetricRegistry;
+import org.eclipse.microprofile.metrics.Tag;
+import org.eclipse.microprofile.metrics.Timer;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+/**
+ * Metrics of the transfers run by the teller, published at /metrics/application. Each phase of a transfer has its
+ * own timer, so that a slow transfer can be attributed to starting the global transaction, to a department call or
+ * to the two-phase commit that the coordinator runs with the departments on commit.
+ */
+@ApplicationScoped
+public class TransferMetrics {
+
+    public enum Phase {
+        BEGIN, WITHDRAW, DEPOSIT, COMMIT, ROLLBACK;
+
+        String tagValue() {
+            return name().toLowerCase();
+        }
+    }
+
+    @Inject
+    MetricRegistry metricRegistry;
+
+    /**
+     * Start timing a phase of a transfer. The phase ends when the returned context is closed.
+     * @param phase Phase of the transfer
+     * @return The timer context of the phase
+     */
+    public Timer.Context time(Phase phase) {
+        return metricRegistry.timer("transfer.phase", new Tag("phase", phase.tagValue())).time();
+    }
+
+    /**
+     * @return Number of transfers in progress
+     */
+    public ConcurrentGauge inFlight() {
+        return metricRegistry.concurrentGauge("transfer.inflight");
+    }
+
+    /**
+     * Count a transfer that was rolled back
+     * @param reason Why the transfer was rolled back, for example withdraw or deposit for a failed department call
+     */
+    public void rolledBack(String reason) {
+        metricRegistry.counter("transfer.rollbacks", new Tag("reason", reason)).inc();
+    }
+
+    /**
+     * Count a transfer whose outcome was decided heuristically by one or more of the departments
+     * @param outcome mixed or rollback
+     */
+    public void heuristic(String outcome) {
+        metricRegistry.counter("transfer.heuristics", new Tag("outcome", outcome)).inc();
+    }
+}
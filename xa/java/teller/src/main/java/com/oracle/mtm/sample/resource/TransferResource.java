@@ -20,11 +20,16 @@ CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFT
 */
 package com.oracle.mtm.sample.resource;
 
-import com.oracle.mtm.sample.AllTrustingClientBuilder;
 import com.oracle.mtm.sample.Configuration;
+import com.oracle.mtm.sample.PooledClientFactory;
+import com.oracle.mtm.sample.TransferMetrics;
+import com.oracle.mtm.sample.TransferMetrics.Phase;
+import com.oracle.mtm.sample.entity.AccountOperation;
+import com.oracle.mtm.sample.entity.BatchTransferResult;
 import com.oracle.mtm.sample.entity.Transfer;
 import oracle.tmm.jta.TrmUserTransaction;
 import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.eclipse.microprofile.metrics.Timer;
 import org.eclipse.microprofile.openapi.annotations.OpenAPIDefinition;
 import org.eclipse.microprofile.openapi.annotations.info.Info;
 import org.eclipse.microprofile.openapi.annotations.responses.APIResponse;
@@ -35,8 +40,10 @@ import org.slf4j.LoggerFactory;
 import jakarta.inject.Inject;
 import jakarta.transaction.HeuristicMixedException;
 import jakarta.transaction.HeuristicRollbackException;
+import jakarta.transaction.NotSupportedException;
 import jakarta.transaction.RollbackException;
 import jakarta.transaction.SystemException;
+import jakarta.transaction.UserTransaction;
 import jakarta.ws.rs.*;
 import jakarta.ws.rs.client.Client;
 import jakarta.ws.rs.client.Entity;
@@ -46,14 +53,19 @@ import jakarta.ws.rs.core.UriBuilder;
 import java.lang.invoke.MethodHandles;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.TimeUnit;
 
 @Path("/transfers")
 @OpenAPIDefinition(info = @Info(title = "Amount Transfer endpoint", version = "1.0"))
 public class TransferResource {
 
-    private static Client withdrawClient = AllTrustingClientBuilder.newClient();
-    private static Client depositClient = AllTrustingClientBuilder.newClient();
+    @Inject
+    private PooledClientFactory clientFactory;
+
+    @Inject
+    private TransferMetrics transferMetrics;
 
     @Inject
     @ConfigProperty(name = "departmentOneEndpoint")
@@ -63,6 +75,10 @@ public class TransferResource {
     @ConfigProperty(name = "departmentTwoEndpoint")
     private String departmentTwoEndpoint;
 
+    @Inject
+    @ConfigProperty(name = "transfers.batch.chunkSize", defaultValue = "500")
+    private int batchChunkSize;
+
     @Inject
     private Configuration config;
 
@@ -94,18 +110,25 @@ public class TransferResource {
         logger.info("Transfer initiated: {}", transferDetails);
         Response withdrawResponse = null;
         Response depositResponse = null;
-        TrmUserTransaction transaction = new TrmUserTransaction();
+        UserTransaction transaction = newTransaction();
+        transferMetrics.inFlight().inc();
         try {
-            transaction.begin();
-            withdrawResponse= withdraw(departmentOneEndpoint, transferDetails.getAmount(), transferDetails.getFrom());
+            try (Timer.Context phase = transferMetrics.time(Phase.BEGIN)) {
+                transaction.begin();
+            }
+            try (Timer.Context phase = transferMetrics.time(Phase.WITHDRAW)) {
+                withdrawResponse = withdraw(departmentOneEndpoint, transferDetails.getAmount(), transferDetails.getFrom());
+            }
             if (withdrawResponse.getStatus() != Response.Status.OK.getStatusCode()) {
-                transaction.rollback();
+                rollback(transaction, "withdraw");
                 logger.error("Withdraw failed: {}. Reason: {}", transferDetails, withdrawResponse.getStatusInfo().getReasonPhrase());
                 return Response.status(Response.Status.INTERNAL_SERVER_ERROR.getStatusCode()).entity("Withdraw failed").build();
             }
-            depositResponse = deposit(departmentTwoEndpoint, transferDetails.getAmount(), transferDetails.getTo());
+            try (Timer.Context phase = transferMetrics.time(Phase.DEPOSIT)) {
+                depositResponse = deposit(departmentTwoEndpoint, transferDetails.getAmount(), transferDetails.getTo());
+            }
             if (depositResponse.getStatus() != Response.Status.OK.getStatusCode()) {
-                transaction.rollback();
+                rollback(transaction, "deposit");
                 logger.error("Deposit failed: {}. Reason: {}", transferDetails, depositResponse.getStatusInfo().getReasonPhrase());
                 return Response.status(Response.Status.INTERNAL_SERVER_ERROR.getStatusCode()).entity("Deposit failed").build();
             }
@@ -113,24 +136,164 @@ public class TransferResource {
                 logger.info("Sleep for {} seconds before commit", demoIntervalSecs);
                 TimeUnit.SECONDS.sleep(demoIntervalSecs);
             }
-            transaction.commit();
+            try (Timer.Context phase = transferMetrics.time(Phase.COMMIT)) {
+                transaction.commit();
+            }
             logger.info("Transfer successful: {}", transferDetails);
             return Response.status(Response.Status.OK.getStatusCode()).entity("Transfer completed successfully").build();
-        } catch (SystemException | URISyntaxException e) {
+        } catch (NotSupportedException | SystemException | URISyntaxException e) {
             logger.error("{}", e.getLocalizedMessage());
             return Response.status(Response.Status.INTERNAL_SERVER_ERROR).build();
         } catch(RollbackException | HeuristicMixedException | HeuristicRollbackException e){
+            if (e instanceof RollbackException) {
+                transferMetrics.rolledBack("commit");
+            } else {
+                transferMetrics.heuristic(e instanceof HeuristicMixedException ? "mixed" : "rollback");
+            }
             logger.error("{}", e.getLocalizedMessage());
             return Response.status(Response.Status.INTERNAL_SERVER_ERROR.getStatusCode()).entity("Transfer failed").build();
         } catch (InterruptedException e) {
             logger.error("Thread interrupted: {}", e.getMessage());
             return Response.status(Response.Status.INTERNAL_SERVER_ERROR).build();
+        } finally {
+            transferMetrics.inFlight().dec();
+            if(withdrawResponse != null) withdrawResponse.close();
+            if(depositResponse != null) depositResponse.close();
+        }
+    }
+
+    /**
+     * Creates the global transaction of a transfer. The benchmarks override it to run the transfers against an
+     * in-process coordinator.
+     * @return A new transaction managed by the MicroTx coordinator
+     */
+    protected UserTransaction newTransaction() {
+        return new TrmUserTransaction();
+    }
+
+    /**
+     * Roll back a transfer after a failed department call and count it
+     * @param transaction The transaction of the transfer
+     * @param reason The department call that failed
+     */
+    private void rollback(UserTransaction transaction, String reason) throws SystemException {
+        try (Timer.Context phase = transferMetrics.time(Phase.ROLLBACK)) {
+            transaction.rollback();
+        }
+        transferMetrics.rolledBack(reason);
+    }
+
+    /**
+     * API to transfer amounts in bulk. The transfers are split into chunks and each chunk is run as one
+     * global transaction, with a single batched withdraw and a single batched deposit call to the departments.
+     * @param transfers list of transfer entities with transfer details
+     * @param chunkSize maximum number of transfers per global transaction, defaults to transfers.batch.chunkSize
+     * @return HTTP response with the number of transfers committed and rolled back
+     */
+    @APIResponses(value = {
+            @APIResponse(responseCode = "200", description = "All transfers completed successfully"),
+            @APIResponse(responseCode = "400", description = "Invalid request"),
+            @APIResponse(responseCode = "500", description = "One or more chunks of the batch failed")
+    })
+    @POST
+    @Path("batch")
+    @Consumes(MediaType.APPLICATION_JSON)
+    @Produces(MediaType.APPLICATION_JSON)
+    public Response batchTransfer(List<Transfer> transfers, @QueryParam("chunkSize") int chunkSize) {
+        if (transfers == null || transfers.isEmpty()) {
+            return Response.status(400).entity("missing transfer details").build();
+        }
+        if (chunkSize < 0) {
+            return Response.status(400).entity("chunkSize must be greater than zero").build();
+        }
+        int transfersPerTransaction = chunkSize > 0 ? chunkSize : batchChunkSize;
+        logger.info("Batch transfer initiated: {} transfers, {} per transaction", transfers.size(), transfersPerTransaction);
+        BatchTransferResult result = new BatchTransferResult();
+        for (int first = 0; first < transfers.size(); first += transfersPerTransaction) {
+            List<Transfer> chunk = transfers.subList(first, Math.min(first + transfersPerTransaction, transfers.size()));
+            String failure = transferChunk(chunk);
+            if (failure == null) {
+                result.chunkCommitted(chunk.size());
+            } else {
+                result.chunkFailed(first, chunk.size(), failure);
+            }
+        }
+        logger.info("Batch transfer completed: {}", result);
+        int status = result.getFailedTransfers() == 0 ? Response.Status.OK.getStatusCode() : Response.Status.INTERNAL_SERVER_ERROR.getStatusCode();
+        return Response.status(status).entity(result).build();
+    }
+
+    /**
+     * Run a chunk of transfers as one global transaction
+     * @param chunk transfers to run together
+     * @return null if the transaction committed, else the reason it was rolled back
+     */
+    private String transferChunk(List<Transfer> chunk) {
+        List<AccountOperation> withdrawals = new ArrayList<>(chunk.size());
+        List<AccountOperation> deposits = new ArrayList<>(chunk.size());
+        for (Transfer transfer : chunk) {
+            withdrawals.add(new AccountOperation(transfer.getFrom(), transfer.getAmount()));
+            deposits.add(new AccountOperation(transfer.getTo(), transfer.getAmount()));
+        }
+        Response withdrawResponse = null;
+        Response depositResponse = null;
+        UserTransaction transaction = newTransaction();
+        try {
+            transaction.begin();
+            withdrawResponse = bulk(clientFactory.client(), departmentOneEndpoint, "withdraw", withdrawals);
+            if (withdrawResponse.getStatus() != Response.Status.OK.getStatusCode()) {
+                transaction.rollback();
+                logger.error("Batch withdraw failed. Reason: {}", withdrawResponse.getStatusInfo().getReasonPhrase());
+                return "Withdraw failed";
+            }
+            depositResponse = bulk(clientFactory.client(), departmentTwoEndpoint, "deposit", deposits);
+            if (depositResponse.getStatus() != Response.Status.OK.getStatusCode()) {
+                transaction.rollback();
+                logger.error("Batch deposit failed. Reason: {}", depositResponse.getStatusInfo().getReasonPhrase());
+                return "Deposit failed";
+            }
+            transaction.commit();
+            return null;
+        } catch (NotSupportedException | SystemException | URISyntaxException | ProcessingException e) {
+            logger.error("{}", e.getLocalizedMessage());
+            rollbackQuietly(transaction);
+            return "Internal Server Error";
+        } catch(RollbackException | HeuristicMixedException | HeuristicRollbackException e){
+            logger.error("{}", e.getLocalizedMessage());
+            return "Transfer failed";
         } finally {
             if(withdrawResponse != null) withdrawResponse.close();
             if(depositResponse != null) depositResponse.close();
         }
     }
 
+    /**
+     * Roll back a chunk that failed part way, so that the next chunk starts a fresh transaction on this thread
+     */
+    private void rollbackQuietly(UserTransaction transaction) {
+        try {
+            transaction.rollback();
+        } catch (Exception e) {
+            logger.error("Rollback failed: {}", e.getLocalizedMessage());
+        }
+    }
+
+    /**
+     * Send an HTTP request to the service to withdraw or deposit amounts for several accounts in one call
+     * @param client The client used for the service
+     * @param serviceEndpoint The service endpoint which is called
+     * @param operation withdraw or deposit
+     * @param operations The accounts and amounts
+     * @return HTTP Response from the service
+     */
+    private Response bulk(Client client, String serviceEndpoint, String operation, List<AccountOperation> operations) throws URISyntaxException {
+        String bulkEndpoint = UriBuilder.fromUri(new URI(serviceEndpoint)).path("accounts").path(operation).toString();
+        Response response = client.target(bulkEndpoint).request().post(Entity.json(operations));
+        logger.info("Batch {} Response: {}", operation, response.toString());
+        logger.info("Batch {} Response Body: {}", operation, response.readEntity(String.class));
+        return response;
+    }
+
     /**
      * Send an HTTP request to the service to withdraw amount from the provided account identity
      * @param serviceEndpoint The service endpoint which is called to withdraw
@@ -140,7 +303,7 @@ public class TransferResource {
      */
     private Response withdraw(String serviceEndpoint, double amount, String accountId) throws URISyntaxException {
         String withDrawEndpoint = UriBuilder.fromUri(new URI(serviceEndpoint)).path("accounts").path(accountId).path("withdraw").queryParam("amount", amount).toString();
-        Response response = withdrawClient.target(withDrawEndpoint).request().post(Entity.text(""));
+        Response response = clientFactory.client().target(withDrawEndpoint).request().post(Entity.text(""));
         logger.info("Withdraw Response: {}", response.toString());
         logger.info("Withdraw Response Body: {}", response.readEntity(String.class));
         return response;
@@ -155,7 +318,7 @@ public class TransferResource {
      */
     private Response deposit(String serviceEndpoint, double amount, String accountId) throws URISyntaxException {
         String depositEndpoint = UriBuilder.fromUri(new URI(serviceEndpoint)).path("accounts").path(accountId).path("/deposit").queryParam("amount", amount).toString();
-        Response response = depositClient.target(depositEndpoint).request().post(Entity.text(""));
+        Response response = clientFactory.client().target(depositEndpoint).request().post(Entity.text(""));
         logger.info( "Deposit Response: {}", response.toString());
         logger.info( "Deposit Response Body: {}", response.readEntity(String.class));
         return response;
@@ -0,0 +1,84 @@
+# Copyright (c) 2023, Oracle and/or its affiliates. **
+
+# The Universal Permissive License (UPL), Version 1.0 **
+
+# Subject to the condition set forth below, permission is hereby granted to any person obtaining a copy of this software, associated documentation and/or data
+# (collectively the "Software"), free of charge and under any and all copyright rights in the Software, and any and all patent rights owned or freely licensable by each
+# licensor hereunder covering either the unmodified Software as contributed to or provided by such licensor, or (ii) the Larger Works (as defined below), to deal in both
+# ** (a) the Software, and (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if one is included with the Software (each a "Larger Work" to which
+# the Software is contributed by such licensors), **
+# without restriction, including without limitation the rights to copy, create derivative works of, display, perform, and distribute the Software and make, use, sell,
+# offer for sale, import, export, have made, and have sold the Software and the Larger Work(s), and to sublicense the foregoing rights on either these or other terms. **
+
+# This license is subject to the following condition: The above copyright notice and either this complete permission notice or at a minimum a reference to the UPL must be
+# included in all copies or substantial portions of the Software. **
+
+# THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A
+# PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF
+#!/bin/bash
+# Verifies a teller to department transfer with the requests of the teller and of the departments run on virtual
+# threads. Build the teller and both Helidon departments with the java21 profile and start them on Java 21 with
+# -Dserver.executor-service.virtual-threads=true, and the MicroTx coordinator, then run
+#
+#   ./verify-virtual-threads.sh <teller_url> <department_one_url> <department_two_url> [from_account] [to_account]
+#
+# 1. A transfer commits: the withdraw and the deposit of the departments ran on their @TrmSQLConnection connections
+#    and both branches were committed by the coordinator.
+# 2. A transfer to an unknown account rolls back: the deposit fails, and the withdraw already run by department one is
+#    undone, which it only is if its connection was enlisted in the branch of the global transaction.
+TELLER_URL=${1:-http://localhost:8080}
+DEPARTMENT_ONE_URL=${2:-http://localhost:8081}
+DEPARTMENT_TWO_URL=${3:-http://localhost:8082}
+FROM_ACCOUNT=${4:-account1}
+TO_ACCOUNT=${5:-account2}
+AMOUNT=1
+
+balance() {
+    curl -s -f "$1/accounts/$2" | sed -n 's/.*"amount":\([-0-9.E]*\).*/\1/p'
+}
+
+transfer() {
+    curl -s -o /dev/null -w "%{http_code}" -X POST -H "Content-Type: application/json" \
+        -d "{\"from\":\"$1\",\"to\":\"$2\",\"amount\":$AMOUNT}" "$TELLER_URL/transfers"
+}
+
+expect_balance() {
+    if awk -v actual="$3" -v expected="$4" 'BEGIN { exit (actual - expected < 0.005 && expected - actual < 0.005) ? 0 : 1 }'; then
+        echo "PASS: $1 balance of $2 is $3"
+    else
+        echo "FAIL: $1 balance of $2 is $3, expected $4"
+        FAILED=1
+    fi
+}
+
+FAILED=0
+FROM_BALANCE=$(balance "$DEPARTMENT_ONE_URL" "$FROM_ACCOUNT")
+TO_BALANCE=$(balance "$DEPARTMENT_TWO_URL" "$TO_ACCOUNT")
+if [ -z "$FROM_BALANCE" ] || [ -z "$TO_BALANCE" ]; then
+    echo "Failed to read the balances of $FROM_ACCOUNT and $TO_ACCOUNT from the departments"
+    exit 1
+fi
+
+STATUS=$(transfer "$FROM_ACCOUNT" "$TO_ACCOUNT")
+if [ "$STATUS" != "200" ]; then
+    echo "FAIL: transfer returned $STATUS, expected 200"
+    FAILED=1
+fi
+expect_balance "committed transfer," "$FROM_ACCOUNT" "$(balance "$DEPARTMENT_ONE_URL" "$FROM_ACCOUNT")" \
+    "$(awk -v b="$FROM_BALANCE" -v a="$AMOUNT" 'BEGIN { print b - a }')"
+expect_balance "committed transfer," "$TO_ACCOUNT" "$(balance "$DEPARTMENT_TWO_URL" "$TO_ACCOUNT")" \
+    "$(awk -v b="$TO_BALANCE" -v a="$AMOUNT" 'BEGIN { print b + a }')"
+
+FROM_BALANCE=$(balance "$DEPARTMENT_ONE_URL" "$FROM_ACCOUNT")
+STATUS=$(transfer "$FROM_ACCOUNT" "no_account")
+if [ "$STATUS" != "500" ]; then
+    echo "FAIL: transfer to an unknown account returned $STATUS, expected 500"
+    FAILED=1
+fi
+expect_balance "rolled back transfer," "$FROM_ACCOUNT" "$(balance "$DEPARTMENT_ONE_URL" "$FROM_ACCOUNT")" "$FROM_BALANCE"
+
+if [ $FAILED -ne 0 ]; then
+    echo "Failed to verify the transfers"
+    exit 1
+fi
+echo "Verified the transfers"